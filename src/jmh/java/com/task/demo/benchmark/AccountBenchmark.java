@@ -0,0 +1,55 @@
+package com.task.demo.benchmark;
+
+import com.task.demo.entity.Account;
+import com.task.demo.entity.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance arithmetic on the {@link Account} entity and the boundary conversion of amounts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountBenchmark {
+
+	private Account account;
+	private BigDecimal decimalAmount;
+
+	@Setup
+	public void setUp() {
+		account = new Account("12345", 1_000_000_00L);
+		decimalAmount = new BigDecimal("12.34");
+	}
+
+	@Benchmark
+	public long depositThenWithdraw() {
+		account.deposit(1234);
+		account.withdraw(1234);
+		return account.getBalanceMinorUnits();
+	}
+
+	@Benchmark
+	public long toMinorUnits() {
+		return Money.toMinorUnits(decimalAmount);
+	}
+
+	@Benchmark
+	public BigDecimal toDecimal() {
+		return account.getBalance();
+	}
+}
@@ -0,0 +1,127 @@
+package com.task.demo.benchmark;
+
+import com.task.demo.DemoApplication;
+import com.task.demo.controller.binary.BinaryClient;
+import com.task.demo.controller.binary.BinaryListener;
+import com.task.demo.controller.binary.BinaryProtocol;
+import com.task.demo.controller.binary.BinaryResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A deposit over the REST API against the same deposit over the binary protocol, one request at
+ * a time and pipelined in batches of {@link #PIPELINE_DEPTH}. Every thread deposits into its own
+ * account over its own connection, with admission control off, so the difference is the cost of
+ * the transport rather than of contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class BinaryProtocolBenchmark {
+
+	private static final int PIPELINE_DEPTH = 32;
+
+	private ConfigurableApplicationContext context;
+	private int httpPort;
+	private int binaryPort;
+
+	@Setup
+	public void setUp() {
+		context = new SpringApplicationBuilder(DemoApplication.class)
+				.run("--server.port=0", "--account.binary.enabled=true", "--account.binary.port=0",
+						"--account.admission.account-rate=0", "--account.admission.global-rate=0",
+						"--logging.level.root=WARN");
+		httpPort = ((WebServerApplicationContext) context).getWebServer().getPort();
+		binaryPort = context.getBean(BinaryListener.class).getPort();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@State(Scope.Thread)
+	public static class Connection {
+
+		private static int nextAccount;
+
+		private HttpClient httpClient;
+		private HttpRequest deposit;
+		private BinaryClient binaryClient;
+		private String accountNumber;
+
+		@Setup
+		public void setUp(BinaryProtocolBenchmark benchmark) throws IOException, InterruptedException {
+			synchronized (Connection.class) {
+				accountNumber = "BIN-" + nextAccount++;
+			}
+			httpClient = HttpClient.newHttpClient();
+			URI base = URI.create("http://localhost:" + benchmark.httpPort + "/api/accounts");
+			httpClient.send(HttpRequest.newBuilder(base)
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(
+							"{\"accountNumber\":\"" + accountNumber + "\",\"initialBalance\":0}"))
+					.build(), HttpResponse.BodyHandlers.discarding());
+			deposit = HttpRequest.newBuilder(URI.create(base + "/" + accountNumber + "/deposit"))
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString("{\"amount\":0.01}"))
+					.build();
+			binaryClient = new BinaryClient("localhost", benchmark.binaryPort);
+		}
+
+		@TearDown
+		public void tearDown() throws IOException {
+			binaryClient.close();
+			httpClient.close();
+		}
+	}
+
+	@Benchmark
+	public String rest(Connection connection) throws IOException, InterruptedException {
+		return connection.httpClient.send(connection.deposit, HttpResponse.BodyHandlers.ofString()).body();
+	}
+
+	@Benchmark
+	public BinaryResponse binary(Connection connection) throws IOException {
+		return connection.binaryClient.deposit(connection.accountNumber, 1);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PIPELINE_DEPTH)
+	public void binaryPipelined(Connection connection, Blackhole blackhole) throws IOException {
+		BinaryClient client = connection.binaryClient;
+		for (int i = 0; i < PIPELINE_DEPTH; i++) {
+			client.send(BinaryProtocol.DEPOSIT, connection.accountNumber, null, 1);
+		}
+		client.flush();
+		for (int i = 0; i < PIPELINE_DEPTH; i++) {
+			blackhole.consume(client.receive());
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package com.task.demo.benchmark;
+
+import com.task.demo.DemoApplication;
+import com.task.demo.entity.Account;
+import com.task.demo.exception.NotFoundException;
+import com.task.demo.payload.request.TransactionRequest;
+import com.task.demo.service.IAccountService;
+import org.apache.coyote.BadRequestException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many threads depositing into one account, with and without coalescing the account's deposits
+ * into group commits. Measures the throughput a single hot account can take.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class HotAccountDepositBenchmark {
+
+	@Param({"false", "true"})
+	private boolean coalescing;
+
+	private ConfigurableApplicationContext context;
+	private IAccountService accountService;
+	private TransactionRequest deposit;
+
+	@Setup
+	public void setUp() {
+		context = new SpringApplicationBuilder(DemoApplication.class)
+				.web(WebApplicationType.NONE)
+				.run("--account.coalescing.accounts=" + (coalescing ? "12345" : ""), "--account.coalescing.window=0ms",
+						"--account.lock.wait-timeout=30s", "--logging.level.root=WARN");
+		accountService = context.getBean(IAccountService.class);
+
+		deposit = new TransactionRequest();
+		deposit.setAmount(BigDecimal.ONE);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Account deposit() throws NotFoundException, BadRequestException {
+		return accountService.deposit("12345", deposit);
+	}
+}
@@ -0,0 +1,95 @@
+package com.task.demo.benchmark;
+
+import com.task.demo.DemoApplication;
+import com.task.demo.entity.Account;
+import com.task.demo.exception.NotFoundException;
+import com.task.demo.payload.request.TransactionRequest;
+import com.task.demo.payload.request.TransferRequest;
+import com.task.demo.service.IAccountService;
+import org.apache.coyote.BadRequestException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposit and transfer through the in-memory engine with a journal in a temporary directory,
+ * with and without waiting for the group flush. Runs single-threaded, so with {@code awaitFlush}
+ * every operation pays a full fsync; concurrent writers would share them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InMemoryAccountServiceBenchmark {
+
+	@Param({"true", "false"})
+	private boolean awaitFlush;
+
+	private Path journalDirectory;
+	private ConfigurableApplicationContext context;
+	private IAccountService accountService;
+	private TransactionRequest deposit;
+	private TransferRequest forward;
+	private TransferRequest backward;
+
+	@Setup
+	public void setUp() throws IOException {
+		journalDirectory = Files.createTempDirectory("journal-benchmark");
+		context = new SpringApplicationBuilder(DemoApplication.class)
+				.web(WebApplicationType.NONE)
+				.run("--account.engine=in-memory", "--account.journal.directory=" + journalDirectory,
+						"--account.journal.await-flush=" + awaitFlush, "--logging.level.root=WARN");
+		accountService = context.getBean(IAccountService.class);
+
+		deposit = new TransactionRequest();
+		deposit.setAmount(BigDecimal.ONE);
+		forward = transfer("12345", "67890");
+		backward = transfer("67890", "12345");
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		context.close();
+		FileSystemUtils.deleteRecursively(journalDirectory);
+	}
+
+	@Benchmark
+	public Account deposit() throws NotFoundException, BadRequestException {
+		return accountService.deposit("12345", deposit);
+	}
+
+	@Benchmark
+	public void transferRoundTrip() throws NotFoundException, BadRequestException {
+		accountService.transfer(forward);
+		accountService.transfer(backward);
+	}
+
+	private static TransferRequest transfer(String source, String target) {
+		TransferRequest request = new TransferRequest();
+		request.setSourceAccountNumber(source);
+		request.setTargetAccountNumber(target);
+		request.setAmount(BigDecimal.ONE);
+		return request;
+	}
+}
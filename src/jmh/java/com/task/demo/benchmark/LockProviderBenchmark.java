@@ -0,0 +1,98 @@
+package com.task.demo.benchmark;
+
+import com.task.demo.service.concurrency.LockProvider;
+import com.task.demo.service.concurrency.MultiAccountLock;
+import com.task.demo.service.concurrency.RefCountedLockProvider;
+import com.task.demo.service.concurrency.StripedLockProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lock acquisition as done by the lock executor, from 1 to all available threads. With a single
+ * account every thread contends on one lock; with many accounts contention is rare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LockProviderBenchmark {
+
+	@Param({"striped", "ref-counted"})
+	private String strategy;
+
+	@Param({"1", "10000"})
+	private int accounts;
+
+	private LockProvider lockProvider;
+	private String[] accountNumbers;
+
+	@Setup
+	public void setUp() {
+		lockProvider = "striped".equals(strategy) ? new StripedLockProvider(1024) : new RefCountedLockProvider();
+		accountNumbers = new String[accounts];
+		for (int i = 0; i < accounts; i++) {
+			accountNumbers[i] = String.valueOf(10_000 + i);
+		}
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void singleAccountOneThread() {
+		lockSingle();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void singleAccountFourThreads() {
+		lockSingle();
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public void singleAccountMaxThreads() {
+		lockSingle();
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void twoAccountsOneThread() {
+		lockPair();
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public void twoAccountsMaxThreads() {
+		lockPair();
+	}
+
+	private void lockSingle() {
+		String accountNumber = accountNumbers[ThreadLocalRandom.current().nextInt(accounts)];
+		try (MultiAccountLock ignored = MultiAccountLock.acquire(lockProvider, List.of(accountNumber), Long.MAX_VALUE)) {
+			// lock held and released
+		}
+	}
+
+	private void lockPair() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		List<String> pair = List.of(accountNumbers[random.nextInt(accounts)], accountNumbers[random.nextInt(accounts)]);
+		try (MultiAccountLock ignored = MultiAccountLock.acquire(lockProvider, pair, Long.MAX_VALUE)) {
+			// locks held and released
+		}
+	}
+}
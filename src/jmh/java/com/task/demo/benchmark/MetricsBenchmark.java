@@ -0,0 +1,93 @@
+package com.task.demo.benchmark;
+
+import com.task.demo.service.audit.AuditLog;
+import com.task.demo.service.audit.AuditRingBuffer.OverflowMode;
+import com.task.demo.service.concurrency.LockMetrics;
+import com.task.demo.service.metrics.AccountMetrics;
+import com.task.demo.service.metrics.HotAccountSketch;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of the recording calls made on every account operation, against the Prometheus registry
+ * used in production, with and without publishing to the audit log. Run with {@code -prof gc} to
+ * confirm they do not allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+	private AccountMetrics accountMetrics;
+	private AuditLog auditLog;
+	private LockMetrics lockMetrics;
+	private HotAccountSketch sketch;
+	private String[] accountNumbers;
+
+	@Setup
+	public void setUp() throws IOException {
+		PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+		accountMetrics = new AccountMetrics(registry, 20);
+		auditLog = new AuditLog(true, Files.createTempDirectory("audit").toString(), 65536, OverflowMode.DROP,
+				DataSize.ofMegabytes(64), AuditLog.FlushPolicy.INTERVAL, Duration.ofSeconds(1), registry);
+		lockMetrics = new LockMetrics(registry, "striped");
+		sketch = new HotAccountSketch(20);
+		accountNumbers = IntStream.range(0, 10_000).mapToObj(i -> String.valueOf(100000 + i)).toArray(String[]::new);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void recordOperation() {
+		accountMetrics.record(AccountMetrics.Operation.TRANSFER, System.nanoTime() - 50_000, null);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void recordAuditedOperation() {
+		accountMetrics.record(AccountMetrics.Operation.TRANSFER, System.nanoTime() - 50_000, null);
+		auditLog.record(AccountMetrics.Operation.TRANSFER, "12345", "67890", BigDecimal.ONE, null);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		accountMetrics.close();
+		auditLog.close();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void recordLockWaitAndHold() {
+		lockMetrics.recordWait(2_000);
+		lockMetrics.recordHold(40_000);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void recordAccess() {
+		sketch.record(accountNumbers[ThreadLocalRandom.current().nextInt(accountNumbers.length)]);
+	}
+}
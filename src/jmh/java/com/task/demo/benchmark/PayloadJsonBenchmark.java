@@ -0,0 +1,60 @@
+package com.task.demo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.task.demo.entity.Account;
+import com.task.demo.payload.request.TransactionRequest;
+import com.task.demo.payload.request.TransferRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON (de)serialization of the request payloads and the account response, with the same
+ * {@link ObjectMapper} defaults Spring MVC uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadJsonBenchmark {
+
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+	private byte[] transactionJson;
+	private byte[] transferJson;
+	private Account account;
+
+	@Setup
+	public void setUp() {
+		transactionJson = "{\"amount\":500.25}".getBytes();
+		transferJson = "{\"sourceAccountNumber\":\"12345\",\"targetAccountNumber\":\"67890\",\"amount\":200.00}".getBytes();
+		account = new Account("12345", 1_000_00L);
+	}
+
+	@Benchmark
+	public TransactionRequest readTransactionRequest() throws IOException {
+		return objectMapper.readValue(transactionJson, TransactionRequest.class);
+	}
+
+	@Benchmark
+	public TransferRequest readTransferRequest() throws IOException {
+		return objectMapper.readValue(transferJson, TransferRequest.class);
+	}
+
+	@Benchmark
+	public byte[] writeAccount() throws IOException {
+		return objectMapper.writeValueAsBytes(account);
+	}
+}
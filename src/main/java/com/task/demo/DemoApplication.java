@@ -1,7 +1,8 @@
 package com.task.demo;
 
-import com.task.demo.entity.Account;
-import com.task.demo.repository.AccountRepository;
+import com.task.demo.payload.request.CreateAccountRequest;
+import com.task.demo.service.IAccountService;
+import org.apache.coyote.BadRequestException;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -17,10 +18,20 @@ public class DemoApplication {
 	}
 
 	@Bean
-	CommandLineRunner initData(AccountRepository repository) {
+	CommandLineRunner initData(IAccountService accountService) {
 		return args -> {
-			repository.save(new Account("12345", BigDecimal.valueOf(1000)));
-			repository.save(new Account("67890", BigDecimal.valueOf(2000)));
+			createIfMissing(accountService, "12345", BigDecimal.valueOf(1000));
+			createIfMissing(accountService, "67890", BigDecimal.valueOf(2000));
 		};
 	}
+
+	private static void createIfMissing(IAccountService accountService, String accountNumber, BigDecimal balance)
+			throws BadRequestException {
+		if (accountService.getAccount(accountNumber) == null) {
+			CreateAccountRequest request = new CreateAccountRequest();
+			request.setAccountNumber(accountNumber);
+			request.setInitialBalance(balance);
+			accountService.createAccount(request);
+		}
+	}
 }
@@ -0,0 +1,104 @@
+package com.task.demo.config;
+
+import com.task.demo.repository.AccountRepository;
+import com.task.demo.repository.LedgerEntryRepository;
+import com.task.demo.repository.OutboxTransferRepository;
+import com.task.demo.repository.ReceivedTransferRepository;
+import com.task.demo.repository.sharding.ShardRouter;
+import com.task.demo.service.IBalanceService;
+import com.task.demo.service.concurrency.AccountExecutor;
+import com.task.demo.service.concurrency.ConcurrencyMode;
+import com.task.demo.service.concurrency.DepositCoalescer;
+import com.task.demo.service.concurrency.DirectAccountExecutor;
+import com.task.demo.service.concurrency.LockMetrics;
+import com.task.demo.service.concurrency.LockProvider;
+import com.task.demo.service.concurrency.LockStrategy;
+import com.task.demo.service.concurrency.LockingAccountExecutor;
+import com.task.demo.service.concurrency.RefCountedLockProvider;
+import com.task.demo.service.concurrency.RequestExecutor;
+import com.task.demo.service.concurrency.RetryingAccountExecutor;
+import com.task.demo.service.concurrency.SequencingAccountExecutor;
+import com.task.demo.service.concurrency.StripedLockProvider;
+import com.task.demo.service.impl.AtomicBalanceService;
+import com.task.demo.service.impl.BalanceService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+@Configuration
+public class ConcurrencyConfig {
+
+    @Bean
+    public LockProvider lockProvider(@Value("${account.lock.strategy:striped}") LockStrategy strategy,
+                                     @Value("${account.lock.stripes:1024}") int stripes) {
+        return switch (strategy) {
+            case STRIPED -> new StripedLockProvider(stripes);
+            case REF_COUNTED -> new RefCountedLockProvider();
+        };
+    }
+
+    @Bean
+    public AccountExecutor accountExecutor(@Value("${account.concurrency.mode:lock}") ConcurrencyMode mode,
+                                           LockProvider lockProvider,
+                                           @Value("${account.lock.strategy:striped}") LockStrategy strategy,
+                                           @Value("${account.lock.wait-timeout:2s}") Duration lockWaitTimeout,
+                                           @Value("${account.sequencer.queue-capacity:1024}") int queueCapacity,
+                                           @Value("${account.sequencer.wait-timeout:5s}") Duration waitTimeout,
+                                           @Value("${account.optimistic.max-attempts:5}") int maxAttempts,
+                                           @Value("${account.optimistic.backoff:5ms}") Duration backoff,
+                                           @Value("${account.optimistic.max-backoff:100ms}") Duration maxBackoff,
+                                           MeterRegistry meterRegistry) {
+        return switch (mode) {
+            case LOCK -> new LockingAccountExecutor(lockProvider, lockWaitTimeout,
+                    new LockMetrics(meterRegistry, strategy.name().toLowerCase().replace('_', '-')));
+            case SEQUENCER -> new SequencingAccountExecutor(queueCapacity, waitTimeout,
+                    new LockMetrics(meterRegistry, "sequencer"));
+            case DB_ATOMIC -> new DirectAccountExecutor();
+            case OPTIMISTIC -> new RetryingAccountExecutor(maxAttempts, backoff, maxBackoff, meterRegistry);
+        };
+    }
+
+    @Bean
+    public DepositCoalescer depositCoalescer(@Value("${account.coalescing.accounts:}") Set<String> accountNumbers,
+                                             @Value("${account.coalescing.window:1ms}") Duration window,
+                                             @Value("${account.coalescing.max-batch:1024}") int maxBatch,
+                                             @Value("${account.coalescing.wait-timeout:5s}") Duration waitTimeout,
+                                             AccountExecutor accountExecutor,
+                                             IBalanceService balanceService,
+                                             ShardRouter shardRouter,
+                                             MeterRegistry meterRegistry) {
+        return new DepositCoalescer(accountNumbers, window, maxBatch, waitTimeout,
+                (accountNumber, amounts, requestIds) -> accountExecutor.execute(List.of(accountNumber),
+                        () -> shardRouter.onShardOf(accountNumber, () -> balanceService.depositAll(accountNumber, amounts, requestIds))),
+                meterRegistry);
+    }
+
+    @Bean
+    public RequestExecutor requestExecutor(@Value("${account.async.threads:10}") int threads,
+                                           @Value("${account.async.queue-capacity:100}") int queueCapacity,
+                                           @Value("${account.async.queue-timeout:5s}") Duration queueTimeout,
+                                           MeterRegistry meterRegistry) {
+        return new RequestExecutor(threads, queueCapacity, queueTimeout, meterRegistry);
+    }
+
+    @Bean
+    public IBalanceService balanceService(@Value("${account.concurrency.mode:lock}") ConcurrencyMode mode,
+                                          AccountRepository accountRepository,
+                                          LedgerEntryRepository ledgerEntryRepository,
+                                          OutboxTransferRepository outboxTransferRepository,
+                                          ReceivedTransferRepository receivedTransferRepository,
+                                          ApplicationEventPublisher eventPublisher) {
+        if (mode == ConcurrencyMode.DB_ATOMIC) {
+            return new AtomicBalanceService(accountRepository, ledgerEntryRepository, outboxTransferRepository,
+                    receivedTransferRepository, eventPublisher);
+        }
+        return new BalanceService(accountRepository, ledgerEntryRepository, outboxTransferRepository,
+                receivedTransferRepository, eventPublisher);
+    }
+}
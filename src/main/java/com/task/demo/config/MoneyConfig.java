@@ -0,0 +1,23 @@
+package com.task.demo.config;
+
+import com.task.demo.entity.Money;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Sets the {@link Money} scale from {@code account.money.scale}. It runs as a bean factory post
+ * processor, before any other bean is created, so nothing converts an amount at the default scale
+ * first. Stored balances are minor units at the scale they were written with: the scale may only
+ * be chosen for a fresh schema and journal. Every context in one JVM must use the same scale.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MoneyConfig {
+
+    @Bean
+    public static BeanFactoryPostProcessor moneyScale(Environment environment) {
+        int scale = environment.getProperty("account.money.scale", Integer.class, Money.DEFAULT_SCALE);
+        return beanFactory -> Money.setScale(scale);
+    }
+}
@@ -0,0 +1,32 @@
+package com.task.demo.config;
+
+import com.task.demo.repository.AccountRepository;
+import com.task.demo.repository.sharding.ShardRouter;
+import com.task.demo.service.impl.AccountReadModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+
+/**
+ * With {@code account.read-model.enabled=true} the JPA engine serves reads from an
+ * {@link AccountReadModel}. The in-memory engine keeps its accounts on the heap anyway.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("${account.read-model.enabled:false} and '${account.engine:jpa}' == 'jpa'")
+@EnableScheduling
+public class ReadModelConfig {
+
+    @Bean
+    public AccountReadModel accountReadModel(AccountRepository accountRepository, ShardRouter shardRouter,
+                                             PlatformTransactionManager transactionManager,
+                                             @Value("${account.read-model.max-staleness:30s}") Duration maxStaleness,
+                                             MeterRegistry meterRegistry) {
+        return new AccountReadModel(accountRepository, shardRouter, transactionManager, maxStaleness, meterRegistry);
+    }
+}
@@ -0,0 +1,184 @@
+package com.task.demo.config;
+
+import com.task.demo.repository.sharding.ShardRouter;
+import com.task.demo.repository.sharding.ShardRoutingDataSource;
+import com.task.demo.repository.sharding.ShardTenancy;
+import com.task.demo.service.impl.CrossShardTransfers;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.MultiTenancySettings;
+import org.hibernate.cfg.SchemaToolingSettings;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.relational.SchemaManager;
+import org.hibernate.tool.schema.Action;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+public class ShardingConfig {
+
+    @Bean
+    public ShardRouter shardRouter(@Value("${account.sharding.shard-count:1}") int shardCount,
+                                   @Value("${account.sharding.virtual-nodes:128}") int virtualNodes) {
+        return new ShardRouter(shardCount, virtualNodes);
+    }
+
+    /**
+     * With more than one shard, replaces the single auto-configured data source by one connection
+     * pool per shard behind a routing data source. Shard {@code i} connects to
+     * {@code account.sharding.url} formatted with {@code i}, with the credentials and
+     * {@code spring.datasource.hikari} settings of the single data source. JPA reaches the shards
+     * as Hibernate tenants, see {@link ShardTenancy}.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnExpression("${account.sharding.shard-count:1} > 1")
+    @EnableScheduling
+    static class ShardedDataSourceConfig {
+
+        @Bean
+        @Primary
+        public ShardRoutingDataSource shardRoutingDataSource(ShardRouter shardRouter, DataSourceProperties properties,
+                                                             @Value("${account.sharding.url:jdbc:h2:mem:shard%d}") String urlTemplate,
+                                                             Environment environment) {
+            List<DataSource> shards = new ArrayList<>(shardRouter.shardCount());
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                        .type(HikariDataSource.class)
+                        .url(String.format(urlTemplate, shard))
+                        .build();
+                Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+                dataSource.setPoolName("shard-" + shard);
+                shards.add(dataSource);
+            }
+            return new ShardRoutingDataSource(shardRouter, shards);
+        }
+
+        @Bean
+        public ShardTenancy shardTenancy(ShardRouter shardRouter, ShardRoutingDataSource shardRoutingDataSource) {
+            return new ShardTenancy(shardRouter, shardRoutingDataSource);
+        }
+
+        @Bean
+        public HibernatePropertiesCustomizer shardTenancyCustomizer(ShardTenancy shardTenancy) {
+            return properties -> {
+                properties.put(MultiTenancySettings.MULTI_TENANT_CONNECTION_PROVIDER, shardTenancy);
+                properties.put(MultiTenancySettings.MULTI_TENANT_IDENTIFIER_RESOLVER, shardTenancy);
+            };
+        }
+
+        @Bean
+        public ShardSchemaInitializer shardSchemaInitializer(EntityManagerFactory entityManagerFactory,
+                                                             ShardRouter shardRouter,
+                                                             ShardRoutingDataSource shardRoutingDataSource) {
+            return new ShardSchemaInitializer(entityManagerFactory, shardRouter, shardRoutingDataSource);
+        }
+
+        @Bean
+        public OutboxRelay outboxRelay(CrossShardTransfers crossShardTransfers) {
+            return new OutboxRelay(crossShardTransfers);
+        }
+    }
+
+    /**
+     * Hibernate manages the schema of shard 0 only, the shard it sees at startup. This applies the
+     * same {@code spring.jpa.hibernate.ddl-auto} action to every other shard, as far as it can be
+     * done through the {@link SchemaManager}: {@code create} and {@code create-drop} export the
+     * schema again, {@code validate} validates it. Either way the shard's sequences are then moved
+     * forward into its id range, see {@link ShardRouter#firstId(int)}. Any other action leaves the
+     * shards alone, so shards managed outside the application must start their sequences in their
+     * id range themselves.
+     */
+    static class ShardSchemaInitializer {
+
+        ShardSchemaInitializer(EntityManagerFactory entityManagerFactory, ShardRouter shardRouter,
+                               ShardRoutingDataSource shardRoutingDataSource) {
+            SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+            SchemaManager schemaManager = sessionFactory.getSchemaManager();
+            Action action = Action.interpretHbm2ddlSetting(entityManagerFactory.getProperties().get(SchemaToolingSettings.HBM2DDL_AUTO));
+            for (int shard = 1; shard < shardRouter.shardCount(); shard++) {
+                if (action == Action.CREATE || action == Action.CREATE_DROP) {
+                    shardRouter.onShard(shard, () -> {
+                        schemaManager.dropMappedObjects(false);
+                        schemaManager.exportMappedObjects(false);
+                        return null;
+                    });
+                } else if (action == Action.VALIDATE) {
+                    shardRouter.onShard(shard, () -> {
+                        schemaManager.validateMappedObjects();
+                        return null;
+                    });
+                } else {
+                    continue;
+                }
+                moveSequences(sessionFactory, new JdbcTemplate(shardRoutingDataSource.shard(shard)), ShardRouter.firstId(shard));
+            }
+        }
+
+        /**
+         * Moves every mapped sequence of a shard forward so its next block starts at
+         * {@code firstId}, and never back. The sequences are taken from the id generators and read
+         * with the dialect's next-value query; the restart is standard SQL.
+         */
+        private static void moveSequences(SessionFactoryImplementor sessionFactory, JdbcTemplate jdbcTemplate, long firstId) {
+            SequenceSupport sequenceSupport = sessionFactory.getJdbcServices().getDialect().getSequenceSupport();
+            Map<String, Integer> sequences = new LinkedHashMap<>();
+            sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+                if (persister.getGenerator() instanceof SequenceStyleGenerator generator
+                        && generator.getDatabaseStructure().isPhysicalSequence()) {
+                    DatabaseStructure structure = generator.getDatabaseStructure();
+                    sequences.put(sessionFactory.getSqlStringGenerationContext().format(structure.getPhysicalName()),
+                            structure.getIncrementSize());
+                }
+            });
+            for (Map.Entry<String, Integer> sequence : sequences.entrySet()) {
+                // The pooled optimizer reads a sequence value as the last id of a block of
+                // "increment" ids, so the first block ends at firstId + increment - 1.
+                long startWith = firstId + sequence.getValue() - 1;
+                Long next = jdbcTemplate.queryForObject(sequenceSupport.getSequenceNextValString(sequence.getKey()), Long.class);
+                if (next != null && next >= startWith) {
+                    continue;
+                }
+                jdbcTemplate.execute(String.format("alter sequence %s restart with %d", sequence.getKey(), startWith));
+            }
+        }
+    }
+
+    /**
+     * Runs {@link CrossShardTransfers#relay()} every {@code account.sharding.outbox.relay-interval}.
+     * Only registered with more than one shard; with a single shard no transfer goes through the
+     * outbox.
+     */
+    static class OutboxRelay {
+
+        private final CrossShardTransfers crossShardTransfers;
+
+        OutboxRelay(CrossShardTransfers crossShardTransfers) {
+            this.crossShardTransfers = crossShardTransfers;
+        }
+
+        @Scheduled(fixedDelayString = "${account.sharding.outbox.relay-interval:1s}")
+        void relay() {
+            crossShardTransfers.relay();
+        }
+    }
+}
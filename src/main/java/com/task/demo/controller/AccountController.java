@@ -1,40 +1,101 @@
 package com.task.demo.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import com.task.demo.entity.Account;
+import com.task.demo.entity.LedgerEntry;
 import com.task.demo.exception.NotFoundException;
+import com.task.demo.exception.OutcomeUnknownException;
 import com.task.demo.exception.TransactionException;
 import com.task.demo.payload.request.CreateAccountRequest;
 import com.task.demo.payload.request.TransactionRequest;
 import com.task.demo.payload.request.TransferRequest;
+import com.task.demo.payload.response.AccountImportResult;
+import com.task.demo.payload.response.AccountPage;
+import com.task.demo.payload.response.AccountStats;
+import com.task.demo.payload.response.LedgerPage;
+import com.task.demo.payload.response.TransferResult;
 import com.task.demo.service.Operation;
 import com.task.demo.service.IAccountService;
+import com.task.demo.service.LedgerExport;
+import com.task.demo.service.audit.AuditLog;
+import com.task.demo.service.audit.AuditedOperation;
 import org.apache.coyote.BadRequestException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/accounts")
 public class AccountController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
     private final IAccountService accountService;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyStore idempotencyStore;
+    private final AdmissionControl admissionControl;
+    private final AuditLog auditLog;
+    private final int batchChunkSize;
+    private final int batchMaxItems;
 
     @Autowired
-    public AccountController(IAccountService accountService) {
+    public AccountController(IAccountService accountService, ObjectMapper objectMapper, IdempotencyStore idempotencyStore,
+                             AdmissionControl admissionControl, AuditLog auditLog,
+                             @Value("${account.batch.chunk-size:500}") int batchChunkSize,
+                             @Value("${account.batch.max-items:10000}") int batchMaxItems) {
         this.accountService = accountService;
+        this.objectMapper = objectMapper;
+        this.idempotencyStore = idempotencyStore;
+        this.admissionControl = admissionControl;
+        this.auditLog = auditLog;
+        this.batchChunkSize = batchChunkSize;
+        this.batchMaxItems = batchMaxItems;
     }
 
     @PostMapping
     public ResponseEntity<Account> createAccount(@RequestBody CreateAccountRequest request) {
-        return handleAccountOperation(() -> accountService.createAccount(request), HttpStatus.CREATED);
+        return admissionControl.execute(AuditedOperation.create(request.getAccountNumber(), request.getInitialBalance()), List.of(),
+                () -> handleAccountOperation(() -> accountService.createAccount(request), HttpStatus.CREATED));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<AccountImportResult> importAccountsNdjson(InputStream body) {
+        return admissionControl.execute(AuditedOperation.create(null, null), List.of(),
+                () -> importAccounts(body, AccountImportReader.Format.NDJSON));
+    }
+
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<AccountImportResult> importAccountsCsv(InputStream body) {
+        return admissionControl.execute(AuditedOperation.create(null, null), List.of(),
+                () -> importAccounts(body, AccountImportReader.Format.CSV));
     }
 
     @GetMapping("/{accountNumber}")
@@ -43,30 +104,213 @@ public class AccountController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Account>> listAccounts() {
-        return new ResponseEntity<>(accountService.listAccounts(), HttpStatus.OK);
+    public ResponseEntity<List<Account>> listAccounts(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "100") int limit) {
+        try {
+            AccountPage page = accountService.listAccounts(cursor, limit);
+            HttpHeaders headers = new HttpHeaders();
+            if (page.getNextCursor() != null) {
+                headers.set(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return new ResponseEntity<>(page.getAccounts(), headers, HttpStatus.OK);
+        } catch (Exception e) {
+            return buildErrorResponse(e);
+        }
     }
 
-    @PostMapping("/{accountNumber}/deposit")
-    public ResponseEntity<Account> deposit(@PathVariable String accountNumber, @RequestBody TransactionRequest request) {
-        return handleAccountOperation(() -> accountService.deposit(accountNumber, request), HttpStatus.OK);
+    @GetMapping("/stats")
+    public ResponseEntity<AccountStats> getStats() {
+        return new ResponseEntity<>(accountService.getStats(), HttpStatus.OK);
     }
 
-    @PostMapping("/{accountNumber}/withdraw")
-    public ResponseEntity<Account> withdraw(@PathVariable String accountNumber, @RequestBody TransactionRequest request) {
-        return handleAccountOperation(() -> accountService.withdraw(accountNumber, request), HttpStatus.OK);
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAccounts() {
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+                accountService.exportAccounts(account -> {
+                    try {
+                        writer.write(account);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return new ResponseEntity<>(body, HttpStatus.OK);
     }
 
-    @PostMapping("/transfer")
-    public ResponseEntity<String> transfer(@RequestBody TransferRequest request) {
+    @GetMapping("/{accountNumber}/transactions")
+    public ResponseEntity<List<LedgerEntry>> listTransactions(@PathVariable String accountNumber,
+                                                              @RequestParam(required = false) Instant from,
+                                                              @RequestParam(required = false) Instant to,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "100") int limit) {
         try {
-            accountService.transfer(request);
-            return new ResponseEntity("Transfer successfully executed", HttpStatus.OK);
+            LedgerPage page = accountService.listTransactions(accountNumber, from, to, cursor, limit);
+            HttpHeaders headers = new HttpHeaders();
+            if (page.getNextCursor() != null) {
+                headers.set(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return new ResponseEntity<>(page.getEntries(), headers, HttpStatus.OK);
         } catch (Exception e) {
             return buildErrorResponse(e);
         }
     }
 
+    @GetMapping(value = "/{accountNumber}/transactions/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@PathVariable String accountNumber,
+                                                                    @RequestParam(required = false) Instant from,
+                                                                    @RequestParam(required = false) Instant to) {
+        LedgerExport export;
+        try {
+            export = accountService.exportTransactions(accountNumber, from, to);
+        } catch (Exception e) {
+            ResponseEntity<String> error = buildErrorResponse(e);
+            byte[] message = error.getBody().getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.status(error.getStatusCode())
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(out -> out.write(message));
+        }
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+                export.writeTo(entry -> {
+                    try {
+                        writer.write(entry);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return new ResponseEntity<>(body, HttpStatus.OK);
+    }
+
+    @PostMapping("/{accountNumber}/deposit")
+    public ResponseEntity<Account> deposit(@PathVariable String accountNumber, @RequestBody TransactionRequest request,
+                                           @RequestHeader(name = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return deposit(accountNumber, request, idempotencyKey, true);
+    }
+
+    /**
+     * @param waitForDuplicate whether a duplicate of a request still in progress waits for its response, see
+     *                         {@link IdempotencyStore}
+     */
+    ResponseEntity<Account> deposit(String accountNumber, TransactionRequest request, String idempotencyKey,
+                                    boolean waitForDuplicate) {
+        AuditedOperation attempt = AuditedOperation.deposit(accountNumber, request.getAmount());
+        return admissionControl.execute(attempt, List.of(accountNumber),
+                () -> idempotencyStore.execute(attempt, idempotencyKey, fingerprint("deposit", accountNumber, request.getAmount()),
+                        waitForDuplicate,
+                        () -> handleAccountOperation(() -> accountService.deposit(accountNumber, request), HttpStatus.OK)));
+    }
+
+    @PostMapping("/{accountNumber}/withdraw")
+    public ResponseEntity<Account> withdraw(@PathVariable String accountNumber, @RequestBody TransactionRequest request,
+                                            @RequestHeader(name = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return withdraw(accountNumber, request, idempotencyKey, true);
+    }
+
+    /**
+     * @param waitForDuplicate whether a duplicate of a request still in progress waits for its response, see
+     *                         {@link IdempotencyStore}
+     */
+    ResponseEntity<Account> withdraw(String accountNumber, TransactionRequest request, String idempotencyKey,
+                                     boolean waitForDuplicate) {
+        AuditedOperation attempt = AuditedOperation.withdraw(accountNumber, request.getAmount());
+        return admissionControl.execute(attempt, List.of(accountNumber),
+                () -> idempotencyStore.execute(attempt, idempotencyKey, fingerprint("withdraw", accountNumber, request.getAmount()),
+                        waitForDuplicate,
+                        () -> handleAccountOperation(() -> accountService.withdraw(accountNumber, request), HttpStatus.OK)));
+    }
+
+    @PostMapping("/transfer")
+    public ResponseEntity<String> transfer(@RequestBody TransferRequest request,
+                                           @RequestHeader(name = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return transfer(request, idempotencyKey, true);
+    }
+
+    /**
+     * @param waitForDuplicate whether a duplicate of a request still in progress waits for its response, see
+     *                         {@link IdempotencyStore}
+     */
+    ResponseEntity<String> transfer(TransferRequest request, String idempotencyKey, boolean waitForDuplicate) {
+        String fingerprint = fingerprint("transfer", request.getSourceAccountNumber() + "->" + request.getTargetAccountNumber(),
+                request.getAmount());
+        AuditedOperation attempt = AuditedOperation.transfer(request.getSourceAccountNumber(), request.getTargetAccountNumber(),
+                request.getAmount());
+        return admissionControl.execute(attempt, Arrays.asList(request.getSourceAccountNumber(), request.getTargetAccountNumber()),
+                () -> idempotencyStore.execute(attempt, idempotencyKey, fingerprint, waitForDuplicate, () -> {
+                    try {
+                        accountService.transfer(request);
+                        return new ResponseEntity("Transfer successfully executed", HttpStatus.OK);
+                    } catch (Exception e) {
+                        return buildErrorResponse(e);
+                    }
+                }));
+    }
+
+    /**
+     * A batch is admitted as one request by the global limit only; its transfers are not checked
+     * against the limits of their accounts. A JSON array is held in memory whole, so one of more
+     * than {@code account.batch.max-items} transfers is refused with {@code 413 Payload Too Large};
+     * larger batches go through the NDJSON variant, which is read one chunk at a time.
+     */
+    @PostMapping(value = "/transfers/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<TransferResult>> transferBatch(@RequestBody List<TransferRequest> requests) {
+        if (requests.size() > batchMaxItems) {
+            String message = String.format("A JSON batch may hold at most %d transfers; send larger batches as %s",
+                    batchMaxItems, MediaType.APPLICATION_NDJSON_VALUE);
+            auditLog.recordRejected(AuditedOperation.transfer(null, null, null), message);
+            return new ResponseEntity(message, HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        return admissionControl.execute(AuditedOperation.transfer(null, null, null), List.of(),
+                () -> new ResponseEntity<>(accountService.transferBatch(requests), HttpStatus.OK));
+    }
+
+    /**
+     * Reads the body one chunk of {@code account.batch.chunk-size} lines at a time and applies each
+     * chunk before reading the next, so the body is never held in memory. A line that cannot be read
+     * ends the batch with a failed result for it; the transfers before it stay applied.
+     */
+    @PostMapping(value = "/transfers/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<TransferResult>> transferBatchNdjson(InputStream body) {
+        return admissionControl.execute(AuditedOperation.transfer(null, null, null), List.of(), () -> {
+            List<TransferResult> results = new ArrayList<>();
+            List<TransferRequest> chunk = new ArrayList<>(batchChunkSize);
+            TransferResult unreadable = null;
+            try (MappingIterator<TransferRequest> iterator = objectMapper.readerFor(TransferRequest.class).readValues(body)) {
+                while (iterator.hasNextValue()) {
+                    chunk.add(iterator.nextValue());
+                    if (chunk.size() == batchChunkSize) {
+                        results.addAll(accountService.transferBatch(chunk));
+                        chunk.clear();
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                unreadable = TransferResult.failed(HttpStatus.BAD_REQUEST, "Invalid JSON: " + e.getOriginalMessage());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (!chunk.isEmpty()) {
+                results.addAll(accountService.transferBatch(chunk));
+            }
+            if (unreadable != null) {
+                results.add(unreadable);
+            }
+            return new ResponseEntity<>(results, HttpStatus.OK);
+        });
+    }
+
+    private ResponseEntity<AccountImportResult> importAccounts(InputStream body, AccountImportReader.Format format) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        AccountImportReader rows = new AccountImportReader(reader, format, objectMapper.readerFor(CreateAccountRequest.class));
+        return new ResponseEntity<>(accountService.importAccounts(rows), HttpStatus.OK);
+    }
+
+    private static String fingerprint(String operation, String accounts, BigDecimal amount) {
+        return operation + ' ' + accounts + ' ' + (amount == null ? null : amount.stripTrailingZeros().toPlainString());
+    }
+
     private <T> ResponseEntity<T> handleAccountOperation(Operation operation, HttpStatus successStatus) {
         try {
             Account result = operation.execute();
@@ -76,8 +320,14 @@ public class AccountController {
         }
     }
 
+    /**
+     * An {@link OutcomeUnknownException} is rethrown rather than answered, so the
+     * {@link IdempotencyStore} keeps the key of a mutation that may have taken effect.
+     */
     private <T> ResponseEntity<T> buildErrorResponse(Exception e) {
-        if (e instanceof NotFoundException) {
+        if (e instanceof OutcomeUnknownException outcomeUnknown) {
+            throw outcomeUnknown;
+        } else if (e instanceof NotFoundException) {
             return new ResponseEntity(e.getMessage(), HttpStatus.NOT_FOUND);
         } else if (e instanceof TransactionException) {
             return new ResponseEntity(e.getMessage(), HttpStatus.CONFLICT);
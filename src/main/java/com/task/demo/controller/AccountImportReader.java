@@ -0,0 +1,104 @@
+package com.task.demo.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.task.demo.payload.request.AccountImportRow;
+import com.task.demo.payload.request.CreateAccountRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads an uploaded account import line by line, so the upload is never held in memory. NDJSON
+ * lines hold one create-account request each; CSV lines hold {@code accountNumber,initialBalance},
+ * optionally below a header line naming those columns. Blank lines are skipped, and a line that
+ * cannot be parsed becomes a failed row instead of aborting the import.
+ */
+final class AccountImportReader implements Iterator<AccountImportRow> {
+
+    enum Format {
+        NDJSON, CSV
+    }
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectReader requestReader;
+    private long line;
+    private AccountImportRow next;
+
+    AccountImportReader(BufferedReader reader, Format format, ObjectReader requestReader) {
+        this.reader = reader;
+        this.format = format;
+        this.requestReader = requestReader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readRow();
+        }
+        return next != null;
+    }
+
+    @Override
+    public AccountImportRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        AccountImportRow row = next;
+        next = null;
+        return row;
+    }
+
+    private AccountImportRow readRow() {
+        while (true) {
+            String text;
+            try {
+                text = reader.readLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (text == null) {
+                return null;
+            }
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            if (format == Format.NDJSON) {
+                return parseJson(text);
+            }
+            String[] fields = text.split(",", -1);
+            if (line == 1 && fields[0].trim().equalsIgnoreCase("accountNumber")) {
+                continue;
+            }
+            return parseCsv(fields);
+        }
+    }
+
+    private AccountImportRow parseJson(String text) {
+        try {
+            return AccountImportRow.parsed(line, requestReader.readValue(text));
+        } catch (JsonProcessingException e) {
+            return AccountImportRow.unparseable(line, "Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private AccountImportRow parseCsv(String[] fields) {
+        if (fields.length != 2) {
+            return AccountImportRow.unparseable(line, "Expected accountNumber,initialBalance");
+        }
+        CreateAccountRequest request = new CreateAccountRequest();
+        request.setAccountNumber(fields[0].trim());
+        try {
+            request.setInitialBalance(fields[1].isBlank() ? null : new BigDecimal(fields[1].trim()));
+        } catch (NumberFormatException e) {
+            return AccountImportRow.unparseable(line, String.format("Invalid initial balance %s", fields[1].trim()));
+        }
+        return AccountImportRow.parsed(line, request);
+    }
+}
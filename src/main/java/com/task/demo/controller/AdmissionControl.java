@@ -0,0 +1,184 @@
+package com.task.demo.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.task.demo.service.audit.AuditLog;
+import com.task.demo.service.audit.AuditedOperation;
+import com.task.demo.service.concurrency.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Sheds mutations before they reach the service, so a client hammering one account is turned away
+ * without taking locks or connections that other accounts need. A request must get a token from
+ * the {@link TokenBucket} of every account it touches, refilled at {@code account.admission.account-rate}
+ * per second up to {@code account.admission.account-burst}, and one from a global bucket configured
+ * by {@code account.admission.global-rate} and {@code account.admission.global-burst}. A rate of zero
+ * turns that limit off, and both rates default to zero: the limits are opt-in.
+ * <p>
+ * Account buckets live in a table that drops a bucket once it has been idle for
+ * {@code account.admission.expire-after-access}, and never before it has had time to refill
+ * completely, so a bucket dropped for being idle comes back exactly as full as it was. The table
+ * holds at most {@code account.admission.maximum-accounts} buckets and never evicts one to make
+ * room: while it is full, accounts without a bucket share a single overflow bucket with the same
+ * rate and burst. A client flooding the table with account numbers thus wins no fresh burst per
+ * number and cannot push busy accounts out of the table; it only competes with other accounts
+ * that arrive while the table is full.
+ * <p>
+ * A rejected request is answered with {@code 429 Too Many Requests} and a {@code Retry-After}
+ * header telling when a token is due, and is counted as {@code account.admission.rejected},
+ * tagged with the {@code limit} that refused it: {@code account}, {@code overflow} or {@code global}.
+ */
+@Component
+public class AdmissionControl {
+
+    private final Cache<String, TokenBucket> accountBuckets;
+    private final double accountRate;
+    private final int accountBurst;
+    private final long maximumAccounts;
+    private final AtomicLong accountBucketCount = new AtomicLong();
+    private final TokenBucket overflowBucket;
+    private final TokenBucket globalBucket;
+    private final Counter accountRejections;
+    private final Counter overflowRejections;
+    private final Counter globalRejections;
+    private final AuditLog auditLog;
+
+    @Autowired
+    public AdmissionControl(@Value("${account.admission.account-rate:0}") double accountRate,
+                            @Value("${account.admission.account-burst:1000}") int accountBurst,
+                            @Value("${account.admission.global-rate:0}") double globalRate,
+                            @Value("${account.admission.global-burst:40000}") int globalBurst,
+                            @Value("${account.admission.maximum-accounts:100000}") long maximumAccounts,
+                            @Value("${account.admission.expire-after-access:1m}") Duration expireAfterAccess,
+                            MeterRegistry meterRegistry, AuditLog auditLog) {
+        this.accountRate = accountRate;
+        this.accountBurst = accountBurst;
+        this.maximumAccounts = maximumAccounts;
+        this.accountBuckets = Caffeine.newBuilder()
+                .expireAfterAccess(accountRate > 0 ? max(expireAfterAccess, refillTime(accountRate, accountBurst)) : expireAfterAccess)
+                .removalListener((String accountNumber, TokenBucket bucket, RemovalCause cause) -> accountBucketCount.decrementAndGet())
+                .recordStats()
+                // Expire on the calling thread, so a freed slot is available to the next admit().
+                .executor(Runnable::run)
+                .build();
+        this.overflowBucket = accountRate > 0 ? new TokenBucket(accountRate, accountBurst) : null;
+        this.globalBucket = globalRate > 0 ? new TokenBucket(globalRate, globalBurst) : null;
+        this.accountRejections = rejections(meterRegistry, "account");
+        this.overflowRejections = rejections(meterRegistry, "overflow");
+        this.globalRejections = rejections(meterRegistry, "global");
+        CaffeineCacheMetrics.monitor(meterRegistry, accountBuckets, "admission");
+        this.auditLog = auditLog;
+    }
+
+    /**
+     * Runs {@code operation} if {@link #admit(List)} lets it in, and audits {@code attempt} as
+     * rejected otherwise.
+     */
+    public <T> ResponseEntity<T> execute(AuditedOperation attempt, List<String> accountNumbers,
+                                         Supplier<ResponseEntity<T>> operation) {
+        Rejection rejection = admit(accountNumbers);
+        if (rejection != null) {
+            auditLog.recordRejected(attempt, rejection.message());
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, Long.toString(rejection.retryAfterSeconds()));
+            return new ResponseEntity(rejection.message(), headers, HttpStatus.TOO_MANY_REQUESTS);
+        }
+        return operation.get();
+    }
+
+    /**
+     * Takes a token from every account in {@code accountNumbers} and from the global limit. Tokens
+     * already taken are returned when a later limit refuses, so a rejected request does not count
+     * against any limit. Missing account numbers are skipped; validation reports them.
+     *
+     * @return {@code null} when the request is admitted, otherwise why and for how long it is not
+     */
+    public Rejection admit(List<String> accountNumbers) {
+        long now = System.nanoTime();
+        List<TokenBucket> taken = new ArrayList<>(accountNumbers.size());
+        if (accountRate > 0) {
+            for (String accountNumber : accountNumbers) {
+                if (accountNumber == null) {
+                    continue;
+                }
+                TokenBucket bucket = accountBuckets.get(accountNumber, key -> newAccountBucket(now));
+                boolean overflow = bucket == null;
+                if (overflow) {
+                    bucket = overflowBucket;
+                }
+                long wait = bucket.tryAcquire(now);
+                if (wait > 0) {
+                    taken.forEach(TokenBucket::release);
+                    (overflow ? overflowRejections : accountRejections).increment();
+                    return new Rejection(String.format("Too many requests for account %s, retry later", accountNumber), wait);
+                }
+                taken.add(bucket);
+            }
+        }
+        if (globalBucket != null) {
+            long wait = globalBucket.tryAcquire(now);
+            if (wait > 0) {
+                taken.forEach(TokenBucket::release);
+                globalRejections.increment();
+                return new Rejection("Too many requests, retry later", wait);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reserves a slot in the account table and returns a full bucket for it, or {@code null}, which
+     * leaves the account out of the table, when all {@code maximumAccounts} slots are taken.
+     */
+    private TokenBucket newAccountBucket(long now) {
+        if (accountBucketCount.incrementAndGet() > maximumAccounts) {
+            accountBucketCount.decrementAndGet();
+            return null;
+        }
+        return new TokenBucket(accountRate, accountBurst, now);
+    }
+
+    /**
+     * Time an empty bucket takes to fill up to {@code burst} tokens again.
+     */
+    private static Duration refillTime(double ratePerSecond, int burst) {
+        return Duration.ofNanos((long) Math.ceil(burst * (Duration.ofSeconds(1).toNanos() / ratePerSecond)));
+    }
+
+    private static Duration max(Duration a, Duration b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String limit) {
+        return Counter.builder("account.admission.rejected")
+                .description("Mutations rejected before reaching the service")
+                .tag("limit", limit)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param waitNanos time until the refusing limit has a token again
+     */
+    public record Rejection(String message, long waitNanos) {
+
+        public long retryAfterSeconds() {
+            return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+        }
+    }
+}
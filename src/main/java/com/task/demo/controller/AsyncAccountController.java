@@ -0,0 +1,151 @@
+package com.task.demo.controller;
+
+import com.task.demo.entity.Account;
+import com.task.demo.entity.LedgerEntry;
+import com.task.demo.payload.request.CreateAccountRequest;
+import com.task.demo.payload.request.TransactionRequest;
+import com.task.demo.payload.request.TransferRequest;
+import com.task.demo.payload.response.AccountStats;
+import com.task.demo.payload.response.TransferResult;
+import com.task.demo.service.audit.AuditLog;
+import com.task.demo.service.audit.AuditedOperation;
+import com.task.demo.service.concurrency.RequestExecutor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * The account endpoints of {@link AccountController}, with the same requests and responses, handled
+ * on the {@link RequestExecutor} instead of the servlet thread. The servlet thread is released as
+ * soon as the request is queued, so slow locks or database calls hold request threads only, and
+ * a saturated executor answers {@code 503 Service Unavailable} with a {@code Retry-After} header
+ * instead of letting requests pile up in the container. A mutation refused this way is audited as
+ * rejected, since it never reaches the service.
+ * <p>
+ * The streaming endpoints, the account and transaction exports, the import and the NDJSON batch
+ * transfer, are not offered: they read or write the body while they run, so a slow client would
+ * hold one of the few executor threads for as long as it takes. For the same reason a mutation
+ * whose {@code Idempotency-Key} is still in progress is answered with {@code 409 Conflict} at once
+ * instead of polling for the first response, which would let a burst of retries pin every worker.
+ */
+@RestController
+@RequestMapping("/api/v2/accounts")
+public class AsyncAccountController {
+
+    private final AccountController accountController;
+    private final RequestExecutor requestExecutor;
+    private final String retryAfterSeconds;
+    private final AuditLog auditLog;
+
+    @Autowired
+    public AsyncAccountController(AccountController accountController, RequestExecutor requestExecutor,
+                                  @Value("${account.async.retry-after:1s}") Duration retryAfter, AuditLog auditLog) {
+        this.accountController = accountController;
+        this.requestExecutor = requestExecutor;
+        this.auditLog = auditLog;
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @PostMapping
+    public CompletableFuture<ResponseEntity<Account>> createAccount(@RequestBody CreateAccountRequest request) {
+        return submit(AuditedOperation.create(request.getAccountNumber(), request.getInitialBalance()),
+                () -> accountController.createAccount(request));
+    }
+
+    @GetMapping("/{accountNumber}")
+    public CompletableFuture<ResponseEntity<Account>> getAccount(@PathVariable String accountNumber) {
+        return submit(() -> accountController.getAccount(accountNumber));
+    }
+
+    @GetMapping
+    public CompletableFuture<ResponseEntity<List<Account>>> listAccounts(@RequestParam(required = false) String cursor,
+                                                                         @RequestParam(defaultValue = "100") int limit) {
+        return submit(() -> accountController.listAccounts(cursor, limit));
+    }
+
+    @GetMapping("/stats")
+    public CompletableFuture<ResponseEntity<AccountStats>> getStats() {
+        return submit(accountController::getStats);
+    }
+
+    @GetMapping("/{accountNumber}/transactions")
+    public CompletableFuture<ResponseEntity<List<LedgerEntry>>> listTransactions(@PathVariable String accountNumber,
+                                                                                 @RequestParam(required = false) Instant from,
+                                                                                 @RequestParam(required = false) Instant to,
+                                                                                 @RequestParam(required = false) String cursor,
+                                                                                 @RequestParam(defaultValue = "100") int limit) {
+        return submit(() -> accountController.listTransactions(accountNumber, from, to, cursor, limit));
+    }
+
+    @PostMapping("/{accountNumber}/deposit")
+    public CompletableFuture<ResponseEntity<Account>> deposit(@PathVariable String accountNumber, @RequestBody TransactionRequest request,
+                                                              @RequestHeader(name = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return submit(AuditedOperation.deposit(accountNumber, request.getAmount()),
+                () -> accountController.deposit(accountNumber, request, idempotencyKey, false));
+    }
+
+    @PostMapping("/{accountNumber}/withdraw")
+    public CompletableFuture<ResponseEntity<Account>> withdraw(@PathVariable String accountNumber, @RequestBody TransactionRequest request,
+                                                               @RequestHeader(name = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return submit(AuditedOperation.withdraw(accountNumber, request.getAmount()),
+                () -> accountController.withdraw(accountNumber, request, idempotencyKey, false));
+    }
+
+    @PostMapping("/transfer")
+    public CompletableFuture<ResponseEntity<String>> transfer(@RequestBody TransferRequest request,
+                                                              @RequestHeader(name = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return submit(AuditedOperation.transfer(request.getSourceAccountNumber(), request.getTargetAccountNumber(), request.getAmount()),
+                () -> accountController.transfer(request, idempotencyKey, false));
+    }
+
+    @PostMapping(value = "/transfers/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<List<TransferResult>>> transferBatch(@RequestBody List<TransferRequest> requests) {
+        return submit(AuditedOperation.transfer(null, null, null), () -> accountController.transferBatch(requests));
+    }
+
+    private <T> CompletableFuture<ResponseEntity<T>> submit(Supplier<ResponseEntity<T>> handler) {
+        return submit(null, handler);
+    }
+
+    /**
+     * @param attempt the mutation to audit as rejected when the executor refuses it, {@code null} for reads
+     */
+    private <T> CompletableFuture<ResponseEntity<T>> submit(AuditedOperation attempt, Supplier<ResponseEntity<T>> handler) {
+        return requestExecutor.submit(handler).exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            if (cause instanceof RejectedExecutionException) {
+                if (attempt != null) {
+                    auditLog.recordRejected(attempt, cause.getMessage());
+                }
+                return new ResponseEntity("Too many requests in progress, retry later",
+                        retryAfterHeaders(), HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            throw e instanceof CompletionException completion ? completion : new CompletionException(cause);
+        });
+    }
+
+    private HttpHeaders retryAfterHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        return headers;
+    }
+}
@@ -0,0 +1,350 @@
+package com.task.demo.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.task.demo.entity.IdempotencyRecord;
+import com.task.demo.exception.OutcomeUnknownException;
+import com.task.demo.repository.IdempotencyRecordRepository;
+import com.task.demo.repository.IdempotencyRecordRepository.Outcome;
+import com.task.demo.service.IAccountService;
+import com.task.demo.service.IdempotencyContext;
+import com.task.demo.service.audit.AuditLog;
+import com.task.demo.service.audit.AuditedOperation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Responses of mutations by {@code Idempotency-Key}, so a retried request returns the outcome of
+ * the first one instead of moving money again.
+ * <p>
+ * Keys are kept in the database as {@link IdempotencyRecord}s, shared by every instance. The first
+ * request with a key claims it by inserting a pending record, committed before the operation runs;
+ * the key is the primary key, so exactly one request runs the operation. Duplicates that arrive
+ * while it runs poll the record for up to {@code account.idempotency.wait-timeout}, unless the
+ * caller cannot afford to hold its thread that long and asks for them to be refused at once. Only final
+ * responses are stored: successes and requests that can never succeed ({@code 400}, {@code 404}).
+ * Conflicts and server errors did not change any balance and may succeed later, so their record
+ * is deleted and the next retry runs again. The exception is an {@link OutcomeUnknownException},
+ * thrown when a mutation failed after it may have taken effect: its key stays pending.
+ * <p>
+ * Records are only removed once they are older than {@code account.idempotency.expire-after-write},
+ * by a purge every {@code account.idempotency.purge-interval}; nothing evicts them earlier, since a
+ * record dropped before its client stopped retrying would let the retry move money again. The store
+ * is bounded instead by refusing new keys: when a purge finds {@code account.idempotency.maximum-keys}
+ * records or more, requests with a key that is not stored yet are answered with
+ * {@code 503 Service Unavailable} until a later purge finds room, while known keys are still
+ * replayed and requests without a key are unaffected.
+ * <p>
+ * The claim and the stored response commit apart from the balance change, so a request can leave
+ * its record pending: when the process dies in between, or storing the response still fails after
+ * a few attempts, which is logged and counted as {@code account.idempotency.store.failures}. The
+ * balance change itself records the key with its ledger entry, in its own transaction, see
+ * {@link IdempotencyContext}. A retry that finds a record pending for longer than
+ * {@code account.idempotency.reclaim-after}, longer than any request runs, asks the ledger: a change
+ * that committed completes the record as {@code 200 OK} without a body, which is replayed from then
+ * on, and a change that never committed lets the retry take the claim over and run the operation.
+ * The key is unique in the ledger, so even a request that outlives the horizon cannot apply twice.
+ * The in-memory engine keeps no ledger; its pending records are answered with {@code 409 Conflict}
+ * until they expire.
+ * <p>
+ * Reusing a key for a different request is rejected with {@code 422 Unprocessable Entity}.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_INTERVAL_MILLIS = 5;
+    private static final long MAX_POLL_INTERVAL_MILLIS = 100;
+    private static final int STORE_ATTEMPTS = 3;
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final IdempotencyRecordRepository repository;
+    private final IAccountService accountService;
+    private final ObjectMapper objectMapper;
+    private final Duration expireAfterWrite;
+    private final Duration waitTimeout;
+    private final Duration reclaimAfter;
+    private final long maximumKeys;
+    private final Duration purgeInterval;
+    private final ScheduledExecutorService purger;
+    private final Counter storeFailures;
+    private final AuditLog auditLog;
+    private volatile boolean full;
+
+    @Autowired
+    public IdempotencyStore(IdempotencyRecordRepository repository, IAccountService accountService, ObjectMapper objectMapper,
+                            @Value("${account.idempotency.expire-after-write:24h}") Duration expireAfterWrite,
+                            @Value("${account.idempotency.wait-timeout:10s}") Duration waitTimeout,
+                            @Value("${account.idempotency.reclaim-after:1m}") Duration reclaimAfter,
+                            @Value("${account.idempotency.purge-interval:1m}") Duration purgeInterval,
+                            @Value("${account.idempotency.maximum-keys:1000000}") long maximumKeys,
+                            MeterRegistry meterRegistry, AuditLog auditLog) {
+        this.repository = repository;
+        this.accountService = accountService;
+        this.auditLog = auditLog;
+        this.objectMapper = objectMapper;
+        this.expireAfterWrite = expireAfterWrite;
+        this.waitTimeout = waitTimeout;
+        this.reclaimAfter = reclaimAfter;
+        this.maximumKeys = maximumKeys;
+        this.purgeInterval = purgeInterval;
+        this.storeFailures = Counter.builder("account.idempotency.store.failures")
+                .description("Responses of mutations that could not be stored under their key")
+                .register(meterRegistry);
+        this.purger = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("idempotency-purge").factory());
+        purger.scheduleWithFixedDelay(this::purgeSafely, purgeInterval.toMillis(), purgeInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        purger.shutdownNow();
+    }
+
+    /**
+     * Runs {@code operation} once per key, waiting for a duplicate that is still in progress.
+     */
+    public <T> ResponseEntity<T> execute(AuditedOperation attempt, String key, String fingerprint,
+                                         Supplier<ResponseEntity<T>> operation) {
+        return execute(attempt, key, fingerprint, true, operation);
+    }
+
+    /**
+     * Runs {@code operation} once per key. {@code fingerprint} identifies the request the key was
+     * first used for; without a key the operation simply runs. A request the store refuses itself,
+     * without running or replaying the operation, is audited as a rejected {@code attempt}.
+     *
+     * @param waitForDuplicate whether a request whose key is still in progress polls for its
+     *                         response, or is answered with {@code 409 Conflict} right away
+     */
+    public <T> ResponseEntity<T> execute(AuditedOperation attempt, String key, String fingerprint, boolean waitForDuplicate,
+                                         Supplier<ResponseEntity<T>> operation) {
+        if (key == null) {
+            return operation.get();
+        }
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            return refuse(attempt, String.format("%s must be 1 to %d characters", IDEMPOTENCY_KEY_HEADER, MAX_KEY_LENGTH),
+                    new HttpHeaders(), HttpStatus.BAD_REQUEST);
+        }
+
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        long pollInterval = POLL_INTERVAL_MILLIS;
+        while (true) {
+            Instant claimedAt = now();
+            boolean claimed;
+            try {
+                claimed = !full && repository.claim(key, fingerprint, claimedAt) == 1;
+            } catch (DataIntegrityViolationException e) {
+                claimed = false;
+            }
+            if (claimed) {
+                return run(key, claimedAt, operation);
+            }
+            // An empty result means the claim was released by a request that did not succeed; the
+            // next round claims the key again.
+            Optional<Outcome> record = repository.findOutcome(key);
+            if (record.isPresent()) {
+                if (!record.get().getFingerprint().equals(fingerprint)) {
+                    return refuse(attempt, String.format("%s was already used for a different request", IDEMPOTENCY_KEY_HEADER),
+                            new HttpHeaders(), HttpStatus.UNPROCESSABLE_ENTITY);
+                }
+                if (record.get().getStatus() != null) {
+                    return replay(record.get());
+                }
+                if (record.get().getCreatedAt().isBefore(claimedAt.minus(reclaimAfter))) {
+                    ResponseEntity<T> response = reclaim(attempt, key, record.get().getCreatedAt(), operation);
+                    if (response != null) {
+                        return response;
+                    }
+                    // Completed or taken over by now: the next round replays it or waits for it.
+                    continue;
+                }
+            } else if (full) {
+                HttpHeaders headers = new HttpHeaders();
+                headers.set(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, purgeInterval.toSeconds())));
+                return refuse(attempt, "Too many idempotency keys are stored, retry later", headers,
+                        HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            if ((record.isPresent() && !waitForDuplicate) || System.nanoTime() - deadline >= 0) {
+                return refuse(attempt, "A request with this idempotency key is still in progress", new HttpHeaders(),
+                        HttpStatus.CONFLICT);
+            }
+            try {
+                Thread.sleep(pollInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return refuse(attempt, "Interrupted while waiting for the original request", new HttpHeaders(),
+                        HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            pollInterval = Math.min(pollInterval * 2, MAX_POLL_INTERVAL_MILLIS);
+        }
+    }
+
+    /**
+     * Deletes every record older than {@code account.idempotency.expire-after-write}, then checks
+     * whether the remaining ones leave room for new keys.
+     *
+     * @return the number of records deleted
+     */
+    public int purge() {
+        int deleted = repository.deleteCreatedBefore(Instant.now().minus(expireAfterWrite));
+        full = repository.count() >= maximumKeys;
+        return deleted;
+    }
+
+    public void invalidateAll() {
+        repository.deleteAllInBatch();
+        full = false;
+    }
+
+    /**
+     * Settles a record left pending since {@code claimedAt} from the ledger of the account the
+     * request was made for.
+     *
+     * @return the response of the operation when this request took the claim over, otherwise
+     * {@code null}
+     */
+    private <T> ResponseEntity<T> reclaim(AuditedOperation attempt, String key, Instant claimedAt,
+                                          Supplier<ResponseEntity<T>> operation) {
+        Optional<Boolean> applied = attempt == null || attempt.accountNumber() == null
+                ? Optional.empty() : accountService.isApplied(attempt.accountNumber(), key);
+        if (applied.isEmpty()) {
+            return refuse(attempt, "A request with this idempotency key is still in progress", new HttpHeaders(),
+                    HttpStatus.CONFLICT);
+        }
+        if (applied.get()) {
+            if (repository.complete(key, claimedAt, HttpStatus.OK.value(), null, null) == 1) {
+                log.warn("Request with idempotency key {} took effect but its response was lost; replaying 200 without a body", key);
+            }
+            return null;
+        }
+        Instant now = now();
+        if (repository.reclaim(key, claimedAt, now) == 1) {
+            log.warn("Request with idempotency key {} never took effect; running it again", key);
+            return run(key, now, operation);
+        }
+        return null;
+    }
+
+    private <T> ResponseEntity<T> run(String key, Instant claimedAt, Supplier<ResponseEntity<T>> operation) {
+        ResponseEntity<T> response;
+        try {
+            response = IdempotencyContext.runWithKey(key, operation);
+        } catch (OutcomeUnknownException e) {
+            // The operation may have taken effect: keep the key claimed so a retry cannot repeat it.
+            storeFailures.increment();
+            log.error("Outcome of the request with idempotency key {} is unknown; retries are answered with 409 until {} have passed",
+                    key, expireAfterWrite, e);
+            throw e;
+        } catch (RuntimeException e) {
+            repository.release(key, claimedAt);
+            throw e;
+        }
+        int status = response.getStatusCode().value();
+        if (!isFinal(status)) {
+            repository.release(key, claimedAt);
+            return response;
+        }
+        Object body = response.getBody();
+        try {
+            if (body == null || body instanceof String) {
+                store(key, claimedAt, status, MediaType.TEXT_PLAIN_VALUE, (String) body);
+            } else {
+                store(key, claimedAt, status, MediaType.APPLICATION_JSON_VALUE, objectMapper.writeValueAsString(body));
+            }
+        } catch (JsonProcessingException e) {
+            // The status alone still tells a retry what happened.
+            storeFailures.increment();
+            log.warn("Cannot serialize the response stored under idempotency key {}; storing its status only", key, e);
+            store(key, claimedAt, status, null, null);
+        }
+        return response;
+    }
+
+    /**
+     * Stores the response of a completed operation, retrying transient failures. The operation took
+     * effect either way: a record left pending is settled from the ledger once it is reclaimed. A
+     * record taken over by another request in the meantime is not touched.
+     */
+    private void store(String key, Instant claimedAt, int status, String contentType, String body) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                repository.complete(key, claimedAt, status, contentType, body);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == STORE_ATTEMPTS) {
+                    storeFailures.increment();
+                    log.error("Cannot store the response under idempotency key {}; retries are answered with 409 until {} have passed",
+                            key, reclaimAfter, e);
+                    return;
+                }
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS << attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                storeFailures.increment();
+                log.error("Interrupted while storing the response under idempotency key {}", key, e);
+                return;
+            }
+        }
+    }
+
+    private <T> ResponseEntity<T> refuse(AuditedOperation attempt, String message, HttpHeaders headers, HttpStatus status) {
+        auditLog.recordRejected(attempt, message);
+        return new ResponseEntity(message, headers, status);
+    }
+
+    private <T> ResponseEntity<T> replay(Outcome record) {
+        HttpHeaders headers = new HttpHeaders();
+        if (record.getBody() != null) {
+            headers.set(HttpHeaders.CONTENT_TYPE, record.getContentType());
+        }
+        headers.set(REPLAYED_HEADER, "true");
+        return new ResponseEntity(record.getBody(), headers, HttpStatus.valueOf(record.getStatus()));
+    }
+
+    /**
+     * Claim times are compared for equality, so they are kept at the precision the database stores.
+     */
+    private static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private void purgeSafely() {
+        try {
+            purge();
+        } catch (RuntimeException e) {
+            // The next run tries again.
+        }
+    }
+
+    private static boolean isFinal(int status) {
+        return status < 300 || status == HttpStatus.BAD_REQUEST.value() || status == HttpStatus.NOT_FOUND.value();
+    }
+}
@@ -0,0 +1,116 @@
+package com.task.demo.controller.binary;
+
+import com.task.demo.controller.binary.BinaryProtocol.Status;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Blocking client of the {@link BinaryListener}. Requests can be pipelined: {@link #send} only
+ * appends a frame to the output buffer, {@link #flush()} writes all of them at once and
+ * {@link #receive()} returns the responses in request order. The blocking helpers such as
+ * {@link #deposit(String, long)} send one request and wait for its response.
+ * <p>
+ * Not thread-safe; use one client per thread.
+ */
+public class BinaryClient implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final SocketChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private long nextCorrelationId;
+
+    public BinaryClient(String host, int port) throws IOException {
+        this.channel = SocketChannel.open(new InetSocketAddress(host, port));
+        this.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        this.in.flip();
+    }
+
+    public BinaryResponse deposit(String accountNumber, long amount) throws IOException {
+        return call(BinaryProtocol.DEPOSIT, accountNumber, null, amount);
+    }
+
+    public BinaryResponse withdraw(String accountNumber, long amount) throws IOException {
+        return call(BinaryProtocol.WITHDRAW, accountNumber, null, amount);
+    }
+
+    public BinaryResponse transfer(String sourceAccountNumber, String targetAccountNumber, long amount) throws IOException {
+        return call(BinaryProtocol.TRANSFER, sourceAccountNumber, targetAccountNumber, amount);
+    }
+
+    public BinaryResponse getBalance(String accountNumber) throws IOException {
+        return call(BinaryProtocol.GET_BALANCE, accountNumber, null, 0);
+    }
+
+    /**
+     * Queues a request and returns its correlation id; the request is written by the next
+     * {@link #flush()}, or earlier once the output buffer is full.
+     */
+    public long send(byte operation, String accountNumber, String targetAccountNumber, long amount) throws IOException {
+        if (out.remaining() < 4 + BinaryProtocol.MAX_REQUEST_LENGTH) {
+            flush();
+        }
+        long correlationId = nextCorrelationId++;
+        int start = out.position();
+        out.putInt(0)
+                .put(operation)
+                .putLong(correlationId)
+                .putLong(amount);
+        BinaryProtocol.putAccountNumber(out, accountNumber);
+        BinaryProtocol.putAccountNumber(out, targetAccountNumber);
+        out.putInt(start, out.position() - start - 4);
+        return correlationId;
+    }
+
+    public void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    /**
+     * Reads the response to the oldest request not answered yet.
+     */
+    public BinaryResponse receive() throws IOException {
+        while (!BinaryProtocol.hasFrame(in)) {
+            in.compact();
+            int read = channel.read(in);
+            in.flip();
+            if (read < 0) {
+                throw new EOFException("Connection closed by the server");
+            }
+        }
+        in.getInt();
+        long correlationId = in.getLong();
+        Status status = Status.of(in.get());
+        long value = in.getLong();
+        int messageLength = Short.toUnsignedInt(in.getShort());
+        String message = null;
+        if (messageLength > 0) {
+            byte[] bytes = new byte[messageLength];
+            in.get(bytes);
+            message = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new BinaryResponse(correlationId, status, value, message);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private BinaryResponse call(byte operation, String accountNumber, String targetAccountNumber, long amount) throws IOException {
+        send(operation, accountNumber, targetAccountNumber, amount);
+        flush();
+        return receive();
+    }
+}
@@ -0,0 +1,304 @@
+package com.task.demo.controller.binary;
+
+import com.task.demo.controller.AdmissionControl;
+import com.task.demo.controller.AdmissionControl.Rejection;
+import com.task.demo.controller.binary.BinaryProtocol.Status;
+import com.task.demo.entity.Account;
+import com.task.demo.entity.Money;
+import com.task.demo.exception.NotFoundException;
+import com.task.demo.exception.TransactionException;
+import com.task.demo.payload.request.TransactionRequest;
+import com.task.demo.payload.request.TransferRequest;
+import com.task.demo.service.IAccountService;
+import com.task.demo.service.audit.AuditLog;
+import com.task.demo.service.audit.AuditedOperation;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.coyote.BadRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TCP listener for the {@link BinaryProtocol}, for internal clients to which JSON over HTTP costs
+ * more than the balance update itself. Enabled with {@code account.binary.enabled=true} on
+ * {@code account.binary.port}.
+ * <p>
+ * Each connection is served by its own virtual thread, which blocks on the socket without holding
+ * a carrier. The thread owns one direct input and one direct output buffer for the life of the
+ * connection, so frames are decoded from and encoded into the same memory the socket reads and
+ * writes, without intermediate arrays. Clients may pipeline requests: every complete frame read
+ * is handled in order, and the responses to all of them go out in a single write.
+ * <p>
+ * Requests go to the {@link IAccountService} like those of the REST API, with the same
+ * {@link AdmissionControl}. A malformed frame is answered with {@link Status#BAD_REQUEST}; a frame
+ * announcing an impossible length closes the connection.
+ */
+@Component
+@ConditionalOnProperty(name = "account.binary.enabled", havingValue = "true")
+public class BinaryListener implements SmartLifecycle {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long MIN_ACCEPT_BACKOFF_MILLIS = 10;
+    private static final long MAX_ACCEPT_BACKOFF_MILLIS = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(BinaryListener.class);
+
+    private final IAccountService accountService;
+    private final AdmissionControl admissionControl;
+    private final AuditLog auditLog;
+    private final int port;
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+    private final ThreadFactory connectionThreads = Thread.ofVirtual().name("binary-connection-", 0).factory();
+    private volatile ServerSocketChannel serverChannel;
+
+    @Autowired
+    public BinaryListener(IAccountService accountService, AdmissionControl admissionControl, AuditLog auditLog,
+                          @Value("${account.binary.port:7070}") int port, MeterRegistry meterRegistry) {
+        this.accountService = accountService;
+        this.admissionControl = admissionControl;
+        this.auditLog = auditLog;
+        this.port = port;
+        Gauge.builder("account.binary.connections", connections, Set::size)
+                .description("Open connections of the binary protocol listener")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        try {
+            serverChannel = ServerSocketChannel.open().bind(new InetSocketAddress(port));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot listen on port " + port, e);
+        }
+        Thread.ofVirtual().name("binary-acceptor").start(this::accept);
+    }
+
+    @Override
+    public void stop() {
+        try {
+            serverChannel.close();
+            for (SocketChannel connection : connections) {
+                connection.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            serverChannel = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return serverChannel != null;
+    }
+
+    /**
+     * The port actually listened on, which differs from the configured one when that is zero.
+     */
+    public int getPort() {
+        try {
+            return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Accepts connections until {@link #stop()} closes the server channel. A failing accept, such as
+     * one refused for lack of file descriptors, is logged and retried after a pause that doubles up
+     * to {@value #MAX_ACCEPT_BACKOFF_MILLIS} ms while the failures last, instead of spinning.
+     */
+    private void accept() {
+        ServerSocketChannel server = serverChannel;
+        long backoff = MIN_ACCEPT_BACKOFF_MILLIS;
+        while (server.isOpen()) {
+            SocketChannel connection = null;
+            try {
+                connection = server.accept();
+                connection.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                connections.add(connection);
+                SocketChannel accepted = connection;
+                connectionThreads.newThread(() -> serve(accepted)).start();
+                backoff = MIN_ACCEPT_BACKOFF_MILLIS;
+            } catch (IOException e) {
+                if (!server.isOpen()) {
+                    return;
+                }
+                closeQuietly(connection);
+                log.warn("Accepting a binary protocol connection failed; retrying in {} ms", backoff, e);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_ACCEPT_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private void closeQuietly(SocketChannel connection) {
+        if (connection == null) {
+            return;
+        }
+        connections.remove(connection);
+        try {
+            connection.close();
+        } catch (IOException e) {
+            // Nothing more to release.
+        }
+    }
+
+    private void serve(SocketChannel connection) {
+        ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        byte[] scratch = new byte[BinaryProtocol.MAX_ACCOUNT_NUMBER_LENGTH];
+        try (connection) {
+            while (connection.read(in) >= 0) {
+                in.flip();
+                while (in.remaining() >= 4) {
+                    // Checked before waiting for the body: a frame larger than the buffer would never arrive.
+                    int length = in.getInt(in.position());
+                    if (length < BinaryProtocol.REQUEST_HEADER_LENGTH || length > BinaryProtocol.MAX_REQUEST_LENGTH) {
+                        return;
+                    }
+                    if (!BinaryProtocol.hasFrame(in)) {
+                        break;
+                    }
+                    in.getInt();
+                    if (out.remaining() < 4 + BinaryProtocol.MAX_RESPONSE_LENGTH) {
+                        write(connection, out);
+                    }
+                    handle(in, in.position() + length, out, scratch);
+                }
+                in.compact();
+                write(connection, out);
+            }
+        } catch (IOException e) {
+            // The client went away; nothing to answer.
+        } finally {
+            connections.remove(connection);
+        }
+    }
+
+    /**
+     * Decodes the frame ending at {@code end}, runs it and encodes the response. The frame is
+     * consumed even when it is malformed, so the next one is read from the right position.
+     */
+    private void handle(ByteBuffer in, int end, ByteBuffer out, byte[] scratch) {
+        int limit = in.limit();
+        in.limit(end);
+        long correlationId = -1;
+        try {
+            byte operation = in.get();
+            correlationId = in.getLong();
+            long amount = in.getLong();
+            String accountNumber = BinaryProtocol.getAccountNumber(in, scratch);
+            String targetAccountNumber = BinaryProtocol.getAccountNumber(in, scratch);
+            if (in.hasRemaining()) {
+                throw new BadRequestException("Malformed frame");
+            }
+            execute(operation, correlationId, accountNumber, targetAccountNumber, amount, out);
+        } catch (BufferUnderflowException | BadRequestException e) {
+            BinaryProtocol.putResponse(out, correlationId, Status.BAD_REQUEST, 0, "Malformed frame");
+        } finally {
+            in.limit(limit);
+            in.position(end);
+        }
+    }
+
+    private void execute(byte operation, long correlationId, String accountNumber, String targetAccountNumber,
+                         long amount, ByteBuffer out) {
+        if (operation != BinaryProtocol.GET_BALANCE) {
+            List<String> accountNumbers = operation == BinaryProtocol.TRANSFER
+                    ? Arrays.asList(accountNumber, targetAccountNumber)
+                    : Arrays.asList(accountNumber);
+            Rejection rejection = admissionControl.admit(accountNumbers);
+            if (rejection != null) {
+                AuditedOperation attempt = switch (operation) {
+                    case BinaryProtocol.DEPOSIT -> AuditedOperation.deposit(accountNumber, Money.toDecimal(amount));
+                    case BinaryProtocol.WITHDRAW -> AuditedOperation.withdraw(accountNumber, Money.toDecimal(amount));
+                    case BinaryProtocol.TRANSFER -> AuditedOperation.transfer(accountNumber, targetAccountNumber, Money.toDecimal(amount));
+                    default -> null;
+                };
+                if (attempt != null) {
+                    auditLog.recordRejected(attempt, rejection.message());
+                }
+                BinaryProtocol.putResponse(out, correlationId, Status.TOO_MANY_REQUESTS,
+                        TimeUnit.NANOSECONDS.toMillis(rejection.waitNanos()) + 1, rejection.message());
+                return;
+            }
+        }
+        try {
+            long value = switch (operation) {
+                case BinaryProtocol.DEPOSIT -> accountService.deposit(accountNumber, amount(amount)).getBalanceMinorUnits();
+                case BinaryProtocol.WITHDRAW -> accountService.withdraw(accountNumber, amount(amount)).getBalanceMinorUnits();
+                case BinaryProtocol.TRANSFER -> {
+                    TransferRequest request = new TransferRequest();
+                    request.setSourceAccountNumber(accountNumber);
+                    request.setTargetAccountNumber(targetAccountNumber);
+                    request.setAmount(Money.toDecimal(amount));
+                    accountService.transfer(request);
+                    yield 0;
+                }
+                case BinaryProtocol.GET_BALANCE -> {
+                    Account account = accountNumber == null ? null : accountService.getAccount(accountNumber);
+                    if (account == null) {
+                        throw new NotFoundException(String.format("Account with number %s does not exist", accountNumber));
+                    }
+                    yield account.getBalanceMinorUnits();
+                }
+                default -> throw new BadRequestException("Unknown operation " + operation);
+            };
+            BinaryProtocol.putResponse(out, correlationId, Status.OK, value, null);
+        } catch (Exception e) {
+            BinaryProtocol.putResponse(out, correlationId, status(e), 0, e.getMessage());
+        }
+    }
+
+    private static TransactionRequest amount(long amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setAmount(Money.toDecimal(amount));
+        return request;
+    }
+
+    private static Status status(Exception e) {
+        if (e instanceof NotFoundException) {
+            return Status.NOT_FOUND;
+        } else if (e instanceof TransactionException) {
+            return Status.CONFLICT;
+        } else if (e instanceof BadRequestException) {
+            return Status.BAD_REQUEST;
+        } else {
+            return Status.ERROR;
+        }
+    }
+
+    private static void write(SocketChannel connection, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            connection.write(out);
+        }
+        out.clear();
+    }
+}
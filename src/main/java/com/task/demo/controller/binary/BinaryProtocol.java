@@ -0,0 +1,94 @@
+package com.task.demo.controller.binary;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Frame layout of the binary account protocol. Every frame starts with its length as a 4-byte int,
+ * not counting the length itself; all numbers are big-endian and amounts and balances are minor
+ * units, see {@link com.task.demo.entity.Money}.
+ * <pre>
+ * request:  length:int | operation:byte | correlationId:long | amount:long
+ *           | accountLength:ubyte | account:UTF-8 | targetLength:ubyte | target:UTF-8
+ * response: length:int | correlationId:long | status:byte | value:long
+ *           | messageLength:ushort | message:UTF-8
+ * </pre>
+ * The correlation id is chosen by the client and echoed in the response. {@code value} is the
+ * balance after a deposit or withdrawal, the balance for {@link #GET_BALANCE}, zero after a transfer
+ * and the milliseconds to wait for {@link Status#TOO_MANY_REQUESTS}. The target account is only
+ * used by {@link #TRANSFER}, whose account is the source; amounts of other operations are ignored
+ * where they do not apply.
+ */
+public final class BinaryProtocol {
+
+    public static final byte DEPOSIT = 1;
+    public static final byte WITHDRAW = 2;
+    public static final byte TRANSFER = 3;
+    public static final byte GET_BALANCE = 4;
+
+    public static final int MAX_ACCOUNT_NUMBER_LENGTH = 255;
+    public static final int MAX_MESSAGE_LENGTH = 1024;
+    public static final int REQUEST_HEADER_LENGTH = 1 + 8 + 8;
+    public static final int MAX_REQUEST_LENGTH = REQUEST_HEADER_LENGTH + 2 * (1 + MAX_ACCOUNT_NUMBER_LENGTH);
+    public static final int MAX_RESPONSE_LENGTH = 8 + 1 + 8 + 2 + MAX_MESSAGE_LENGTH;
+
+    public enum Status {
+        OK, BAD_REQUEST, NOT_FOUND, CONFLICT, TOO_MANY_REQUESTS, ERROR;
+
+        private static final Status[] VALUES = values();
+
+        public static Status of(byte code) {
+            return code >= 0 && code < VALUES.length ? VALUES[code] : ERROR;
+        }
+    }
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * Whether {@code buffer}, flipped for reading, holds a complete frame at its position.
+     */
+    static boolean hasFrame(ByteBuffer buffer) {
+        return buffer.remaining() >= 4 && buffer.remaining() - 4 >= buffer.getInt(buffer.position());
+    }
+
+    static void putAccountNumber(ByteBuffer buffer, String accountNumber) {
+        if (accountNumber == null) {
+            buffer.put((byte) 0);
+            return;
+        }
+        byte[] bytes = accountNumber.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_ACCOUNT_NUMBER_LENGTH) {
+            throw new IllegalArgumentException("Account number longer than " + MAX_ACCOUNT_NUMBER_LENGTH + " bytes");
+        }
+        buffer.put((byte) bytes.length).put(bytes);
+    }
+
+    /**
+     * Reads an account number through {@code scratch}, which must hold
+     * {@link #MAX_ACCOUNT_NUMBER_LENGTH} bytes; an empty one reads as {@code null}.
+     */
+    static String getAccountNumber(ByteBuffer buffer, byte[] scratch) {
+        int length = Byte.toUnsignedInt(buffer.get());
+        if (length == 0) {
+            return null;
+        }
+        buffer.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    static void putResponse(ByteBuffer buffer, long correlationId, Status status, long value, String message) {
+        byte[] bytes = message == null ? new byte[0] : message.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_MESSAGE_LENGTH);
+        // Cut before the character the limit falls into, not through it: step back over continuation bytes.
+        while (length < bytes.length && length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        buffer.putInt(8 + 1 + 8 + 2 + length)
+                .putLong(correlationId)
+                .put((byte) status.ordinal())
+                .putLong(value)
+                .putShort((short) length)
+                .put(bytes, 0, length);
+    }
+}
@@ -0,0 +1,9 @@
+package com.task.demo.controller.binary;
+
+import com.task.demo.controller.binary.BinaryProtocol.Status;
+
+/**
+ * A response frame of the binary protocol; see {@link BinaryProtocol} for what {@code value} holds.
+ */
+public record BinaryResponse(long correlationId, Status status, long value, String message) {
+}
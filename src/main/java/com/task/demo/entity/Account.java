@@ -1,35 +1,66 @@
 package com.task.demo.entity;
 
-import com.task.demo.exception.TransactionException;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.task.demo.exception.InsufficientBalanceException;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 
 import java.math.BigDecimal;
 
+/**
+ * Ids come from a pooled sequence, so inserts of new accounts can be batched.
+ */
 @Entity
 public class Account {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_seq")
+    @SequenceGenerator(name = "account_seq", allocationSize = 100)
     private Long id;
 
     @Column(unique = true, nullable = false)
     private String accountNumber;
 
+    /**
+     * Balance in minor units, see {@link Money}.
+     */
     @Column(nullable = false)
-    private BigDecimal balance;
+    private long balance;
+
+    @Version
+    private Long version;
 
     public Account() {
     }
 
     public Account(String accountNumber, BigDecimal balance) {
+        this(accountNumber, Money.toMinorUnits(balance));
+    }
+
+    public Account(String accountNumber, long balance) {
         this.accountNumber = accountNumber;
         this.balance = balance;
     }
 
+    /**
+     * Snapshot of an account kept outside the database, such as by the in-memory engine.
+     */
+    public Account(Long id, String accountNumber, long balance) {
+        this(accountNumber, balance);
+        this.id = id;
+    }
+
+    public Account(Long id, String accountNumber, long balance, Long version) {
+        this(id, accountNumber, balance);
+        this.version = version;
+    }
+
     public Long getId() {
         return id;
     }
@@ -39,18 +70,32 @@ public class Account {
     }
 
     public BigDecimal getBalance() {
+        return Money.toDecimal(balance);
+    }
+
+    @JsonProperty("balance")
+    private void setBalance(BigDecimal balance) {
+        this.balance = Money.toMinorUnits(balance);
+    }
+
+    @JsonIgnore
+    public long getBalanceMinorUnits() {
         return balance;
     }
 
-    public void deposit(BigDecimal amount) {
-        this.balance = this.balance.add(amount);
+    public Long getVersion() {
+        return version;
+    }
+
+    public void deposit(long amount) {
+        this.balance = Money.add(this.balance, amount);
     }
 
-    public void withdraw(BigDecimal amount) {
-        if (this.balance.compareTo(amount) >= 0) {
-            this.balance = this.balance.subtract(amount);
+    public void withdraw(long amount) {
+        if (this.balance >= amount) {
+            this.balance = Money.subtract(this.balance, amount);
         } else {
-            throw new TransactionException("Insufficient balance");
+            throw new InsufficientBalanceException();
         }
     }
 }
@@ -0,0 +1,70 @@
+package com.task.demo.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * A claimed {@code Idempotency-Key}. The key is the primary key, so of several requests claiming
+ * it, on any instance, only the first insert succeeds. The row is pending until the response of
+ * the claiming request is stored, and removed once it is older than the retention period.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_idempotency_record_created", columnList = "createdAt"))
+public class IdempotencyRecord {
+
+    @Id
+    private String idempotencyKey;
+
+    @Column(nullable = false, length = 1024)
+    private String fingerprint;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    /**
+     * HTTP status of the stored response, {@code null} while the claiming request is running.
+     */
+    private Integer status;
+
+    private String contentType;
+
+    @Lob
+    private String body;
+
+    protected IdempotencyRecord() {
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public boolean isPending() {
+        return status == null;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,157 @@
+package com.task.demo.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * One balance change of one account. Entries are only ever inserted, in the transaction that
+ * changes the balance; a transfer writes one entry for each side.
+ * <p>
+ * Ids come from a pooled sequence rather than an identity column, so Hibernate knows them before
+ * the insert and can batch the entry with the balance update at flush time.
+ * <p>
+ * A change made under an {@code Idempotency-Key} stores the key with the entry of the account it
+ * was requested for, the source of a transfer. The key is unique, so a request that was run twice
+ * fails the second commit, and the ledger tells whether a request whose response was lost took
+ * effect.
+ */
+@Entity
+@Immutable
+@Table(indexes = {
+        @Index(name = "idx_ledger_entry_account_created", columnList = "accountNumber, createdAt, id"),
+        @Index(name = "idx_ledger_entry_request", columnList = "requestId", unique = true)
+})
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entry_seq")
+    @SequenceGenerator(name = "ledger_entry_seq", allocationSize = 100)
+    private Long id;
+
+    @Column(nullable = false)
+    private String accountNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private LedgerEntryType type;
+
+    /**
+     * Signed change of the balance in minor units, see {@link Money}.
+     */
+    @Column(nullable = false)
+    private long amount;
+
+    /**
+     * Balance in minor units once this entry was applied.
+     */
+    @Column(nullable = false)
+    private long balance;
+
+    private String counterpartyAccountNumber;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    /**
+     * {@code Idempotency-Key} of the request that made the change, if it had one.
+     */
+    private String requestId;
+
+    protected LedgerEntry() {
+    }
+
+    public LedgerEntry(String accountNumber, LedgerEntryType type, long amount, long balance, String counterpartyAccountNumber) {
+        this(accountNumber, type, amount, balance, counterpartyAccountNumber, null);
+    }
+
+    public LedgerEntry(String accountNumber, LedgerEntryType type, long amount, long balance, String counterpartyAccountNumber,
+                       String requestId) {
+        this.accountNumber = accountNumber;
+        this.type = type;
+        this.amount = amount;
+        this.balance = balance;
+        this.counterpartyAccountNumber = counterpartyAccountNumber;
+        this.requestId = requestId;
+        // Stored with microsecond precision; truncate so the cursor built from this instance matches the row.
+        this.createdAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    public static LedgerEntry opening(Account account) {
+        return new LedgerEntry(account.getAccountNumber(), LedgerEntryType.OPENING,
+                account.getBalanceMinorUnits(), account.getBalanceMinorUnits(), null);
+    }
+
+    public static LedgerEntry deposit(String accountNumber, long amount, long balance, String requestId) {
+        return new LedgerEntry(accountNumber, LedgerEntryType.DEPOSIT, amount, balance, null, requestId);
+    }
+
+    public static LedgerEntry withdrawal(String accountNumber, long amount, long balance, String requestId) {
+        return new LedgerEntry(accountNumber, LedgerEntryType.WITHDRAWAL, -amount, balance, null, requestId);
+    }
+
+    public static LedgerEntry transferOut(String accountNumber, long amount, long balance, String targetAccountNumber,
+                                          String requestId) {
+        return new LedgerEntry(accountNumber, LedgerEntryType.TRANSFER_OUT, -amount, balance, targetAccountNumber, requestId);
+    }
+
+    public static LedgerEntry transferIn(String accountNumber, long amount, long balance, String sourceAccountNumber) {
+        return new LedgerEntry(accountNumber, LedgerEntryType.TRANSFER_IN, amount, balance, sourceAccountNumber);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public LedgerEntryType getType() {
+        return type;
+    }
+
+    public BigDecimal getAmount() {
+        return Money.toDecimal(amount);
+    }
+
+    @JsonIgnore
+    public long getAmountMinorUnits() {
+        return amount;
+    }
+
+    public BigDecimal getBalance() {
+        return Money.toDecimal(balance);
+    }
+
+    @JsonIgnore
+    public long getBalanceMinorUnits() {
+        return balance;
+    }
+
+    public String getCounterpartyAccountNumber() {
+        return counterpartyAccountNumber;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    @JsonIgnore
+    public String getRequestId() {
+        return requestId;
+    }
+}
@@ -0,0 +1,5 @@
+package com.task.demo.entity;
+
+public enum LedgerEntryType {
+    OPENING, DEPOSIT, WITHDRAWAL, TRANSFER_IN, TRANSFER_OUT
+}
@@ -0,0 +1,86 @@
+package com.task.demo.entity;
+
+import com.task.demo.exception.TransactionException;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-point money stored as a {@code long} count of minor units, whose number of decimal places
+ * is the {@link #scale()} (cents with the default of 2). Balances and amounts stay primitive on the
+ * hot path; {@link BigDecimal} only appears when converting at the API boundary, and that
+ * conversion is exact or fails.
+ * <p>
+ * The scale is fixed for the whole JVM: entities convert amounts when they are serialized, far from
+ * any application context. It is set once, at startup; a second context asking for another scale,
+ * which would read the first one's balances wrongly, fails to start instead.
+ */
+public final class Money {
+
+    public static final int DEFAULT_SCALE = 2;
+
+    /**
+     * Largest scale at which a balance of one major unit still leaves room in a long.
+     */
+    public static final int MAX_SCALE = 18;
+
+    private static final int UNSET = -1;
+
+    private static final AtomicInteger scale = new AtomicInteger(UNSET);
+
+    private Money() {
+    }
+
+    /**
+     * Decimal places one minor unit represents, {@code account.money.scale}.
+     */
+    public static int scale() {
+        int current = scale.get();
+        return current == UNSET ? DEFAULT_SCALE : current;
+    }
+
+    /**
+     * Sets the scale at startup, before any amount is converted. Balances are stored in minor
+     * units, so it must not change for an existing database or journal.
+     *
+     * @throws IllegalStateException if another scale was set in this JVM before
+     */
+    public static void setScale(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException(String.format("account.money.scale must be between 0 and %d, was %d",
+                    MAX_SCALE, scale));
+        }
+        int previous = Money.scale.compareAndExchange(UNSET, scale);
+        if (previous != UNSET && previous != scale) {
+            throw new IllegalStateException(String.format(
+                    "account.money.scale is %d, but this JVM already converts amounts at scale %d", scale, previous));
+        }
+    }
+
+    /**
+     * @throws ArithmeticException if the amount has more decimal places than the scale or does not fit in a long
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.movePointRight(scale()).longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, scale());
+    }
+
+    public static long add(long balance, long amount) {
+        long result = balance + amount;
+        if (((balance ^ result) & (amount ^ result)) < 0) {
+            throw new TransactionException("Balance exceeds the supported range");
+        }
+        return result;
+    }
+
+    public static long subtract(long balance, long amount) {
+        long result = balance - amount;
+        if (((balance ^ amount) & (balance ^ result)) < 0) {
+            throw new TransactionException("Balance exceeds the supported range");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,100 @@
+package com.task.demo.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * Credit still owed to the target of a transfer between shards. Written on the source's shard in
+ * the transaction that debits the source, and deleted once the target's shard has applied the
+ * credit, so a row outlives a crash between the two. A row whose delivery kept failing is
+ * dead-lettered: it stays in the table for an operator but is no longer relayed.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_outbox_transfer_created", columnList = "createdAt, id"))
+public class OutboxTransfer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_transfer_seq")
+    @SequenceGenerator(name = "outbox_transfer_seq", allocationSize = 100)
+    private Long id;
+
+    @Column(unique = true, nullable = false)
+    private String transferId;
+
+    @Column(nullable = false)
+    private String sourceAccountNumber;
+
+    @Column(nullable = false)
+    private String targetAccountNumber;
+
+    /**
+     * Amount in minor units, see {@link Money}.
+     */
+    @Column(nullable = false)
+    private long amount;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    /**
+     * Failed deliveries so far.
+     */
+    @Column(nullable = false)
+    private int attempts;
+
+    /**
+     * When the relay gave up on the row, {@code null} while it is still delivered.
+     */
+    private Instant deadLetteredAt;
+
+    protected OutboxTransfer() {
+    }
+
+    public OutboxTransfer(String transferId, String sourceAccountNumber, String targetAccountNumber, long amount) {
+        this.transferId = transferId;
+        this.sourceAccountNumber = sourceAccountNumber;
+        this.targetAccountNumber = targetAccountNumber;
+        this.amount = amount;
+        this.createdAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTransferId() {
+        return transferId;
+    }
+
+    public String getSourceAccountNumber() {
+        return sourceAccountNumber;
+    }
+
+    public String getTargetAccountNumber() {
+        return targetAccountNumber;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public Instant getDeadLetteredAt() {
+        return deadLetteredAt;
+    }
+}
@@ -0,0 +1,54 @@
+package com.task.demo.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * Marks a transfer between shards as credited on the target's shard, in the same transaction as
+ * the credit. The unique transfer id keeps a redelivered {@link OutboxTransfer} from being
+ * credited twice. Receipts are purged once no outbox row can still be delivered for them, see
+ * {@code account.sharding.outbox.receipt-retention}.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_received_transfer_received", columnList = "receivedAt"))
+public class ReceivedTransfer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "received_transfer_seq")
+    @SequenceGenerator(name = "received_transfer_seq", allocationSize = 100)
+    private Long id;
+
+    @Column(unique = true, nullable = false)
+    private String transferId;
+
+    @Column(nullable = false)
+    private Instant receivedAt;
+
+    protected ReceivedTransfer() {
+    }
+
+    public ReceivedTransfer(String transferId) {
+        this.transferId = transferId;
+        this.receivedAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTransferId() {
+        return transferId;
+    }
+
+    public Instant getReceivedAt() {
+        return receivedAt;
+    }
+}
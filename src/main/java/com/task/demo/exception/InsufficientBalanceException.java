@@ -0,0 +1,8 @@
+package com.task.demo.exception;
+
+public class InsufficientBalanceException extends TransactionException {
+
+    public InsufficientBalanceException() {
+        super("Insufficient balance");
+    }
+}
@@ -0,0 +1,11 @@
+package com.task.demo.exception;
+
+/**
+ * A mutation failed after it may already have taken effect, so a retry must not simply run it again.
+ */
+public class OutcomeUnknownException extends RuntimeException {
+
+    public OutcomeUnknownException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
+}
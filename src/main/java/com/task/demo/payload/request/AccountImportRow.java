@@ -0,0 +1,17 @@
+package com.task.demo.payload.request;
+
+/**
+ * One line of an account import: the parsed request, or the reason the line could not be parsed.
+ *
+ * @param line 1-based line number in the uploaded file
+ */
+public record AccountImportRow(long line, CreateAccountRequest request, String error) {
+
+    public static AccountImportRow parsed(long line, CreateAccountRequest request) {
+        return new AccountImportRow(line, request, null);
+    }
+
+    public static AccountImportRow unparseable(long line, String error) {
+        return new AccountImportRow(line, null, error);
+    }
+}
@@ -0,0 +1,53 @@
+package com.task.demo.payload.response;
+
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of an account import: how many rows were imported and which ones failed. Only the
+ * first {@code maxReportedFailures} failures are listed, so the report stays bounded however
+ * large the input is; {@code failed} always counts all of them.
+ */
+public class AccountImportResult {
+
+    private final int maxReportedFailures;
+    private final List<Failure> failures = new ArrayList<>();
+    private long imported;
+    private long failed;
+
+    public AccountImportResult(int maxReportedFailures) {
+        this.maxReportedFailures = maxReportedFailures;
+    }
+
+    public void recordImported(long count) {
+        imported += count;
+    }
+
+    public void recordFailure(long line, String accountNumber, HttpStatus status, String message) {
+        failed++;
+        if (failures.size() < maxReportedFailures) {
+            failures.add(new Failure(line, accountNumber, status, message));
+        }
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    public boolean isFailuresTruncated() {
+        return failed > failures.size();
+    }
+
+    public record Failure(long line, String accountNumber, HttpStatus status, String message) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.task.demo.payload.response;
+
+import com.task.demo.entity.Account;
+
+import java.util.List;
+
+public class AccountPage {
+
+    private final List<Account> accounts;
+    private final String nextCursor;
+
+    public AccountPage(List<Account> accounts, String nextCursor) {
+        this.accounts = accounts;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Account> getAccounts() {
+        return accounts;
+    }
+
+    /**
+     * Cursor of the following page, or {@code null} when this is the last one.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
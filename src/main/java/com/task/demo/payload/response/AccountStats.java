@@ -0,0 +1,63 @@
+package com.task.demo.payload.response;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Totals over all accounts. Each figure is exact for the changes committed when it was read, but
+ * the figures are read one after another, so an operation committing meanwhile may be reflected in
+ * some of them only.
+ */
+public class AccountStats {
+
+    private final long accountCount;
+    private final BigDecimal totalBalance;
+    private final OperationTotals deposits;
+    private final OperationTotals withdrawals;
+    private final OperationTotals transfers;
+    private final List<BalanceBucket> balanceDistribution;
+
+    public AccountStats(long accountCount, BigDecimal totalBalance, OperationTotals deposits, OperationTotals withdrawals,
+                        OperationTotals transfers, List<BalanceBucket> balanceDistribution) {
+        this.accountCount = accountCount;
+        this.totalBalance = totalBalance;
+        this.deposits = deposits;
+        this.withdrawals = withdrawals;
+        this.transfers = transfers;
+        this.balanceDistribution = balanceDistribution;
+    }
+
+    public long getAccountCount() {
+        return accountCount;
+    }
+
+    public BigDecimal getTotalBalance() {
+        return totalBalance;
+    }
+
+    public OperationTotals getDeposits() {
+        return deposits;
+    }
+
+    public OperationTotals getWithdrawals() {
+        return withdrawals;
+    }
+
+    public OperationTotals getTransfers() {
+        return transfers;
+    }
+
+    public List<BalanceBucket> getBalanceDistribution() {
+        return balanceDistribution;
+    }
+
+    public record OperationTotals(long count, BigDecimal amount) {
+    }
+
+    /**
+     * The number of accounts with a balance in {@code [from, to)}; {@code from} is {@code null}
+     * for the first bucket and {@code to} for the last.
+     */
+    public record BalanceBucket(BigDecimal from, BigDecimal to, long accounts) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.task.demo.payload.response;
+
+import com.task.demo.entity.LedgerEntry;
+
+import java.util.List;
+
+public class LedgerPage {
+
+    private final List<LedgerEntry> entries;
+    private final String nextCursor;
+
+    public LedgerPage(List<LedgerEntry> entries, String nextCursor) {
+        this.entries = entries;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<LedgerEntry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Cursor of the following page, or {@code null} when this is the last one.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
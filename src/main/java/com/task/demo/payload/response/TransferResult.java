@@ -0,0 +1,32 @@
+package com.task.demo.payload.response;
+
+import org.springframework.http.HttpStatus;
+
+public class TransferResult {
+
+    private static final TransferResult OK = new TransferResult(HttpStatus.OK, "Transfer successfully executed");
+
+    private final HttpStatus status;
+    private final String message;
+
+    private TransferResult(HttpStatus status, String message) {
+        this.status = status;
+        this.message = message;
+    }
+
+    public static TransferResult ok() {
+        return OK;
+    }
+
+    public static TransferResult failed(HttpStatus status, String message) {
+        return new TransferResult(status, message);
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
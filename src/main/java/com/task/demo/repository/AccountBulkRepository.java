@@ -0,0 +1,46 @@
+package com.task.demo.repository;
+
+import com.task.demo.entity.Account;
+import com.task.demo.entity.LedgerEntry;
+import com.task.demo.service.NewAccount;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batched inserts of new accounts for imports.
+ */
+@Repository
+public class AccountBulkRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Inserts the accounts and their opening ledger entries in one new transaction, without
+     * checking for existing accounts first: a duplicate account number fails the whole call with
+     * a {@link org.springframework.dao.DataIntegrityViolationException} from the unique constraint.
+     * Ids come from pooled sequences, so the inserts go out in JDBC batches at the flush; the
+     * persistence context is cleared afterwards so it does not grow across calls.
+     *
+     * @return the inserted accounts, detached
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<Account> insertAll(List<NewAccount> accounts) {
+        List<Account> inserted = new ArrayList<>(accounts.size());
+        for (NewAccount newAccount : accounts) {
+            Account account = new Account(newAccount.accountNumber(), newAccount.initialBalance());
+            entityManager.persist(account);
+            entityManager.persist(LedgerEntry.opening(account));
+            inserted.add(account);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return inserted;
+    }
+}
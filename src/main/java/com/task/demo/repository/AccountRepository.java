@@ -1,8 +1,84 @@
 package com.task.demo.repository;
 
 import com.task.demo.entity.Account;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
     Account findByAccountNumber(String accountNumber);
+
+    boolean existsByAccountNumber(String accountNumber);
+
+    List<Account> findByAccountNumberIn(Collection<String> accountNumbers);
+
+    /**
+     * Returns which of the accounts exist and locks their rows until the transaction ends, in
+     * account number order, so transactions locking overlapping sets this way cannot deadlock.
+     */
+    @Query(value = "select account_number from account where account_number in (:accountNumbers)"
+            + " order by account_number for update", nativeQuery = true)
+    List<String> lockExistingAccountNumbers(@Param("accountNumbers") Collection<String> accountNumbers);
+
+    List<Account> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select a from Account a order by a.id")
+    Stream<Account> streamAllOrderById();
+
+    /**
+     * Adds {@code amount} unless the balance would no longer fit in a {@code long}, as
+     * {@link com.task.demo.entity.Money#add} refuses it.
+     *
+     * @return 1 when the account was credited, 0 when it does not exist or the balance would overflow
+     */
+    default int credit(String accountNumber, long amount) {
+        return creditUpTo(accountNumber, amount, Long.MAX_VALUE);
+    }
+
+    @Modifying
+    @Query(value = "update account set balance = balance + :amount, version = version + 1"
+            + " where account_number = :accountNumber and balance <= :maxBalance - :amount", nativeQuery = true)
+    int creditUpTo(@Param("accountNumber") String accountNumber, @Param("amount") long amount,
+                   @Param("maxBalance") long maxBalance);
+
+    /**
+     * Subtracts {@code amount} if the balance covers it.
+     *
+     * @return 1 when the account was debited, 0 when it does not exist or the balance is insufficient
+     */
+    @Modifying
+    @Query(value = "update account set balance = balance - :amount, version = version + 1"
+            + " where account_number = :accountNumber and balance >= :amount", nativeQuery = true)
+    int debit(@Param("accountNumber") String accountNumber, @Param("amount") long amount);
+
+    /**
+     * Reads the row {@link #credit} or {@link #debit} updated in the current transaction. The row
+     * lock taken by the update keeps it as written until the transaction ends.
+     */
+    @Query(value = "select id, balance, version from account where account_number = :accountNumber", nativeQuery = true)
+    BalanceUpdate findBalanceUpdate(@Param("accountNumber") String accountNumber);
+
+    /**
+     * An account row as left by {@link #credit} or {@link #debit}.
+     */
+    interface BalanceUpdate {
+        long getId();
+
+        long getBalance();
+
+        long getVersion();
+    }
 }
@@ -0,0 +1,84 @@
+package com.task.demo.repository;
+
+import com.task.demo.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Inserts a pending record unless the key is claimed already. A plain insert, unlike
+     * {@code save}, never updates an existing row; two claims racing past the existence check fail
+     * the second with a {@link org.springframework.dao.DataIntegrityViolationException}.
+     *
+     * @return 1 when the key was claimed, 0 when it was claimed already
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into idempotency_record (idempotency_key, fingerprint, created_at)"
+            + " select :key, :fingerprint, :createdAt"
+            + " where not exists (select 1 from idempotency_record where idempotency_key = :key)", nativeQuery = true)
+    int claim(@Param("key") String key, @Param("fingerprint") String fingerprint, @Param("createdAt") Instant createdAt);
+
+    /**
+     * Reads the state of a record as plain values. Unlike {@code findById}, this never returns an
+     * instance the persistence context of the request already holds, so a key that is polled
+     * shows its stored response as soon as it is committed.
+     */
+    @Query("select r.fingerprint as fingerprint, r.createdAt as createdAt, r.status as status,"
+            + " r.contentType as contentType, r.body as body"
+            + " from IdempotencyRecord r where r.idempotencyKey = :key")
+    Optional<Outcome> findOutcome(@Param("key") String key);
+
+    /**
+     * Takes over a pending record that was claimed at {@code claimedAt} by restarting it at
+     * {@code now}. The claim time identifies a claim: only the request holding the current one may
+     * complete or release the record.
+     *
+     * @return 1 when the record was taken over, 0 when it changed since it was read
+     */
+    @Modifying
+    @Transactional
+    @Query("update IdempotencyRecord r set r.createdAt = :now"
+            + " where r.idempotencyKey = :key and r.createdAt = :claimedAt and r.status is null")
+    int reclaim(@Param("key") String key, @Param("claimedAt") Instant claimedAt, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("update IdempotencyRecord r set r.status = :status, r.contentType = :contentType, r.body = :body"
+            + " where r.idempotencyKey = :key and r.createdAt = :claimedAt and r.status is null")
+    int complete(@Param("key") String key, @Param("claimedAt") Instant claimedAt, @Param("status") int status,
+                 @Param("contentType") String contentType, @Param("body") String body);
+
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.idempotencyKey = :key and r.createdAt = :claimedAt and r.status is null")
+    int release(@Param("key") String key, @Param("claimedAt") Instant claimedAt);
+
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.createdAt < :createdBefore")
+    int deleteCreatedBefore(@Param("createdBefore") Instant createdBefore);
+
+    interface Outcome {
+
+        String getFingerprint();
+
+        Instant getCreatedAt();
+
+        /**
+         * HTTP status of the stored response, {@code null} while the claiming request is running.
+         */
+        Integer getStatus();
+
+        String getContentType();
+
+        String getBody();
+    }
+}
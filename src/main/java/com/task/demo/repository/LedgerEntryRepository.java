@@ -0,0 +1,51 @@
+package com.task.demo.repository;
+
+import com.task.demo.entity.LedgerEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    /**
+     * Entries of an account created in {@code [from, to)}, ordered by creation time and id, that
+     * come after the entry identified by {@code afterCreatedAt} and {@code afterId}.
+     */
+    @Query("select e from LedgerEntry e where e.accountNumber = :accountNumber"
+            + " and e.createdAt >= :from and e.createdAt < :to"
+            + " and (e.createdAt > :afterCreatedAt or (e.createdAt = :afterCreatedAt and e.id > :afterId))"
+            + " order by e.createdAt, e.id")
+    List<LedgerEntry> findPage(@Param("accountNumber") String accountNumber,
+                               @Param("from") Instant from,
+                               @Param("to") Instant to,
+                               @Param("afterCreatedAt") Instant afterCreatedAt,
+                               @Param("afterId") long afterId,
+                               Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from LedgerEntry e where e.accountNumber = :accountNumber"
+            + " and e.createdAt >= :from and e.createdAt < :to"
+            + " order by e.createdAt, e.id")
+    Stream<LedgerEntry> streamByAccountNumber(@Param("accountNumber") String accountNumber,
+                                              @Param("from") Instant from,
+                                              @Param("to") Instant to);
+
+    boolean existsByRequestId(String requestId);
+
+    /**
+     * Rows of entry type, number of entries and sum of their amounts.
+     */
+    @Query("select e.type, count(e), sum(e.amount) from LedgerEntry e group by e.type")
+    List<Object[]> sumAmountsByType();
+}
@@ -0,0 +1,28 @@
+package com.task.demo.repository;
+
+import com.task.demo.entity.OutboxTransfer;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface OutboxTransferRepository extends JpaRepository<OutboxTransfer, Long> {
+
+    List<OutboxTransfer> findByDeadLetteredAtIsNullAndCreatedAtBeforeOrderByCreatedAtAscIdAsc(Instant createdAt, Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("update OutboxTransfer o set o.attempts = :attempts, o.deadLetteredAt = :deadLetteredAt where o.transferId = :transferId")
+    int recordFailedDelivery(@Param("transferId") String transferId, @Param("attempts") int attempts,
+                             @Param("deadLetteredAt") Instant deadLetteredAt);
+
+    @Modifying
+    @Transactional
+    @Query("delete from OutboxTransfer o where o.transferId = :transferId")
+    int deleteByTransferId(@Param("transferId") String transferId);
+}
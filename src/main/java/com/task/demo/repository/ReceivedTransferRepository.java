@@ -0,0 +1,20 @@
+package com.task.demo.repository;
+
+import com.task.demo.entity.ReceivedTransfer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface ReceivedTransferRepository extends JpaRepository<ReceivedTransfer, Long> {
+
+    boolean existsByTransferId(String transferId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from ReceivedTransfer r where r.receivedAt < :receivedBefore")
+    int deleteByReceivedAtBefore(@Param("receivedBefore") Instant receivedBefore);
+}
@@ -0,0 +1,137 @@
+package com.task.demo.repository.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Places accounts on shards by a consistent hash of the account number and tells the routing
+ * data source which shard the current thread works on.
+ * <p>
+ * Every shard owns {@code virtualNodes} points on a 64-bit hash ring; an account belongs to the
+ * shard owning the first point at or after the hash of its account number. Adding a shard moves
+ * only the accounts that fall between its new points and their predecessors.
+ * <p>
+ * Ids are unique across shards: shard {@code s} hands out ids starting at {@code s << }
+ * {@value #SHARD_ID_BITS}, so the shard of a row can be read from its id and ordering by id orders
+ * by shard first.
+ */
+public final class ShardRouter {
+
+    public static final int SHARD_ID_BITS = 40;
+
+    @FunctionalInterface
+    public interface ShardTask<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final int shardCount;
+    private final long[] points;
+    private final int[] owners;
+    private final ThreadLocal<Integer> currentShard = new ThreadLocal<>();
+
+    public ShardRouter(int shardCount, int virtualNodes) {
+        if (shardCount < 1 || shardCount > 1 << (Long.SIZE - 1 - SHARD_ID_BITS)) {
+            throw new IllegalArgumentException("Shard count must be between 1 and " + (1 << (Long.SIZE - 1 - SHARD_ID_BITS)));
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("Virtual nodes per shard must be positive");
+        }
+        this.shardCount = shardCount;
+        long[][] ring = new long[shardCount * virtualNodes][];
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                ring[shard * virtualNodes + node] = new long[]{mix(((long) shard << 32) | node), shard};
+            }
+        }
+        Arrays.sort(ring, (a, b) -> Long.compare(a[0], b[0]));
+        this.points = new long[ring.length];
+        this.owners = new int[ring.length];
+        for (int i = 0; i < ring.length; i++) {
+            points[i] = ring[i][0];
+            owners[i] = (int) ring[i][1];
+        }
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardOf(String accountNumber) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        int index = Arrays.binarySearch(points, hash(accountNumber));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public boolean sameShard(String accountNumber, String otherAccountNumber) {
+        return shardOf(accountNumber) == shardOf(otherAccountNumber);
+    }
+
+    public static int shardOfId(long id) {
+        return (int) (id >>> SHARD_ID_BITS);
+    }
+
+    /**
+     * The lowest id shard {@code shard} hands out.
+     */
+    public static long firstId(int shard) {
+        return ((long) shard << SHARD_ID_BITS) + 1;
+    }
+
+    /**
+     * Runs {@code task} with its database work routed to {@code shard}. The shard is selected for
+     * the calling thread only, and the previous selection is restored afterwards.
+     */
+    public <T, E extends Exception> T onShard(int shard, ShardTask<T, E> task) throws E {
+        Integer previous = currentShard.get();
+        currentShard.set(shard);
+        try {
+            return task.run();
+        } finally {
+            if (previous == null) {
+                currentShard.remove();
+            } else {
+                currentShard.set(previous);
+            }
+        }
+    }
+
+    public <T, E extends Exception> T onShardOf(String accountNumber, ShardTask<T, E> task) throws E {
+        return onShard(shardOf(accountNumber), task);
+    }
+
+    /**
+     * The shard selected for the calling thread, or {@code null} when none is.
+     */
+    public Integer currentShard() {
+        return currentShard.get();
+    }
+
+    /**
+     * FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer so that account numbers
+     * differing in the last character land far apart on the ring.
+     */
+    private static long hash(String accountNumber) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : accountNumber.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xFF)) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,43 @@
+package com.task.demo.repository.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out connections of the shard the calling thread selected through the {@link ShardRouter},
+ * or of shard 0 when none is selected, as during startup. JPA does not go through it but through
+ * {@link ShardTenancy}; it serves plain JDBC users of the application's data source.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ShardRouter shardRouter;
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(ShardRouter shardRouter, List<DataSource> shards) {
+        if (shards.size() != shardRouter.shardCount()) {
+            throw new IllegalArgumentException("Expected one data source per shard");
+        }
+        this.shardRouter = shardRouter;
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        setLenientFallback(false);
+    }
+
+    public DataSource shard(int shard) {
+        return shards.get(shard);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return shardRouter.currentShard();
+    }
+}
@@ -0,0 +1,52 @@
+package com.task.demo.repository.sharding;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.hibernate.engine.jdbc.connections.spi.AbstractDataSourceBasedMultiTenantConnectionProviderImpl;
+
+import javax.sql.DataSource;
+
+/**
+ * Makes every shard a Hibernate tenant, so that a session opened for a shard takes its
+ * connections from that shard's pool and draws ids from its own sequence blocks; the pooled id
+ * optimizer keeps the blocks per tenant.
+ * <p>
+ * The tenant is resolved when the session opens, that is when a transaction begins: the shard
+ * must be selected through the {@link ShardRouter} before, and a transaction cannot switch shards.
+ * Sessions opened without a selected shard, as during startup, work on shard 0.
+ */
+public class ShardTenancy extends AbstractDataSourceBasedMultiTenantConnectionProviderImpl<String>
+        implements CurrentTenantIdentifierResolver<String> {
+
+    private final ShardRouter shardRouter;
+    private final ShardRoutingDataSource shardRoutingDataSource;
+
+    public ShardTenancy(ShardRouter shardRouter, ShardRoutingDataSource shardRoutingDataSource) {
+        this.shardRouter = shardRouter;
+        this.shardRoutingDataSource = shardRoutingDataSource;
+    }
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        Integer shard = shardRouter.currentShard();
+        return String.valueOf(shard == null ? 0 : shard);
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+
+    /**
+     * Used by schema management, which runs outside a session; follows the selected shard so that
+     * the schema can be exported to each of them in turn.
+     */
+    @Override
+    protected DataSource selectAnyDataSource() {
+        return selectDataSource(resolveCurrentTenantIdentifier());
+    }
+
+    @Override
+    protected DataSource selectDataSource(String tenantIdentifier) {
+        return shardRoutingDataSource.shard(Integer.parseInt(tenantIdentifier));
+    }
+}
@@ -2,28 +2,58 @@ package com.task.demo.service;
 
 import com.task.demo.entity.Account;
 import com.task.demo.exception.NotFoundException;
+import com.task.demo.payload.request.AccountImportRow;
 import com.task.demo.payload.request.CreateAccountRequest;
 import com.task.demo.payload.request.TransactionRequest;
 import com.task.demo.payload.request.TransferRequest;
+import com.task.demo.payload.response.AccountImportResult;
+import com.task.demo.payload.response.AccountPage;
+import com.task.demo.payload.response.AccountStats;
+import com.task.demo.payload.response.LedgerPage;
+import com.task.demo.payload.response.TransferResult;
 import org.apache.coyote.BadRequestException;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface IAccountService {
-    @Transactional
-    Account createAccount(CreateAccountRequest request);
+    Account createAccount(CreateAccountRequest request) throws BadRequestException;
 
     Account getAccount(String accountNumber);
 
-    List<Account> listAccounts();
+    AccountImportResult importAccounts(Iterator<AccountImportRow> rows);
+
+    AccountPage listAccounts(String cursor, int limit) throws BadRequestException;
+
+    void exportAccounts(Consumer<Account> sink);
 
-    @Transactional
     Account deposit(String accountNumber, TransactionRequest request) throws NotFoundException, BadRequestException;
 
-    @Transactional
     Account withdraw(String accountNumber, TransactionRequest request) throws NotFoundException, BadRequestException;
 
-    @Transactional
     void transfer(TransferRequest request) throws NotFoundException, BadRequestException;
+
+    List<TransferResult> transferBatch(List<TransferRequest> requests);
+
+    /**
+     * Tells whether the mutation made under {@code requestId}, an {@code Idempotency-Key}, changed
+     * the balance of {@code accountNumber}, the source for a transfer. Empty when the engine does not
+     * record request ids with its changes.
+     */
+    Optional<Boolean> isApplied(String accountNumber, String requestId);
+
+    AccountStats getStats();
+
+    LedgerPage listTransactions(String accountNumber, Instant from, Instant to, String cursor, int limit)
+            throws NotFoundException, BadRequestException;
+
+    /**
+     * Checks the account before anything is written, so a missing account or an engine without
+     * history fails the request instead of an already started export.
+     */
+    LedgerExport exportTransactions(String accountNumber, Instant from, Instant to)
+            throws NotFoundException, BadRequestException;
 }
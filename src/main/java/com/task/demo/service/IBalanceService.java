@@ -0,0 +1,50 @@
+package com.task.demo.service;
+
+import com.task.demo.entity.Account;
+import com.task.demo.exception.NotFoundException;
+import com.task.demo.payload.response.TransferResult;
+
+import java.util.List;
+
+/**
+ * Transactional balance mutations, with amounts in minor units (see {@link com.task.demo.entity.Money}). Callers are expected to hold exclusive access to the
+ * involved accounts, see {@link com.task.demo.service.concurrency.AccountExecutor}.
+ * <p>
+ * A {@code requestId}, the {@code Idempotency-Key} of the request or {@code null}, is stored with
+ * the ledger entry of the account the change was requested for, see {@link IdempotencyContext}.
+ */
+public interface IBalanceService {
+
+    Account deposit(String accountNumber, long amount, String requestId) throws NotFoundException;
+
+    /**
+     * Applies several deposits into one account in order, as one balance update with a ledger entry
+     * per deposit, and returns the account afterwards.
+     *
+     * @param requestIds request id of each deposit
+     */
+    Account depositAll(String accountNumber, long[] amounts, String[] requestIds) throws NotFoundException;
+
+    Account withdraw(String accountNumber, long amount, String requestId) throws NotFoundException;
+
+    void transfer(String sourceAccountNumber, String targetAccountNumber, long amount, String requestId) throws NotFoundException;
+
+    /**
+     * First half of a transfer between accounts on different shards: debits the source and records
+     * the credit owed to the target as an {@link com.task.demo.entity.OutboxTransfer}, in one
+     * transaction on the source's shard.
+     */
+    void beginTransfer(String transferId, Transfer transfer, String requestId) throws NotFoundException;
+
+    /**
+     * Second half of a transfer between shards: credits the target, in one transaction on the
+     * target's shard, unless the transfer was credited before. Returns whether it credited.
+     */
+    boolean completeTransfer(String transferId, Transfer transfer) throws NotFoundException;
+
+    /**
+     * Applies already validated transfers in order within one transaction. A failing transfer is
+     * reported in its result and leaves balances untouched; the others still apply.
+     */
+    List<TransferResult> transferAll(List<Transfer> transfers);
+}
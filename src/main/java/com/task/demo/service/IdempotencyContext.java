@@ -0,0 +1,38 @@
+package com.task.demo.service;
+
+import java.util.function.Supplier;
+
+/**
+ * The {@code Idempotency-Key} of the request the current thread serves. The service reads it where
+ * a mutation enters, before any hand-off to another thread, and stores it with the ledger entry
+ * the mutation writes, in the transaction that changes the balance. Whether a request took effect
+ * can then be told from the ledger even when its response was never stored.
+ */
+public final class IdempotencyContext {
+
+    private static final ThreadLocal<String> currentKey = new ThreadLocal<>();
+
+    private IdempotencyContext() {
+    }
+
+    public static <T> T runWithKey(String key, Supplier<T> operation) {
+        String previous = currentKey.get();
+        currentKey.set(key);
+        try {
+            return operation.get();
+        } finally {
+            if (previous == null) {
+                currentKey.remove();
+            } else {
+                currentKey.set(previous);
+            }
+        }
+    }
+
+    /**
+     * @return the key of the current request, {@code null} when it has none
+     */
+    public static String currentKey() {
+        return currentKey.get();
+    }
+}
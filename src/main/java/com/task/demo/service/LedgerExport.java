@@ -0,0 +1,13 @@
+package com.task.demo.service;
+
+import com.task.demo.entity.LedgerEntry;
+
+import java.util.function.Consumer;
+
+/**
+ * A checked ledger export, run once the response is under way.
+ */
+@FunctionalInterface
+public interface LedgerExport {
+    void writeTo(Consumer<LedgerEntry> sink);
+}
@@ -0,0 +1,9 @@
+package com.task.demo.service;
+
+/**
+ * A validated account to create with its initial balance in minor units.
+ *
+ * @param line line of the import file the account came from
+ */
+public record NewAccount(long line, String accountNumber, long initialBalance) {
+}
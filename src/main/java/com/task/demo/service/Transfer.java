@@ -0,0 +1,7 @@
+package com.task.demo.service;
+
+/**
+ * A validated transfer with its amount in minor units.
+ */
+public record Transfer(String sourceAccountNumber, String targetAccountNumber, long amount) {
+}
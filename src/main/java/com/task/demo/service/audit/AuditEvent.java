@@ -0,0 +1,82 @@
+package com.task.demo.service.audit;
+
+import com.task.demo.service.metrics.AccountMetrics.Operation;
+import com.task.demo.service.metrics.AccountMetrics.Outcome;
+
+import java.math.BigDecimal;
+
+/**
+ * One slot of the {@link AuditRingBuffer}. Slots are allocated with the buffer and overwritten in
+ * place, so publishing an event only stores references to objects the request already holds.
+ * The fields are only valid inside the handler passed to {@link AuditRingBuffer#drain}.
+ */
+public final class AuditEvent {
+
+    /**
+     * The sequence of the event in the slot, written last by the producer; the consumer reads the
+     * slot once it holds the sequence it expects.
+     */
+    volatile long sequence = -1;
+
+    private long timestamp;
+    private Operation operation;
+    private Outcome outcome;
+    private String accountNumber;
+    private String targetAccountNumber;
+    private BigDecimal amount;
+    private String message;
+
+    void set(long timestamp, Operation operation, Outcome outcome, String accountNumber,
+             String targetAccountNumber, BigDecimal amount, String message) {
+        this.timestamp = timestamp;
+        this.operation = operation;
+        this.outcome = outcome;
+        this.accountNumber = accountNumber;
+        this.targetAccountNumber = targetAccountNumber;
+        this.amount = amount;
+        this.message = message;
+    }
+
+    /**
+     * Drops the references of a consumed event, so the slot does not keep them reachable until it
+     * is reused.
+     */
+    void clear() {
+        set(0, null, null, null, null, null, null);
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Epoch milliseconds at which the operation ended.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public String getTargetAccountNumber() {
+        return targetAccountNumber;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,122 @@
+package com.task.demo.service.audit;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+/**
+ * Append-only audit files in one directory, one JSON object per line, named by their sequence
+ * number. Writing continues at the end of the newest file; once a file reaches the maximum size
+ * after a batch, it is forced to disk and the next one is started. Files are never rewritten.
+ * <p>
+ * Not thread-safe; only the audit writer thread uses it.
+ */
+final class AuditFile implements AutoCloseable {
+
+    private static final String SUFFIX = ".ndjson";
+
+    private final Path directory;
+    private final long maxFileSize;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    private long index;
+    private FileChannel channel;
+    private JsonGenerator generator;
+
+    AuditFile(Path directory, long maxFileSize) throws IOException {
+        this.directory = directory;
+        this.maxFileSize = maxFileSize;
+        Files.createDirectories(directory);
+        long newest;
+        try (Stream<Path> files = Files.list(directory)) {
+            newest = files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .mapToLong(name -> Long.parseLong(name.substring(0, name.length() - SUFFIX.length())))
+                    .max()
+                    .orElse(0);
+        }
+        open(newest);
+    }
+
+    void write(AuditEvent event) throws IOException {
+        if (generator == null) {
+            throw new IOException("No audit file is open");
+        }
+        generator.writeStartObject();
+        generator.writeStringField("timestamp", Instant.ofEpochMilli(event.getTimestamp()).toString());
+        generator.writeStringField("operation", event.getOperation().name());
+        generator.writeStringField("outcome", event.getOutcome().name());
+        if (event.getAccountNumber() != null) {
+            generator.writeStringField("accountNumber", event.getAccountNumber());
+        }
+        if (event.getTargetAccountNumber() != null) {
+            generator.writeStringField("targetAccountNumber", event.getTargetAccountNumber());
+        }
+        if (event.getAmount() != null) {
+            generator.writeNumberField("amount", event.getAmount());
+        }
+        if (event.getMessage() != null) {
+            generator.writeStringField("message", event.getMessage());
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * Hands everything written so far to the operating system, and moves on to the next file once
+     * the current one is full. Closing the generator closes the file under it.
+     */
+    void flush() throws IOException {
+        generator.flush();
+        if (channel.size() >= maxFileSize) {
+            channel.force(false);
+            generator.close();
+            open(index + 1);
+        }
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * Abandons the current file after a failed write and starts the next one, so one bad write
+     * does not leave a half-written line in front of later events.
+     */
+    void recover() throws IOException {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Already broken; the next file replaces it.
+        }
+        generator = null;
+        open(index + 1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (generator != null) {
+            generator.flush();
+            channel.force(false);
+            generator.close();
+            generator = null;
+        }
+    }
+
+    private void open(long index) throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", index, SUFFIX));
+        this.index = index;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.generator = jsonFactory.createGenerator(Channels.newOutputStream(channel))
+                .enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN)
+                .setRootValueSeparator(null);
+    }
+}
@@ -0,0 +1,262 @@
+package com.task.demo.service.audit;
+
+import com.task.demo.service.audit.AuditRingBuffer.OverflowMode;
+import com.task.demo.service.metrics.AccountMetrics.Operation;
+import com.task.demo.service.metrics.AccountMetrics.Outcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Audit trail of every attempted account operation, successful or not, enabled with
+ * {@code account.audit.enabled=true}. Requests refused before they reach the service are recorded
+ * as {@link Outcome#REJECTED}. Request threads only publish into an {@link AuditRingBuffer}
+ * of {@code account.audit.buffer-size} slots and return; a single writer thread drains it in
+ * batches into the {@link AuditFile}s in {@code account.audit.directory}, starting a new file every
+ * {@code account.audit.max-file-size}.
+ * <p>
+ * Each batch is written to the file as soon as it is drained. {@code account.audit.flush} decides
+ * when the file is also forced to disk: after every batch, at most every
+ * {@code account.audit.flush-interval}, or only when a file is completed. When the buffer is full,
+ * {@code account.audit.overflow} either drops the event or makes the request wait for room.
+ * <p>
+ * Buffer occupancy is exposed as {@code account.audit.buffer.used} out of
+ * {@code account.audit.buffer.capacity}, events in files as {@code account.audit.written} and
+ * lost events as {@code account.audit.dropped}, tagged with the {@code reason}: {@code buffer-full},
+ * {@code write-failed} or {@code closed} for events recorded after the log was closed.
+ */
+@Component
+public class AuditLog {
+
+    public enum FlushPolicy {
+        /**
+         * Force the file after every batch.
+         */
+        BATCH,
+        /**
+         * Force the file at most once per {@code account.audit.flush-interval}.
+         */
+        INTERVAL,
+        /**
+         * Leave writing back to the operating system until a file is completed.
+         */
+        NONE
+    }
+
+    private static final int MAX_BATCH = 1024;
+
+    private final AuditRingBuffer ringBuffer;
+    private final AuditFile file;
+    private final FlushPolicy flushPolicy;
+    private final long flushIntervalNanos;
+    private final Consumer<AuditEvent> writeEvent = this::write;
+    private final Thread writer;
+    private final Counter written;
+    private final Counter droppedBufferFull;
+    private final Counter droppedWriteFailed;
+    private final Counter droppedClosed;
+    private IOException writeFailure;
+
+    @Autowired
+    public AuditLog(@Value("${account.audit.enabled:false}") boolean enabled,
+                    @Value("${account.audit.directory:audit}") String directory,
+                    @Value("${account.audit.buffer-size:65536}") int bufferSize,
+                    @Value("${account.audit.overflow:drop}") OverflowMode overflow,
+                    @Value("${account.audit.max-file-size:64MB}") DataSize maxFileSize,
+                    @Value("${account.audit.flush:interval}") FlushPolicy flushPolicy,
+                    @Value("${account.audit.flush-interval:1s}") Duration flushInterval,
+                    MeterRegistry meterRegistry) throws IOException {
+        this.flushPolicy = flushPolicy;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        if (!enabled) {
+            this.ringBuffer = null;
+            this.file = null;
+            this.writer = null;
+            this.written = null;
+            this.droppedBufferFull = null;
+            this.droppedWriteFailed = null;
+            this.droppedClosed = null;
+            return;
+        }
+        this.ringBuffer = new AuditRingBuffer(bufferSize, overflow);
+        this.file = new AuditFile(Path.of(directory), maxFileSize.toBytes());
+        this.written = Counter.builder("account.audit.written")
+                .description("Audit events written to the audit file")
+                .register(meterRegistry);
+        this.droppedBufferFull = dropped(meterRegistry, "buffer-full");
+        this.droppedWriteFailed = dropped(meterRegistry, "write-failed");
+        this.droppedClosed = dropped(meterRegistry, "closed");
+        Gauge.builder("account.audit.buffer.used", ringBuffer, AuditRingBuffer::size)
+                .description("Audit events waiting for the writer")
+                .register(meterRegistry);
+        Gauge.builder("account.audit.buffer.capacity", ringBuffer, AuditRingBuffer::capacity)
+                .description("Audit events the buffer can hold")
+                .register(meterRegistry);
+        this.writer = Thread.ofPlatform().daemon().name("audit-writer").start(this::writeLoop);
+    }
+
+    /**
+     * Records an attempted operation. Missing account numbers and amounts are left out of the
+     * entry; {@code message} is the reason of a failure.
+     */
+    public void record(Operation operation, Outcome outcome, String accountNumber, String targetAccountNumber,
+                       BigDecimal amount, String message) {
+        if (ringBuffer == null) {
+            return;
+        }
+        if (ringBuffer.publish(System.currentTimeMillis(), operation, outcome, accountNumber, targetAccountNumber,
+                amount, message)) {
+            LockSupport.unpark(writer);
+        } else if (ringBuffer.isClosed()) {
+            droppedClosed.increment();
+        } else {
+            droppedBufferFull.increment();
+        }
+    }
+
+    /**
+     * Records an operation on {@code accountNumber}, and {@code targetAccountNumber} for transfers,
+     * that ended with {@code failure}, or successfully when it is {@code null}.
+     */
+    public void record(Operation operation, String accountNumber, String targetAccountNumber, BigDecimal amount,
+                       Throwable failure) {
+        record(operation, Outcome.of(failure), accountNumber, targetAccountNumber, amount,
+                failure == null ? null : failure.getMessage());
+    }
+
+    /**
+     * Records a request refused before it reached the service, by a rate limit, the idempotency
+     * store or a saturated request executor; {@code message} is the reason.
+     */
+    public void recordRejected(AuditedOperation attempt, String message) {
+        record(attempt.operation(), Outcome.REJECTED, attempt.accountNumber(), attempt.targetAccountNumber(),
+                attempt.amount(), message);
+    }
+
+    /**
+     * Records one item of a batch transfer or an import, which reports its result as a status.
+     */
+    public void recordItem(Operation operation, String accountNumber, String targetAccountNumber, BigDecimal amount,
+                           HttpStatus status, String message) {
+        record(operation, Outcome.of(status), accountNumber, targetAccountNumber, amount,
+                status.is2xxSuccessful() ? null : message);
+    }
+
+    /**
+     * Stops accepting events and returns once everything published before has been written and
+     * forced to disk. Events recorded from then on are counted as dropped.
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        ringBuffer.close();
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        file.close();
+    }
+
+    private void writeLoop() {
+        long lastForce = System.nanoTime();
+        boolean unforced = false;
+        while (true) {
+            boolean closing = ringBuffer.isClosed();
+            int count = ringBuffer.drain(writeEvent, MAX_BATCH);
+            if (count > 0) {
+                unforced = endBatch(count) || unforced;
+            }
+            if (unforced && (flushPolicy == FlushPolicy.BATCH
+                    || flushPolicy == FlushPolicy.INTERVAL && System.nanoTime() - lastForce >= flushIntervalNanos)) {
+                force();
+                lastForce = System.nanoTime();
+                unforced = false;
+            }
+            if (count == MAX_BATCH) {
+                continue;
+            }
+            if (closing) {
+                if (ringBuffer.size() == 0) {
+                    return;
+                }
+                // A producer claimed its slot before the close and is still filling it.
+                Thread.onSpinWait();
+                continue;
+            }
+            if (unforced && flushPolicy == FlushPolicy.INTERVAL) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            } else {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    private void write(AuditEvent event) {
+        if (writeFailure != null) {
+            return;
+        }
+        try {
+            file.write(event);
+        } catch (IOException e) {
+            writeFailure = e;
+        }
+    }
+
+    /**
+     * Hands the batch to the file. When any part of it failed, the whole batch counts as dropped
+     * and writing continues in a new file.
+     *
+     * @return whether the batch reached the file
+     */
+    private boolean endBatch(int count) {
+        try {
+            if (writeFailure != null) {
+                throw writeFailure;
+            }
+            file.flush();
+            written.increment(count);
+            return true;
+        } catch (IOException e) {
+            droppedWriteFailed.increment(count);
+            writeFailure = null;
+            try {
+                file.recover();
+            } catch (IOException recoverFailure) {
+                // The next batch fails and tries again.
+            }
+            return false;
+        }
+    }
+
+    private void force() {
+        try {
+            file.force();
+        } catch (IOException e) {
+            // Written events stay with the operating system; the next force tries again.
+        }
+    }
+
+    private static Counter dropped(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("account.audit.dropped")
+                .description("Audit events lost before reaching the audit file")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
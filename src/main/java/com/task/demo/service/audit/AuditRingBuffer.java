@@ -0,0 +1,145 @@
+package com.task.demo.service.audit;
+
+import com.task.demo.service.metrics.AccountMetrics.Operation;
+import com.task.demo.service.metrics.AccountMetrics.Outcome;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer, single-consumer queue of {@link AuditEvent}s over a pre-allocated array
+ * of slots. Producers claim the next sequence with a compare-and-set, fill the slot it maps to and
+ * publish it by writing the sequence into the slot; the consumer reads slots in sequence order and
+ * stops at the first one not published yet. Nothing is allocated or locked on either side.
+ * <p>
+ * A producer may only claim a sequence whose slot the consumer has released, so the buffer holds
+ * at most {@code capacity} events. When it is full, {@link OverflowMode#DROP} rejects the event
+ * and {@link OverflowMode#BLOCK} waits for the consumer to make room.
+ * <p>
+ * {@link #close()} sets a bit in the claim counter, so no sequence can be claimed afterwards and
+ * waiting producers give up; the consumer then knows exactly which events are still to come.
+ */
+public final class AuditRingBuffer {
+
+    public enum OverflowMode {
+        /**
+         * Reject the event, so request threads never wait for the audit writer.
+         */
+        DROP,
+        /**
+         * Wait until the consumer frees a slot, so no event is lost while the writer keeps up eventually.
+         */
+        BLOCK
+    }
+
+    private static final long BLOCK_WAIT_NANOS = 50_000;
+    private static final long CLOSED = 1L << 62;
+
+    private final AuditEvent[] slots;
+    private final int mask;
+    private final OverflowMode overflowMode;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+
+    public AuditRingBuffer(int capacity, OverflowMode overflowMode) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Audit buffer size must be a power of two");
+        }
+        this.slots = new AuditEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new AuditEvent();
+        }
+        this.mask = capacity - 1;
+        this.overflowMode = overflowMode;
+    }
+
+    /**
+     * Adds an event for the consumer.
+     *
+     * @return {@code false} when the buffer was full or closed and the event was dropped
+     */
+    public boolean publish(long timestamp, Operation operation, Outcome outcome, String accountNumber,
+                           String targetAccountNumber, BigDecimal amount, String message) {
+        long sequence = claim();
+        if (sequence < 0) {
+            return false;
+        }
+        AuditEvent slot = slots[(int) sequence & mask];
+        slot.set(timestamp, operation, outcome, accountNumber, targetAccountNumber, amount, message);
+        slot.sequence = sequence;
+        return true;
+    }
+
+    /**
+     * Passes up to {@code maxEvents} published events to {@code handler} in sequence order and
+     * releases their slots. Must only be called from the consumer thread.
+     *
+     * @return the number of events handled
+     */
+    public int drain(Consumer<AuditEvent> handler, int maxEvents) {
+        long next = consumed;
+        int count = 0;
+        try {
+            while (count < maxEvents) {
+                AuditEvent slot = slots[(int) next & mask];
+                if (slot.sequence != next) {
+                    break;
+                }
+                try {
+                    handler.accept(slot);
+                } finally {
+                    slot.clear();
+                    next++;
+                    count++;
+                }
+            }
+        } finally {
+            consumed = next;
+        }
+        return count;
+    }
+
+    /**
+     * Events claimed by producers and not yet released by the consumer.
+     */
+    public long size() {
+        return (claimed.get() & ~CLOSED) - consumed;
+    }
+
+    /**
+     * Refuses every later event. Events claimed before are still published and drained.
+     */
+    public void close() {
+        claimed.getAndUpdate(sequence -> sequence | CLOSED);
+    }
+
+    public boolean isClosed() {
+        return (claimed.get() & CLOSED) != 0;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Returns the claimed sequence, or -1 when the buffer is closed, or full and events are dropped.
+     */
+    private long claim() {
+        while (true) {
+            long sequence = claimed.get();
+            if ((sequence & CLOSED) != 0) {
+                return -1;
+            }
+            if (sequence - consumed >= slots.length) {
+                if (overflowMode == OverflowMode.DROP) {
+                    return -1;
+                }
+                LockSupport.parkNanos(this, BLOCK_WAIT_NANOS);
+            } else if (claimed.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.task.demo.service.audit;
+
+import com.task.demo.service.metrics.AccountMetrics.Operation;
+
+import java.math.BigDecimal;
+
+/**
+ * The operation a request asked for, for auditing it when the request is refused before it reaches
+ * the service, which audits the operations it runs itself. Batch transfers and imports are audited
+ * without account numbers or amounts.
+ */
+public record AuditedOperation(Operation operation, String accountNumber, String targetAccountNumber, BigDecimal amount) {
+
+    public static AuditedOperation create(String accountNumber, BigDecimal initialBalance) {
+        return new AuditedOperation(Operation.CREATE, accountNumber, null, initialBalance);
+    }
+
+    public static AuditedOperation deposit(String accountNumber, BigDecimal amount) {
+        return new AuditedOperation(Operation.DEPOSIT, accountNumber, null, amount);
+    }
+
+    public static AuditedOperation withdraw(String accountNumber, BigDecimal amount) {
+        return new AuditedOperation(Operation.WITHDRAW, accountNumber, null, amount);
+    }
+
+    public static AuditedOperation transfer(String sourceAccountNumber, String targetAccountNumber, BigDecimal amount) {
+        return new AuditedOperation(Operation.TRANSFER, sourceAccountNumber, targetAccountNumber, amount);
+    }
+}
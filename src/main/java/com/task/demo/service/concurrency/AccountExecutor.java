@@ -0,0 +1,15 @@
+package com.task.demo.service.concurrency;
+
+import com.task.demo.exception.NotFoundException;
+
+import java.util.Collection;
+
+/**
+ * Runs a unit of work with exclusive access to the given accounts.
+ * Implementations decide how concurrent requests for the same account are
+ * ordered, queued or rejected.
+ */
+public interface AccountExecutor {
+
+    <T> T execute(Collection<String> accountNumbers, AccountTask<T> task) throws NotFoundException;
+}
@@ -0,0 +1,8 @@
+package com.task.demo.service.concurrency;
+
+import com.task.demo.exception.NotFoundException;
+
+@FunctionalInterface
+public interface AccountTask<T> {
+    T run() throws NotFoundException;
+}
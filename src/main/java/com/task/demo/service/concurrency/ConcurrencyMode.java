@@ -0,0 +1,22 @@
+package com.task.demo.service.concurrency;
+
+public enum ConcurrencyMode {
+    /**
+     * Per-account {@link java.util.concurrent.locks.ReentrantLock}s from the {@link LockProvider} chosen
+     * by {@code account.lock.strategy}, taken in canonical order; a contended request waits up to
+     * {@code account.lock.wait-timeout} and is then rejected.
+     */
+    LOCK,
+    /**
+     * Per-account mailbox that queues requests and runs them one by one on a virtual thread.
+     */
+    SEQUENCER,
+    /**
+     * No in-process exclusion; balances change through conditional single-statement updates.
+     */
+    DB_ATOMIC,
+    /**
+     * No in-process exclusion; version checks detect conflicting updates, which are retried.
+     */
+    OPTIMISTIC
+}
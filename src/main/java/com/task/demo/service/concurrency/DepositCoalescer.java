@@ -0,0 +1,183 @@
+package com.task.demo.service.concurrency;
+
+import com.task.demo.entity.Account;
+import com.task.demo.exception.NotFoundException;
+import com.task.demo.exception.TransactionException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Group commit of deposits into designated hot accounts. Instead of taking the account one
+ * deposit at a time, concurrent deposits are queued in a lock-free queue per account and a single
+ * virtual thread applies them together: it waits {@code window} after the first deposit of a
+ * burst for more to arrive, then applies up to {@code maxBatch} queued deposits as one balance
+ * update and one commit, and repeats while deposits keep coming in. Deposits that arrive during a
+ * commit form the next group, so the group size grows with the load.
+ * <p>
+ * Each caller gets the account as it was right after its own deposit, with the version the group
+ * commit left on the row: the group updates it once, so all of its deposits share that version, as
+ * their ledger entries share the commit. A group fails or succeeds as
+ * a whole, and every caller in it gets the same failure. A caller whose deposit has not been
+ * picked up within {@code waitTimeout} withdraws it and is rejected; once picked up it waits for
+ * the outcome.
+ */
+public class DepositCoalescer {
+
+    /**
+     * Applies the deposits to the account in order, in one transaction with exclusive access to it,
+     * and returns the account afterwards. {@code requestIds} holds the request id of each deposit.
+     */
+    @FunctionalInterface
+    public interface GroupDeposit {
+        Account apply(String accountNumber, long[] amounts, String[] requestIds) throws NotFoundException;
+    }
+
+    private final Map<String, Combiner> combiners;
+    private final ThreadFactory threadFactory = Thread.ofVirtual().name("deposit-coalescer-", 0).factory();
+    private final long windowNanos;
+    private final int maxBatch;
+    private final long waitTimeoutNanos;
+    private final GroupDeposit groupDeposit;
+    private final DistributionSummary groupSizes;
+
+    public DepositCoalescer(Set<String> accountNumbers, Duration window, int maxBatch, Duration waitTimeout,
+                            GroupDeposit groupDeposit, MeterRegistry meterRegistry) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("Coalescing batch size must be positive");
+        }
+        this.combiners = accountNumbers.stream().collect(Collectors.toUnmodifiableMap(Function.identity(), Combiner::new));
+        this.windowNanos = window.toNanos();
+        this.maxBatch = maxBatch;
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+        this.groupDeposit = groupDeposit;
+        this.groupSizes = DistributionSummary.builder("account.coalescing.group.size")
+                .description("Deposits applied per group commit of a hot account")
+                .register(meterRegistry);
+    }
+
+    public boolean isHot(String accountNumber) {
+        return combiners.containsKey(accountNumber);
+    }
+
+    /**
+     * Queues a deposit into a hot account and waits for the group commit that applies it.
+     */
+    public Account deposit(String accountNumber, long amount, String requestId) throws NotFoundException {
+        Combiner combiner = combiners.get(accountNumber);
+        if (combiner == null) {
+            throw new IllegalArgumentException(String.format("Account with number %s is not coalesced", accountNumber));
+        }
+        Credit credit = new Credit(amount, requestId, new CompletableFuture<>());
+        combiner.pending.offer(credit);
+        if (combiner.draining.compareAndSet(false, true)) {
+            threadFactory.newThread(combiner::drain).start();
+        }
+        return await(combiner, credit);
+    }
+
+    private Account await(Combiner combiner, Credit credit) throws NotFoundException {
+        try {
+            try {
+                return credit.result().get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (combiner.pending.remove(credit)) {
+                    throw new TransactionException(String.format("Timed out waiting for account with number %s", combiner.accountNumber));
+                }
+                // Already part of a group: its outcome is decided, so report it rather than a timeout.
+                return credit.result().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransactionException(String.format("Interrupted while waiting for account with number %s", combiner.accountNumber), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof NotFoundException notFoundException) {
+                throw notFoundException;
+            } else if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private final class Combiner {
+
+        private final String accountNumber;
+        private final ConcurrentLinkedQueue<Credit> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Combiner(String accountNumber) {
+            this.accountNumber = accountNumber;
+        }
+
+        /**
+         * Applies groups until the queue is empty. The flag is cleared before the final check, so a
+         * deposit queued after that check starts a new drainer instead of being left behind.
+         */
+        private void drain() {
+            do {
+                if (windowNanos > 0) {
+                    LockSupport.parkNanos(windowNanos);
+                }
+                List<Credit> group = new ArrayList<>();
+                for (Credit credit = pending.poll(); credit != null; credit = pending.poll()) {
+                    group.add(credit);
+                    if (group.size() == maxBatch) {
+                        apply(group);
+                        group = new ArrayList<>();
+                    }
+                }
+                if (!group.isEmpty()) {
+                    apply(group);
+                }
+                draining.set(false);
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private void apply(List<Credit> group) {
+            long[] amounts = new long[group.size()];
+            String[] requestIds = new String[group.size()];
+            for (int i = 0; i < amounts.length; i++) {
+                amounts[i] = group.get(i).amount();
+                requestIds[i] = group.get(i).requestId();
+            }
+            groupSizes.record(amounts.length);
+            Account account;
+            try {
+                account = groupDeposit.apply(accountNumber, amounts, requestIds);
+            } catch (Throwable e) {
+                for (Credit credit : group) {
+                    credit.result().completeExceptionally(e);
+                }
+                return;
+            }
+            // Walk back from the final balance to the balance each caller's deposit left behind.
+            long balance = account.getBalanceMinorUnits();
+            for (int i = group.size() - 1; i >= 0; i--) {
+                group.get(i).result().complete(new Account(account.getId(), accountNumber, balance, account.getVersion()));
+                balance -= amounts[i];
+            }
+        }
+    }
+
+    private record Credit(long amount, String requestId, CompletableFuture<Account> result) {
+    }
+}
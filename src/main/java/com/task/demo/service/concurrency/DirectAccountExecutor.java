@@ -0,0 +1,17 @@
+package com.task.demo.service.concurrency;
+
+import com.task.demo.exception.NotFoundException;
+
+import java.util.Collection;
+
+/**
+ * Runs work on the calling thread without any in-process exclusion, for balance services that
+ * rely on the database alone to serialize concurrent updates.
+ */
+public class DirectAccountExecutor implements AccountExecutor {
+
+    @Override
+    public <T> T execute(Collection<String> accountNumbers, AccountTask<T> task) throws NotFoundException {
+        return task.run();
+    }
+}
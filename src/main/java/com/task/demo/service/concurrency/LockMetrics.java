@@ -0,0 +1,50 @@
+package com.task.demo.service.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wait and hold time histograms and a failure counter for one account exclusion mechanism, tagged
+ * {@code lock=<name>}. Meters are registered once, so recording does not allocate.
+ */
+public final class LockMetrics {
+
+    private final Timer wait;
+    private final Timer hold;
+    private final Counter failures;
+
+    public LockMetrics(MeterRegistry meterRegistry, String lock) {
+        this.wait = histogram("account.lock.wait", "Time spent waiting for exclusive access to accounts", lock, meterRegistry);
+        this.hold = histogram("account.lock.hold", "Time exclusive access to accounts was held", lock, meterRegistry);
+        this.failures = Counter.builder("account.lock.failures")
+                .description("Operations rejected because exclusive access to accounts was not obtained")
+                .tag("lock", lock)
+                .register(meterRegistry);
+    }
+
+    public void recordWait(long nanos) {
+        wait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordHold(long nanos) {
+        hold.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordFailure() {
+        failures.increment();
+    }
+
+    private static Timer histogram(String name, String description, String lock, MeterRegistry meterRegistry) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("lock", lock)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(1_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,22 @@
+package com.task.demo.service.concurrency;
+
+import java.util.Comparator;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out the lock guarding an account. Every {@link #obtain} must be paired with a
+ * {@link #release} once the caller has unlocked, so providers can drop locks nobody holds.
+ */
+public interface LockProvider {
+
+    ReentrantLock obtain(String accountNumber);
+
+    void release(String accountNumber);
+
+    /**
+     * Order in which the locks of several accounts must be taken to rule out deadlocks.
+     */
+    default Comparator<String> acquisitionOrder() {
+        return Comparator.naturalOrder();
+    }
+}
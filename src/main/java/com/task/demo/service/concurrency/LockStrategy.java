@@ -0,0 +1,12 @@
+package com.task.demo.service.concurrency;
+
+public enum LockStrategy {
+    /**
+     * Fixed power-of-two array of locks shared by hash of the account number.
+     */
+    STRIPED,
+    /**
+     * One lock per account, removed as soon as no request references it.
+     */
+    REF_COUNTED
+}
@@ -0,0 +1,43 @@
+package com.task.demo.service.concurrency;
+
+import com.task.demo.exception.NotFoundException;
+import com.task.demo.exception.TransactionException;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Runs work while holding the locks of all involved accounts, waiting up to the configured
+ * timeout for them. A zero timeout rejects contended requests immediately.
+ */
+public class LockingAccountExecutor implements AccountExecutor {
+
+    private final LockProvider lockProvider;
+    private final long waitTimeoutNanos;
+    private final LockMetrics lockMetrics;
+
+    public LockingAccountExecutor(LockProvider lockProvider, Duration waitTimeout, LockMetrics lockMetrics) {
+        this.lockProvider = lockProvider;
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+        this.lockMetrics = lockMetrics;
+    }
+
+    @Override
+    public <T> T execute(Collection<String> accountNumbers, AccountTask<T> task) throws NotFoundException {
+        long started = System.nanoTime();
+        MultiAccountLock lock;
+        try {
+            lock = MultiAccountLock.acquire(lockProvider, accountNumbers, waitTimeoutNanos);
+        } catch (TransactionException e) {
+            lockMetrics.recordFailure();
+            throw e;
+        }
+        long acquired = System.nanoTime();
+        lockMetrics.recordWait(acquired - started);
+        try (lock) {
+            return task.run();
+        } finally {
+            lockMetrics.recordHold(System.nanoTime() - acquired);
+        }
+    }
+}
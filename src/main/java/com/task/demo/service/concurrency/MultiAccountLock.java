@@ -0,0 +1,72 @@
+package com.task.demo.service.concurrency;
+
+import com.task.demo.exception.TransactionException;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the locks of several accounts at once. Locks are always taken in the provider's
+ * {@link LockProvider#acquisitionOrder() acquisition order}, so any number of concurrent holders,
+ * whatever order their callers listed the accounts in, can only wait on each other in one
+ * direction and never deadlock. Acquisition gives up once the shared deadline has passed.
+ */
+public final class MultiAccountLock implements AutoCloseable {
+
+    private final LockProvider lockProvider;
+    private final Deque<HeldLock> held;
+
+    private MultiAccountLock(LockProvider lockProvider, int size) {
+        this.lockProvider = lockProvider;
+        this.held = new ArrayDeque<>(size);
+    }
+
+    public static MultiAccountLock acquire(LockProvider lockProvider, Collection<String> accountNumbers, long timeoutNanos) {
+        List<String> ordered = accountNumbers.stream().distinct().sorted(lockProvider.acquisitionOrder()).toList();
+        MultiAccountLock multiLock = new MultiAccountLock(lockProvider, ordered.size());
+        long deadline = System.nanoTime() + timeoutNanos;
+        try {
+            for (String accountNumber : ordered) {
+                multiLock.lock(accountNumber, deadline);
+            }
+            return multiLock;
+        } catch (RuntimeException e) {
+            multiLock.close();
+            throw e;
+        }
+    }
+
+    private void lock(String accountNumber, long deadline) {
+        ReentrantLock lock = lockProvider.obtain(accountNumber);
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (!locked) {
+                lockProvider.release(accountNumber);
+            }
+        }
+        if (!locked) {
+            throw new TransactionException(String.format("Account with number %s has a transaction in progress", accountNumber));
+        }
+        held.push(new HeldLock(accountNumber, lock));
+    }
+
+    @Override
+    public void close() {
+        while (!held.isEmpty()) {
+            HeldLock heldLock = held.pop();
+            heldLock.lock().unlock();
+            lockProvider.release(heldLock.accountNumber());
+        }
+    }
+
+    private record HeldLock(String accountNumber, ReentrantLock lock) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.task.demo.service.concurrency;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps a dedicated lock per account only while requests reference it, so the table holds at most
+ * one entry per account with work in flight.
+ */
+public class RefCountedLockProvider implements LockProvider {
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public ReentrantLock obtain(String accountNumber) {
+        return entries.compute(accountNumber, (key, entry) -> {
+            Entry current = entry == null ? new Entry() : entry;
+            current.references++;
+            return current;
+        }).lock;
+    }
+
+    @Override
+    public void release(String accountNumber) {
+        entries.computeIfPresent(accountNumber, (key, entry) -> --entry.references == 0 ? null : entry);
+    }
+
+    private static final class Entry {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int references;
+    }
+}
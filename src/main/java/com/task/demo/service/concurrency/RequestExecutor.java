@@ -0,0 +1,81 @@
+package com.task.demo.service.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs request handling off the servlet threads, on a fixed pool with a bounded queue. The pool
+ * size bounds the requests working on locks and JDBC at once; the queue absorbs short bursts.
+ * <p>
+ * Work is refused rather than piled up: a task is rejected when the queue is full, and a queued
+ * task that has not started within the queue timeout is dropped, since its client is likely to
+ * have given up. Either way its future fails with a {@link RejectedExecutionException}, counted
+ * as {@code account.async.rejected}.
+ */
+public class RequestExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long queueTimeoutNanos;
+    private final Counter rejections;
+
+    public RequestExecutor(int threads, int queueCapacity, Duration queueTimeout, MeterRegistry meterRegistry) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Request threads must be positive");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Request queue capacity must be positive");
+        }
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), Thread.ofPlatform().name("account-request-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        Gauge.builder("account.async.queued", executor, pool -> pool.getQueue().size())
+                .description("Requests waiting for a request thread")
+                .register(meterRegistry);
+        Gauge.builder("account.async.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Requests being handled on a request thread")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("account.async.rejected")
+                .description("Requests refused because the request threads were saturated")
+                .register(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long queued = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                if (System.nanoTime() - queued > queueTimeoutNanos) {
+                    reject(future, new RejectedExecutionException("Request waited too long for a request thread"));
+                    return;
+                }
+                try {
+                    future.complete(task.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            reject(future, e);
+        }
+        return future;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void reject(CompletableFuture<?> future, RejectedExecutionException e) {
+        rejections.increment();
+        future.completeExceptionally(e);
+    }
+}
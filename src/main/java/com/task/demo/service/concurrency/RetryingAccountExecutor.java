@@ -0,0 +1,65 @@
+package com.task.demo.service.concurrency;
+
+import com.task.demo.exception.NotFoundException;
+import com.task.demo.exception.TransactionException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs work without in-process exclusion and relies on the {@link com.task.demo.entity.Account}
+ * version column to detect concurrent updates. A task that loses the race is run again from
+ * scratch, in a new transaction, after an exponential backoff with full jitter.
+ */
+public class RetryingAccountExecutor implements AccountExecutor {
+
+    private final int maxAttempts;
+    private final long backoffNanos;
+    private final long maxBackoffNanos;
+    private final Counter retries;
+    private final Counter exhausted;
+
+    public RetryingAccountExecutor(int maxAttempts, Duration backoff, Duration maxBackoff, MeterRegistry meterRegistry) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Optimistic max attempts must be positive");
+        }
+        this.maxAttempts = maxAttempts;
+        this.backoffNanos = backoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        this.retries = Counter.builder("account.optimistic.retries")
+                .description("Operations re-run after an optimistic locking conflict")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("account.optimistic.exhausted")
+                .description("Operations rejected after running out of optimistic retries")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public <T> T execute(Collection<String> accountNumbers, AccountTask<T> task) throws NotFoundException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return task.run();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt == maxAttempts) {
+                    exhausted.increment();
+                    throw new TransactionException(String.format("Accounts %s were concurrently modified, please retry", accountNumbers), e);
+                }
+                retries.increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffNanos, backoffNanos << Math.min(attempt - 1, 30));
+        if (ceiling > 0) {
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        }
+    }
+}
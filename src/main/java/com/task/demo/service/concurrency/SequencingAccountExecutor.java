@@ -0,0 +1,136 @@
+package com.task.demo.service.concurrency;
+
+import com.task.demo.exception.NotFoundException;
+import com.task.demo.exception.TransactionException;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Serializes work per account through a bounded mailbox. The first task submitted to an idle
+ * account starts a virtual thread that drains the mailbox in submission order and exits, removing
+ * the mailbox, once it is empty. Callers wait for their own task up to the configured deadline and
+ * are rejected only when the mailbox is full or the task has not started before the deadline.
+ * <p>
+ * Work spanning several accounts enters their mailboxes one after another in account number order,
+ * so two multi-account tasks can never wait on each other.
+ */
+public class SequencingAccountExecutor implements AccountExecutor {
+
+    private final ConcurrentMap<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ThreadFactory threadFactory = Thread.ofVirtual().name("account-sequencer-", 0).factory();
+    private final int queueCapacity;
+    private final long waitTimeoutNanos;
+    private final LockMetrics lockMetrics;
+
+    public SequencingAccountExecutor(int queueCapacity, Duration waitTimeout, LockMetrics lockMetrics) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Sequencer queue capacity must be positive");
+        }
+        this.queueCapacity = queueCapacity;
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+        this.lockMetrics = lockMetrics;
+    }
+
+    @Override
+    public <T> T execute(Collection<String> accountNumbers, AccountTask<T> task) throws NotFoundException {
+        List<String> ordered = accountNumbers.stream().distinct().sorted().toList();
+        long started = System.nanoTime();
+        return runInOrder(ordered, 0, task, started, started + waitTimeoutNanos);
+    }
+
+    private <T> T runInOrder(List<String> accountNumbers, int index, AccountTask<T> task, long started, long deadline) throws NotFoundException {
+        if (index == accountNumbers.size()) {
+            long running = System.nanoTime();
+            lockMetrics.recordWait(running - started);
+            try {
+                return task.run();
+            } finally {
+                lockMetrics.recordHold(System.nanoTime() - running);
+            }
+        }
+        String accountNumber = accountNumbers.get(index);
+        FutureTask<T> future = new FutureTask<>(() -> runInOrder(accountNumbers, index + 1, task, started, deadline));
+        submit(accountNumber, future);
+        return await(future, accountNumber, deadline);
+    }
+
+    private void submit(String accountNumber, Runnable task) {
+        boolean[] started = new boolean[1];
+        boolean[] rejected = new boolean[1];
+        mailboxes.compute(accountNumber, (key, mailbox) -> {
+            if (mailbox == null) {
+                started[0] = true;
+                return new Mailbox();
+            }
+            if (mailbox.waiting.size() >= queueCapacity) {
+                rejected[0] = true;
+            } else {
+                mailbox.waiting.add(task);
+            }
+            return mailbox;
+        });
+        if (rejected[0]) {
+            lockMetrics.recordFailure();
+            throw new TransactionException(String.format("Account with number %s has too many pending transactions", accountNumber));
+        }
+        if (started[0]) {
+            threadFactory.newThread(() -> drain(accountNumber, task)).start();
+        }
+    }
+
+    private void drain(String accountNumber, Runnable first) {
+        Runnable[] next = {first};
+        while (next[0] != null) {
+            next[0].run();
+            mailboxes.computeIfPresent(accountNumber, (key, mailbox) -> {
+                next[0] = mailbox.waiting.poll();
+                return next[0] == null ? null : mailbox;
+            });
+        }
+    }
+
+    private <T> T await(FutureTask<T> future, String accountNumber, long deadline) throws NotFoundException {
+        try {
+            try {
+                return future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (future.cancel(false)) {
+                    lockMetrics.recordFailure();
+                    throw new TransactionException(String.format("Timed out waiting for account with number %s", accountNumber));
+                }
+                // Already running: the outcome is decided, so report it rather than a timeout.
+                return future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            lockMetrics.recordFailure();
+            throw new TransactionException(String.format("Interrupted while waiting for account with number %s", accountNumber), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof NotFoundException notFoundException) {
+                throw notFoundException;
+            } else if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static final class Mailbox {
+        private final Queue<Runnable> waiting = new ArrayDeque<>();
+    }
+}
@@ -0,0 +1,47 @@
+package com.task.demo.service.concurrency;
+
+import java.util.Comparator;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Maps account numbers onto a fixed array of locks, so memory does not depend on the number of
+ * accounts. Unrelated accounts may share a stripe; locks are reentrant, so a request touching two
+ * accounts on the same stripe still succeeds. Because of that sharing, multi-account acquisition is
+ * ordered by stripe rather than by account number.
+ */
+public class StripedLockProvider implements LockProvider {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public StripedLockProvider(int stripeCount) {
+        if (stripeCount < 1 || stripeCount > 1 << 30) {
+            throw new IllegalArgumentException("Stripe count must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new ReentrantLock[Math.max(size, 1)];
+        this.mask = stripes.length - 1;
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public ReentrantLock obtain(String accountNumber) {
+        return stripes[stripeIndex(accountNumber)];
+    }
+
+    @Override
+    public void release(String accountNumber) {
+    }
+
+    @Override
+    public Comparator<String> acquisitionOrder() {
+        return Comparator.comparingInt(this::stripeIndex).thenComparing(Comparator.naturalOrder());
+    }
+
+    private int stripeIndex(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,60 @@
+package com.task.demo.service.concurrency;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket holding up to {@code burst} tokens, refilled at {@code ratePerSecond}, kept as a
+ * single {@link AtomicLong} following the generic cell rate algorithm: instead of a token count it
+ * stores the theoretical arrival time, the instant at which the bucket would be full again. Taking
+ * a token moves that instant one emission interval later, with a compare-and-set, so callers never
+ * block and the bucket needs no refill timer.
+ */
+public final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double ratePerSecond, int burst) {
+        this(ratePerSecond, burst, System.nanoTime());
+    }
+
+    /**
+     * @param now the {@link System#nanoTime()} reading the bucket starts full at; callers that read
+     *            the clock once per request pass that reading, so the bucket is never newer than it
+     */
+    public TokenBucket(double ratePerSecond, int burst, long now) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Token bucket rate and burst must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (Duration.ofSeconds(1).toNanos() / ratePerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    /**
+     * Takes a token if one is available at {@code now}, a {@link System#nanoTime()} reading.
+     *
+     * @return zero when a token was taken, otherwise the nanoseconds until one becomes available
+     */
+    public long tryAcquire(long now) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long wait = arrival - burstToleranceNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, Math.max(arrival, now) + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns a token taken by {@link #tryAcquire(long)} for a request that was not admitted after all.
+     */
+    public void release() {
+        theoreticalArrival.addAndGet(-emissionIntervalNanos);
+    }
+}
@@ -0,0 +1,28 @@
+package com.task.demo.service.event;
+
+import com.task.demo.entity.LedgerEntry;
+import com.task.demo.entity.LedgerEntryType;
+
+/**
+ * Published for every ledger entry, inside the transaction that wrote it: the opening of an
+ * account or a change of its balance. {@code amount} is signed as in the ledger and
+ * {@code balance} is the balance right after the change, both in minor units; {@code version} is
+ * the version of the account row once the transaction commits, so changes of one account can be
+ * ordered even when their listeners run out of order. Listeners that must only see committed state
+ * use {@code @TransactionalEventListener}.
+ */
+public record BalanceChangedEvent(long accountId, String accountNumber, LedgerEntryType type, long amount, long balance,
+                                  long version) {
+
+    public static BalanceChangedEvent of(LedgerEntry entry, long accountId, long version) {
+        return new BalanceChangedEvent(accountId, entry.getAccountNumber(), entry.getType(), entry.getAmountMinorUnits(),
+                entry.getBalanceMinorUnits(), version);
+    }
+
+    /**
+     * The balance right before the change; zero for an opening.
+     */
+    public long previousBalance() {
+        return balance - amount;
+    }
+}
@@ -0,0 +1,66 @@
+package com.task.demo.service.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.task.demo.entity.Account;
+import com.task.demo.service.event.BalanceChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of accounts by account number. Entries are dropped as soon as a
+ * change to the account commits; the time-to-live only bounds staleness for changes made by other
+ * instances sharing the database. Hit, miss and eviction counts are published as {@code cache.*}
+ * metrics tagged {@code cache=accounts}.
+ *
+ * <p>Misses are loaded on a virtual thread while callers wait on the pending future. A synchronous
+ * Caffeine load would run the database query inside the map's bin lock, pinning the carrier of a
+ * virtual-thread caller for the whole query.
+ */
+@Component
+public class AccountCache {
+
+    private final AsyncCache<String, Account> cache;
+
+    @Autowired
+    public AccountCache(@Value("${account.cache.maximum-size:100000}") long maximumSize,
+                        @Value("${account.cache.expire-after-write:30s}") Duration expireAfterWrite,
+                        MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .executor(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("account-cache-", 0).factory()))
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "accounts");
+    }
+
+    public Account get(String accountNumber, Function<String, Account> loader) {
+        try {
+            return cache.get(accountNumber, loader).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        cache.synchronous().invalidate(event.accountNumber());
+    }
+}
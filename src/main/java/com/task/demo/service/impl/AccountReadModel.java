@@ -0,0 +1,115 @@
+package com.task.demo.service.impl;
+
+import com.task.demo.entity.Account;
+import com.task.demo.repository.AccountRepository;
+import com.task.demo.repository.sharding.ShardRouter;
+import com.task.demo.service.event.BalanceChangedEvent;
+import com.task.demo.service.memory.AccountProjection;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Read side of the JPA engine: looking up and listing accounts is served from an
+ * {@link AccountProjection} on the heap, so reads take no database connection and leave the pool
+ * to the writes.
+ * <p>
+ * The projection is loaded from every shard at startup and then follows each change committed
+ * through this instance as soon as it commits. Changes it cannot see, made by other instances
+ * sharing the database, are picked up by reloading it every {@code account.read-model.refresh-interval}.
+ * While the last completed reload started more than {@code account.read-model.max-staleness} ago,
+ * such as while the database is unreachable, {@link #isFresh()} is false and reads go to the
+ * database instead.
+ */
+public class AccountReadModel implements SmartInitializingSingleton {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final AccountProjection projection = new AccountProjection(INITIAL_CAPACITY);
+    private final AccountRepository accountRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long maxStalenessNanos;
+    private volatile long refreshedAt;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public AccountReadModel(AccountRepository accountRepository, ShardRouter shardRouter,
+                            PlatformTransactionManager transactionManager, Duration maxStaleness,
+                            MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.shardRouter = shardRouter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        // Stale until the first reload has completed.
+        this.refreshedAt = System.nanoTime() - maxStalenessNanos - 1;
+        Gauge.builder("account.read-model.accounts", projection, AccountProjection::size)
+                .description("Accounts held by the read model")
+                .register(meterRegistry);
+        Gauge.builder("account.read-model.age", this, model -> (System.nanoTime() - model.refreshedAt) / 1e9)
+                .description("Time since the last completed reload of the read model started")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        refresh();
+    }
+
+    public boolean isFresh() {
+        return System.nanoTime() - refreshedAt <= maxStalenessNanos;
+    }
+
+    public Account get(String accountNumber) {
+        return projection.get(accountNumber);
+    }
+
+    /**
+     * Up to {@code limit} accounts with an id above {@code afterId}, in id order: the order of
+     * listing accounts from the database.
+     */
+    public List<Account> page(long afterId, int limit) {
+        return projection.page(afterId, limit);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        projection.apply(event.accountId(), event.accountNumber(), event.balance(), event.version());
+    }
+
+    /**
+     * Streams the accounts of every shard into the projection, one read-only transaction per
+     * shard. Rows whose version the projection already holds are skipped without taking its lock.
+     */
+    @Scheduled(initialDelayString = "${account.read-model.refresh-interval:10s}",
+            fixedDelayString = "${account.read-model.refresh-interval:10s}")
+    public void refresh() {
+        long started = System.nanoTime();
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            shardRouter.onShard(shard, () -> readOnlyTransaction.execute(status -> {
+                try (Stream<Account> accounts = accountRepository.streamAllOrderById()) {
+                    accounts.forEach(account -> {
+                        projection.applyIfNewer(account.getId(), account.getAccountNumber(),
+                                account.getBalanceMinorUnits(), account.getVersion());
+                        entityManager.detach(account);
+                    });
+                }
+                return null;
+            }));
+        }
+        refreshedAt = started;
+    }
+}
@@ -0,0 +1,62 @@
+package com.task.demo.service.impl;
+
+import com.task.demo.entity.Money;
+import com.task.demo.exception.TransactionException;
+import com.task.demo.payload.request.CreateAccountRequest;
+import com.task.demo.payload.request.TransferRequest;
+import com.task.demo.service.Transfer;
+import org.apache.coyote.BadRequestException;
+
+import java.math.BigDecimal;
+
+/**
+ * Request validation shared by the account service implementations.
+ */
+final class AccountRequests {
+
+    private AccountRequests() {
+    }
+
+    /**
+     * Checks a new account and returns its initial balance in minor units.
+     */
+    static long validateNewAccount(CreateAccountRequest request) throws BadRequestException {
+        if (request.getAccountNumber() == null || request.getAccountNumber().isEmpty()) {
+            throw new BadRequestException("Account number must not be empty");
+        }
+        if (request.getInitialBalance() == null) {
+            throw new BadRequestException("Initial balance must not be empty");
+        }
+        return toMinorUnits(request.getInitialBalance());
+    }
+
+    static Transfer validateTransfer(TransferRequest request) throws BadRequestException {
+        String sourceAccountNumber = request.getSourceAccountNumber();
+        String targetAccountNumber = request.getTargetAccountNumber();
+        if(sourceAccountNumber == null || targetAccountNumber == null) {
+            throw new BadRequestException("Source and target account number must not be empty");
+        }
+        long amount = toPositiveMinorUnits(request.getAmount(), "Transfer amount must be positive number");
+
+        if (sourceAccountNumber.equals(targetAccountNumber)) {
+            throw new TransactionException("Invalid request parameters");
+        }
+        return new Transfer(sourceAccountNumber, targetAccountNumber, amount);
+    }
+
+    static long toPositiveMinorUnits(BigDecimal amount, String notPositiveMessage) throws BadRequestException {
+        if (amount == null || amount.signum() <= 0) {
+            throw new BadRequestException(notPositiveMessage);
+        }
+        return toMinorUnits(amount);
+    }
+
+    static long toMinorUnits(BigDecimal amount) throws BadRequestException {
+        try {
+            return Money.toMinorUnits(amount);
+        } catch (ArithmeticException e) {
+            throw new BadRequestException(String.format("Amount %s must have at most %d decimal places and fit the supported range",
+                    amount.toPlainString(), Money.scale()));
+        }
+    }
+}
@@ -1,169 +1,576 @@
 package com.task.demo.service.impl;
 
 import com.task.demo.entity.Account;
+import com.task.demo.entity.LedgerEntry;
+import com.task.demo.entity.LedgerEntryType;
+import com.task.demo.entity.Money;
 import com.task.demo.exception.NotFoundException;
 import com.task.demo.exception.TransactionException;
+import com.task.demo.repository.AccountBulkRepository;
 import com.task.demo.repository.AccountRepository;
+import com.task.demo.repository.LedgerEntryRepository;
+import com.task.demo.repository.sharding.ShardRouter;
+import com.task.demo.payload.request.AccountImportRow;
 import com.task.demo.payload.request.CreateAccountRequest;
 import com.task.demo.payload.request.TransactionRequest;
 import com.task.demo.payload.request.TransferRequest;
+import com.task.demo.payload.response.AccountImportResult;
+import com.task.demo.payload.response.AccountPage;
+import com.task.demo.payload.response.AccountStats;
+import com.task.demo.payload.response.LedgerPage;
+import com.task.demo.payload.response.TransferResult;
 import com.task.demo.service.IAccountService;
+import com.task.demo.service.IBalanceService;
+import com.task.demo.service.IdempotencyContext;
+import com.task.demo.service.LedgerExport;
+import com.task.demo.service.NewAccount;
+import com.task.demo.service.Transfer;
+import com.task.demo.service.audit.AuditLog;
+import com.task.demo.service.concurrency.AccountExecutor;
+import com.task.demo.service.concurrency.DepositCoalescer;
+import com.task.demo.service.event.BalanceChangedEvent;
+import com.task.demo.service.metrics.AccountMetrics;
+import com.task.demo.service.metrics.AccountMetrics.Operation;
+import com.task.demo.service.metrics.AccountStatistics;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.apache.coyote.BadRequestException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.ConstraintViolationException.ConstraintKind;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Validates requests and runs the balance mutations through the configured {@link AccountExecutor}.
+ * Each mutation opens its own transaction inside the executor, so the next operation on the same
+ * account only starts after the previous one has committed. Deposits into hot accounts go through
+ * the {@link DepositCoalescer} instead and commit in groups.
+ */
 @Service
+@ConditionalOnProperty(name = "account.engine", havingValue = "jpa", matchIfMissing = true)
 public class AccountService implements IAccountService {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final Instant END_OF_TIME = Instant.parse("9999-12-31T23:59:59Z");
+
     private final AccountRepository accountRepository;
-    private Map<String, ReentrantLock> lockMap = new ConcurrentHashMap<>();
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final IBalanceService balanceService;
+    private final AccountExecutor accountExecutor;
+    private final DepositCoalescer depositCoalescer;
+    private final AccountCache accountCache;
+    private final AccountReadModel readModel;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AccountMetrics accountMetrics;
+    private final AuditLog auditLog;
+    private final AccountStatistics accountStatistics;
+    private final AccountBulkRepository accountBulkRepository;
+    private final ShardRouter shardRouter;
+    private final CrossShardTransfers crossShardTransfers;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int batchChunkSize;
+    private final int importChunkSize;
+    private final int maxReportedImportFailures;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
-    public AccountService(AccountRepository accountRepository) {
+    public AccountService(AccountRepository accountRepository, LedgerEntryRepository ledgerEntryRepository,
+                          IBalanceService balanceService, AccountExecutor accountExecutor, DepositCoalescer depositCoalescer, AccountCache accountCache, Optional<AccountReadModel> readModel, ApplicationEventPublisher eventPublisher, AccountMetrics accountMetrics, AuditLog auditLog,
+                          AccountStatistics accountStatistics, AccountBulkRepository accountBulkRepository, ShardRouter shardRouter,
+                          CrossShardTransfers crossShardTransfers, PlatformTransactionManager transactionManager,
+                          @Value("${account.batch.chunk-size:500}") int batchChunkSize,
+                          @Value("${account.import.chunk-size:1000}") int importChunkSize,
+                          @Value("${account.import.max-reported-failures:1000}") int maxReportedImportFailures) {
         this.accountRepository = accountRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.balanceService = balanceService;
+        this.accountExecutor = accountExecutor;
+        this.depositCoalescer = depositCoalescer;
+        this.accountCache = accountCache;
+        this.readModel = readModel.orElse(null);
+        this.eventPublisher = eventPublisher;
+        this.accountMetrics = accountMetrics;
+        this.auditLog = auditLog;
+        this.accountStatistics = accountStatistics;
+        this.accountBulkRepository = accountBulkRepository;
+        this.shardRouter = shardRouter;
+        this.crossShardTransfers = crossShardTransfers;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.batchChunkSize = batchChunkSize;
+        this.importChunkSize = importChunkSize;
+        this.maxReportedImportFailures = maxReportedImportFailures;
     }
 
     @Override
-    @Transactional
-    public Account createAccount(CreateAccountRequest request) {
-        String accountNumber = request.getAccountNumber();
-        Account existedAccount = accountRepository.findByAccountNumber(accountNumber);
-        if (existedAccount != null) {
-            throw new TransactionException(String.format("Account with number %s already exists", accountNumber));
+    public Account createAccount(CreateAccountRequest request) throws BadRequestException {
+        long started = System.nanoTime();
+        try {
+            Account account = create(request);
+            accountMetrics.record(Operation.CREATE, started, null);
+            auditLog.record(Operation.CREATE, request.getAccountNumber(), null, request.getInitialBalance(), null);
+            return account;
+        } catch (RuntimeException | BadRequestException e) {
+            accountMetrics.record(Operation.CREATE, started, e);
+            auditLog.record(Operation.CREATE, request.getAccountNumber(), null, request.getInitialBalance(), e);
+            throw e;
         }
-        Account account = new Account(accountNumber, request.getInitialBalance());
-        return accountRepository.save(account);
     }
 
+    /**
+     * Relies on the unique constraint on the account number instead of looking the account up
+     * first: the insert is flushed right away so a duplicate fails here and rolls back. The
+     * transaction begins only once the account's shard is selected.
+     */
+    private Account create(CreateAccountRequest request) throws BadRequestException {
+        String accountNumber = request.getAccountNumber();
+        long initialBalance = AccountRequests.validateNewAccount(request);
+        return shardRouter.onShardOf(accountNumber, () -> transaction.execute(status -> {
+            Account account;
+            try {
+                account = accountRepository.saveAndFlush(new Account(accountNumber, initialBalance));
+            } catch (DataIntegrityViolationException e) {
+                if (isDuplicateKey(e)) {
+                    throw new TransactionException(String.format("Account with number %s already exists", accountNumber));
+                }
+                throw e;
+            }
+            LedgerEntry opening = ledgerEntryRepository.save(LedgerEntry.opening(account));
+            eventPublisher.publishEvent(BalanceChangedEvent.of(opening, account.getId(), account.getVersion()));
+            return account;
+        }));
+    }
+
+    /**
+     * Imports accounts in chunks of {@code account.import.chunk-size}, each inserted in one
+     * batched transaction. Duplicates are found by the unique constraint rather than a lookup per
+     * row: a chunk that violates it is split in halves and retried until the offending rows are
+     * isolated, so a clean chunk costs one batched insert and each duplicate a logarithmic number
+     * of retries. Only one chunk is held in memory at a time; its rows go to their shards in one
+     * batch per shard.
+     */
     @Override
-    public Account getAccount(String accountNumber) {
-        return accountRepository.findByAccountNumber(accountNumber);
+    public AccountImportResult importAccounts(Iterator<AccountImportRow> rows) {
+        AccountImportResult result = new AccountImportResult(maxReportedImportFailures);
+        List<NewAccount> chunk = new ArrayList<>(importChunkSize);
+        while (rows.hasNext()) {
+            AccountImportRow row = rows.next();
+            if (row.error() != null) {
+                recordImportFailure(result, row.line(), null, null, HttpStatus.BAD_REQUEST, row.error());
+                continue;
+            }
+            try {
+                long initialBalance = AccountRequests.validateNewAccount(row.request());
+                chunk.add(new NewAccount(row.line(), row.request().getAccountNumber(), initialBalance));
+            } catch (BadRequestException e) {
+                recordImportFailure(result, row.line(), row.request().getAccountNumber(), row.request().getInitialBalance(),
+                        HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+            if (chunk.size() == importChunkSize) {
+                insertImported(chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertImported(chunk, result);
+        }
+        return result;
+    }
+
+    private void insertImported(List<NewAccount> accounts, AccountImportResult result) {
+        Map<Integer, List<NewAccount>> accountsByShard = accounts.stream()
+                .collect(Collectors.groupingBy(account -> shardRouter.shardOf(account.accountNumber())));
+        accountsByShard.forEach((shard, shardAccounts) -> shardRouter.onShard(shard, () -> {
+            insertBisecting(shardAccounts, result);
+            return null;
+        }));
     }
 
+    private void insertBisecting(List<NewAccount> accounts, AccountImportResult result) {
+        try {
+            List<Account> inserted = accountBulkRepository.insertAll(accounts);
+            result.recordImported(accounts.size());
+            for (Account account : inserted) {
+                auditLog.recordItem(Operation.CREATE, account.getAccountNumber(), null, account.getBalance(),
+                        HttpStatus.CREATED, null);
+                eventPublisher.publishEvent(new BalanceChangedEvent(account.getId(), account.getAccountNumber(),
+                        LedgerEntryType.OPENING, account.getBalanceMinorUnits(), account.getBalanceMinorUnits(),
+                        account.getVersion()));
+            }
+        } catch (DataIntegrityViolationException e) {
+            if (accounts.size() > 1) {
+                int middle = accounts.size() / 2;
+                insertBisecting(accounts.subList(0, middle), result);
+                insertBisecting(accounts.subList(middle, accounts.size()), result);
+            } else if (isDuplicateKey(e)) {
+                NewAccount account = accounts.get(0);
+                recordImportFailure(result, account.line(), account.accountNumber(), Money.toDecimal(account.initialBalance()),
+                        HttpStatus.CONFLICT, String.format("Account with number %s already exists", account.accountNumber()));
+            } else {
+                NewAccount account = accounts.get(0);
+                recordImportFailure(result, account.line(), account.accountNumber(), Money.toDecimal(account.initialBalance()),
+                        HttpStatus.BAD_REQUEST, e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    private void recordImportFailure(AccountImportResult result, long line, String accountNumber, BigDecimal initialBalance,
+                                     HttpStatus status, String message) {
+        result.recordFailure(line, accountNumber, status, message);
+        auditLog.recordItem(Operation.CREATE, accountNumber, null, initialBalance, status, message);
+    }
+
+    private static boolean isDuplicateKey(DataIntegrityViolationException e) {
+        return e instanceof DuplicateKeyException
+                || e.getCause() instanceof ConstraintViolationException violation && violation.getKind() == ConstraintKind.UNIQUE;
+    }
+
+    /**
+     * Served from the {@link AccountReadModel} when it is enabled and fresh, otherwise through the
+     * {@link AccountCache}.
+     */
     @Override
-    public List<Account> listAccounts() {
-        return accountRepository.findAll();
+    public Account getAccount(String accountNumber) {
+        if (readModel != null && readModel.isFresh()) {
+            return readModel.get(accountNumber);
+        }
+        return accountCache.get(accountNumber,
+                key -> shardRouter.onShardOf(key, () -> accountRepository.findByAccountNumber(key)));
     }
 
-    @Transactional
-    public Account deposit(String accountNumber, TransactionRequest request) throws NotFoundException, BadRequestException {
-        if(accountNumber == null) {
-            throw new BadRequestException("Account number must not be empty");
+    /**
+     * Keyset pagination ordered by id: the cursor is the id of the last account of the previous
+     * page, so every page costs one index range scan however deep the client has paged. Ids order
+     * accounts by shard first, so a page continues on the next shard when the current one runs out.
+     * A fresh {@link AccountReadModel} serves the page from memory in the same order.
+     */
+    @Override
+    public AccountPage listAccounts(String cursor, int limit) throws BadRequestException {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException(String.format("Page limit must be between 1 and %d", MAX_PAGE_SIZE));
         }
-        if(request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new BadRequestException("Deposit amount must be positive number");
+        long afterId;
+        try {
+            afterId = cursor == null ? 0 : Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid page cursor");
         }
 
-        Account account = accountRepository.findByAccountNumber(accountNumber);
-        if (account == null) {
-            accountNotFoundException(accountNumber);
+        List<Account> accounts;
+        if (readModel != null && readModel.isFresh()) {
+            accounts = readModel.page(afterId, limit + 1);
+        } else {
+            accounts = new ArrayList<>(limit + 1);
+            for (int shard = ShardRouter.shardOfId(afterId); shard < shardRouter.shardCount() && accounts.size() <= limit; shard++) {
+                Limit remaining = Limit.of(limit + 1 - accounts.size());
+                accounts.addAll(shardRouter.onShard(shard, () -> accountRepository.findByIdGreaterThanOrderByIdAsc(afterId, remaining)));
+            }
+        }
+        if (accounts.size() <= limit) {
+            return new AccountPage(accounts, null);
         }
+        List<Account> page = accounts.subList(0, limit);
+        return new AccountPage(page, String.valueOf(page.get(limit - 1).getId()));
+    }
 
-        ReentrantLock lock = getLock(accountNumber);
-        if (!lock.tryLock()) {
-            transactionInProgressException(accountNumber);
+    /**
+     * Streams all accounts in id order to the sink, one read-only transaction per shard. Each
+     * account is detached once written, so the persistence context stays empty and heap use does
+     * not grow with the table.
+     */
+    @Override
+    public void exportAccounts(Consumer<Account> sink) {
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            shardRouter.onShard(shard, () -> readOnlyTransaction.execute(status -> {
+                try (Stream<Account> accounts = accountRepository.streamAllOrderById()) {
+                    accounts.forEach(account -> {
+                        sink.accept(account);
+                        entityManager.detach(account);
+                    });
+                }
+                return null;
+            }));
         }
+    }
 
+    @Override
+    public Account deposit(String accountNumber, TransactionRequest request) throws NotFoundException, BadRequestException {
+        long started = System.nanoTime();
         try {
-            account.deposit(request.getAmount());
-            return accountRepository.save(account);
-        } finally {
-            lock.unlock();
+            Account account = executeDeposit(accountNumber, request);
+            accountMetrics.record(Operation.DEPOSIT, started, null);
+            auditLog.record(Operation.DEPOSIT, accountNumber, null, request.getAmount(), null);
+            return account;
+        } catch (RuntimeException | NotFoundException | BadRequestException e) {
+            accountMetrics.record(Operation.DEPOSIT, started, e);
+            auditLog.record(Operation.DEPOSIT, accountNumber, null, request.getAmount(), e);
+            throw e;
         }
     }
 
-    private ReentrantLock getLock(String accountNumber) {
-        return lockMap.computeIfAbsent(accountNumber, key -> new ReentrantLock());
+    private Account executeDeposit(String accountNumber, TransactionRequest request) throws NotFoundException, BadRequestException {
+        if(accountNumber == null) {
+            throw new BadRequestException("Account number must not be empty");
+        }
+        long amount = AccountRequests.toPositiveMinorUnits(request.getAmount(), "Deposit amount must be positive number");
+
+        String requestId = IdempotencyContext.currentKey();
+
+        accountMetrics.recordAccess(accountNumber);
+        if (depositCoalescer.isHot(accountNumber)) {
+            return depositCoalescer.deposit(accountNumber, amount, requestId);
+        }
+        return accountExecutor.execute(List.of(accountNumber),
+                () -> shardRouter.onShardOf(accountNumber, () -> balanceService.deposit(accountNumber, amount, requestId)));
     }
 
     @Override
-    @Transactional
     public Account withdraw(String accountNumber, TransactionRequest request) throws NotFoundException, BadRequestException {
+        long started = System.nanoTime();
+        try {
+            Account account = executeWithdrawal(accountNumber, request);
+            accountMetrics.record(Operation.WITHDRAW, started, null);
+            auditLog.record(Operation.WITHDRAW, accountNumber, null, request.getAmount(), null);
+            return account;
+        } catch (RuntimeException | NotFoundException | BadRequestException e) {
+            accountMetrics.record(Operation.WITHDRAW, started, e);
+            auditLog.record(Operation.WITHDRAW, accountNumber, null, request.getAmount(), e);
+            throw e;
+        }
+    }
+
+    private Account executeWithdrawal(String accountNumber, TransactionRequest request) throws NotFoundException, BadRequestException {
         if(accountNumber == null) {
             throw new BadRequestException("Account number must not be empty");
         }
-        if(request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new BadRequestException("Withdrawal amount must be positive number");
-        }
+        long amount = AccountRequests.toPositiveMinorUnits(request.getAmount(), "Withdrawal amount must be positive number");
+        String requestId = IdempotencyContext.currentKey();
 
-        Account account = accountRepository.findByAccountNumber(accountNumber);
-        if (account == null) {
-            accountNotFoundException(accountNumber);
-        }
-        ReentrantLock lock = getLock(accountNumber);
-        if (!lock.tryLock()) {
-            transactionInProgressException(accountNumber);
-        }
+        accountMetrics.recordAccess(accountNumber);
+        return accountExecutor.execute(List.of(accountNumber),
+                () -> shardRouter.onShardOf(accountNumber, () -> balanceService.withdraw(accountNumber, amount, requestId)));
+    }
 
+    @Override
+    public void transfer(TransferRequest request) throws NotFoundException, BadRequestException {
+        long started = System.nanoTime();
         try {
-            account.withdraw(request.getAmount());
-            return accountRepository.save(account);
-        } finally {
-            lock.unlock();
+            executeTransfer(request);
+            accountMetrics.record(Operation.TRANSFER, started, null);
+            auditLog.record(Operation.TRANSFER, request.getSourceAccountNumber(), request.getTargetAccountNumber(),
+                    request.getAmount(), null);
+        } catch (RuntimeException | NotFoundException | BadRequestException e) {
+            accountMetrics.record(Operation.TRANSFER, started, e);
+            auditLog.record(Operation.TRANSFER, request.getSourceAccountNumber(), request.getTargetAccountNumber(),
+                    request.getAmount(), e);
+            throw e;
         }
     }
 
-    @Transactional
-    public void transfer(TransferRequest request) throws NotFoundException, BadRequestException {
-        String sourceAccountNumber = request.getSourceAccountNumber();
-        String targetAccountNumber = request.getTargetAccountNumber();
-        if(sourceAccountNumber == null || targetAccountNumber == null) {
-            throw new BadRequestException("Source and target account number must not be empty");
-        }
-        if(request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new BadRequestException("Transfer amount must be positive number");
+    private void executeTransfer(TransferRequest request) throws NotFoundException, BadRequestException {
+        Transfer transfer = AccountRequests.validateTransfer(request);
+        String requestId = IdempotencyContext.currentKey();
+
+        accountMetrics.recordAccess(transfer.sourceAccountNumber());
+        accountMetrics.recordAccess(transfer.targetAccountNumber());
+        if (!shardRouter.sameShard(transfer.sourceAccountNumber(), transfer.targetAccountNumber())) {
+            crossShardTransfers.transfer(transfer, requestId);
+            return;
         }
+        accountExecutor.execute(List.of(transfer.sourceAccountNumber(), transfer.targetAccountNumber()),
+                () -> shardRouter.onShardOf(transfer.sourceAccountNumber(), () -> {
+                    balanceService.transfer(transfer.sourceAccountNumber(), transfer.targetAccountNumber(), transfer.amount(),
+                            requestId);
+                    return null;
+                }));
+    }
 
-        if (sourceAccountNumber.equals(targetAccountNumber)) {
-            throw new TransactionException("Invalid request parameters");
+    /**
+     * Validates every transfer up front, then applies the valid ones in request order, in chunks of
+     * {@code account.batch.chunk-size}. Each chunk holds all of its accounts through the executor and
+     * commits as one transaction, so a failing chunk only affects its own transfers. A chunk only
+     * spans transfers within one shard; a transfer between shards ends the chunk and runs on its own.
+     */
+    @Override
+    public List<TransferResult> transferBatch(List<TransferRequest> requests) {
+        TransferResult[] results = new TransferResult[requests.size()];
+        List<Integer> pendingIndexes = new ArrayList<>(requests.size());
+        List<Transfer> pendingTransfers = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                pendingTransfers.add(AccountRequests.validateTransfer(requests.get(i)));
+                pendingIndexes.add(i);
+            } catch (BadRequestException e) {
+                results[i] = TransferResult.failed(HttpStatus.BAD_REQUEST, e.getMessage());
+            } catch (TransactionException e) {
+                results[i] = TransferResult.failed(HttpStatus.CONFLICT, e.getMessage());
+            }
         }
 
-        Account sourceAccount = accountRepository.findByAccountNumber(sourceAccountNumber);
-        Account targetAccount = accountRepository.findByAccountNumber(targetAccountNumber);
+        int from = 0;
+        while (from < pendingTransfers.size()) {
+            Transfer first = pendingTransfers.get(from);
+            if (!shardRouter.sameShard(first.sourceAccountNumber(), first.targetAccountNumber())) {
+                results[pendingIndexes.get(from++)] = transferAcrossShards(first);
+                continue;
+            }
+            int shard = shardRouter.shardOf(first.sourceAccountNumber());
+            int to = from + 1;
+            while (to < pendingTransfers.size() && to - from < batchChunkSize
+                    && isWithinShard(pendingTransfers.get(to), shard)) {
+                to++;
+            }
+            List<Transfer> transfers = pendingTransfers.subList(from, to);
+            Set<String> accountNumbers = new HashSet<>();
+            for (Transfer transfer : transfers) {
+                accountNumbers.add(transfer.sourceAccountNumber());
+                accountNumbers.add(transfer.targetAccountNumber());
+                accountMetrics.recordAccess(transfer.sourceAccountNumber());
+                accountMetrics.recordAccess(transfer.targetAccountNumber());
+            }
 
-        if (sourceAccount == null || targetAccount == null) {
-            accountNotFoundException(sourceAccount == null ? sourceAccountNumber : targetAccountNumber);
+            List<TransferResult> chunkResults;
+            try {
+                chunkResults = accountExecutor.execute(accountNumbers,
+                        () -> shardRouter.onShard(shard, () -> balanceService.transferAll(transfers)));
+            } catch (TransactionException e) {
+                chunkResults = Collections.nCopies(transfers.size(), TransferResult.failed(HttpStatus.CONFLICT, e.getMessage()));
+            } catch (Exception e) {
+                chunkResults = Collections.nCopies(transfers.size(), TransferResult.failed(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage()));
+            }
+            for (int i = 0; i < transfers.size(); i++) {
+                results[pendingIndexes.get(from + i)] = chunkResults.get(i);
+            }
+            from = to;
         }
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequest request = requests.get(i);
+            auditLog.recordItem(Operation.TRANSFER, request.getSourceAccountNumber(), request.getTargetAccountNumber(),
+                    request.getAmount(), results[i].getStatus(), results[i].getMessage());
+        }
+        return Arrays.asList(results);
+    }
 
-        ReentrantLock sourceLock = getLock(sourceAccountNumber);
-        ReentrantLock targetLock = getLock(targetAccountNumber);
-        boolean sourceLockAcquired = false;
-        boolean targetLockAcquired = false;
+    private boolean isWithinShard(Transfer transfer, int shard) {
+        return shardRouter.shardOf(transfer.sourceAccountNumber()) == shard
+                && shardRouter.shardOf(transfer.targetAccountNumber()) == shard;
+    }
 
+    private TransferResult transferAcrossShards(Transfer transfer) {
+        accountMetrics.recordAccess(transfer.sourceAccountNumber());
+        accountMetrics.recordAccess(transfer.targetAccountNumber());
         try {
-            sourceLockAcquired = sourceLock.tryLock();
-            targetLockAcquired = targetLock.tryLock();
+            crossShardTransfers.transfer(transfer, null);
+            return TransferResult.ok();
+        } catch (NotFoundException e) {
+            return TransferResult.failed(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (TransactionException e) {
+            return TransferResult.failed(HttpStatus.CONFLICT, e.getMessage());
+        } catch (Exception e) {
+            return TransferResult.failed(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+        }
+    }
 
-            if (!sourceLockAcquired || !targetLockAcquired) {
-                transactionInProgressException(sourceLockAcquired ? sourceAccountNumber : targetAccountNumber);
-            }
+    @Override
+    public Optional<Boolean> isApplied(String accountNumber, String requestId) {
+        return Optional.of(shardRouter.onShardOf(accountNumber, () -> ledgerEntryRepository.existsByRequestId(requestId)));
+    }
 
-            sourceAccount.withdraw(request.getAmount());
-            targetAccount.deposit(request.getAmount());
+    /**
+     * Read from the figures kept by {@link AccountStatistics}, without querying any shard.
+     */
+    @Override
+    public AccountStats getStats() {
+        return accountStatistics.snapshot();
+    }
 
-            accountRepository.save(sourceAccount);
-            accountRepository.save(targetAccount);
-        } finally {
-            if (targetLockAcquired) {
-                targetLock.unlock();
+    /**
+     * Keyset pagination over the ledger of one account in {@code [from, to)}, ordered by creation
+     * time and id. The cursor is the creation time, in microseconds since the epoch, and the id of
+     * the last entry of the previous page, served from the (account, time) index at any depth.
+     */
+    @Override
+    public LedgerPage listTransactions(String accountNumber, Instant from, Instant to, String cursor, int limit)
+            throws NotFoundException, BadRequestException {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException(String.format("Page limit must be between 1 and %d", MAX_PAGE_SIZE));
+        }
+        Instant rangeStart = from == null ? Instant.EPOCH : from;
+        Instant afterCreatedAt = rangeStart;
+        long afterId = 0;
+        if (cursor != null) {
+            try {
+                int separator = cursor.indexOf('_');
+                afterCreatedAt = Instant.EPOCH.plus(Long.parseLong(cursor.substring(0, separator)), ChronoUnit.MICROS);
+                afterId = Long.parseLong(cursor.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new BadRequestException("Invalid page cursor");
             }
-            if (sourceLockAcquired) {
-                sourceLock.unlock();
+        }
+        Instant rangeEnd = to == null ? END_OF_TIME : to;
+        Instant pageAfterCreatedAt = afterCreatedAt;
+        long pageAfterId = afterId;
+        List<LedgerEntry> entries = shardRouter.onShardOf(accountNumber, () -> {
+            if (!accountRepository.existsByAccountNumber(accountNumber)) {
+                throw new NotFoundException(String.format("Account with number %s does not exist", accountNumber));
             }
+            return ledgerEntryRepository.findPage(accountNumber, rangeStart, rangeEnd, pageAfterCreatedAt, pageAfterId, Limit.of(limit + 1));
+        });
+        if (entries.size() <= limit) {
+            return new LedgerPage(entries, null);
         }
+        List<LedgerEntry> page = entries.subList(0, limit);
+        LedgerEntry last = page.get(limit - 1);
+        return new LedgerPage(page, ChronoUnit.MICROS.between(Instant.EPOCH, last.getCreatedAt()) + "_" + last.getId());
     }
 
-    private static void accountNotFoundException(String accountNumber) throws NotFoundException {
-        throw new NotFoundException(String.format("Account with number %s does not exist", accountNumber));
-    }
-
-    private static void transactionInProgressException(String accountNumber) {
-        throw new TransactionException(String.format("Account with number %s has a transaction in progress", accountNumber));
+    /**
+     * Streams the ledger of one account in {@code [from, to)} to the sink in time order, detaching
+     * each entry once written, like {@link #exportAccounts(Consumer)}.
+     */
+    @Override
+    public LedgerExport exportTransactions(String accountNumber, Instant from, Instant to) throws NotFoundException {
+        if (getAccount(accountNumber) == null) {
+            throw new NotFoundException(String.format("Account with number %s does not exist", accountNumber));
+        }
+        return sink -> shardRouter.onShardOf(accountNumber, () -> readOnlyTransaction.execute(status -> {
+            try (Stream<LedgerEntry> entries = ledgerEntryRepository.streamByAccountNumber(accountNumber,
+                    from == null ? Instant.EPOCH : from, to == null ? END_OF_TIME : to)) {
+                entries.forEach(entry -> {
+                    sink.accept(entry);
+                    entityManager.detach(entry);
+                });
+            }
+            return null;
+        }));
     }
 }
@@ -0,0 +1,75 @@
+package com.task.demo.service.impl;
+
+import com.task.demo.entity.LedgerEntryType;
+import com.task.demo.repository.LedgerEntryRepository;
+import com.task.demo.repository.sharding.ShardRouter;
+import com.task.demo.service.metrics.AccountStatistics;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the {@link AccountStatistics} from the database once, after the schema of every shard is
+ * in place and before the application takes requests. Each shard answers one grouped query over
+ * its accounts, bucketed in the database, and one over its ledger, so startup costs a scan per
+ * table rather than a round trip per row.
+ */
+@Component
+@ConditionalOnProperty(name = "account.engine", havingValue = "jpa", matchIfMissing = true)
+public class AccountStatisticsLoader implements SmartInitializingSingleton {
+
+    private final AccountStatistics accountStatistics;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final ShardRouter shardRouter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public AccountStatisticsLoader(AccountStatistics accountStatistics, LedgerEntryRepository ledgerEntryRepository,
+                                   ShardRouter shardRouter) {
+        this.accountStatistics = accountStatistics;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        load(accountStatistics);
+    }
+
+    /**
+     * Adds the accounts and ledger entries of every shard to {@code statistics}.
+     */
+    public void load(AccountStatistics statistics) {
+        String bucket = bucketExpression(statistics.bucketBounds());
+        String accountsByBucket = "select " + bucket + ", count(a), coalesce(sum(a.balance), 0) from Account a group by " + bucket;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            shardRouter.onShard(shard, () -> {
+                for (Object[] row : entityManager.createQuery(accountsByBucket, Object[].class).getResultList()) {
+                    statistics.addAccounts(((Number) row[0]).intValue(), ((Number) row[1]).longValue(),
+                            ((Number) row[2]).longValue());
+                }
+                for (Object[] row : ledgerEntryRepository.sumAmountsByType()) {
+                    statistics.addEntries((LedgerEntryType) row[0], ((Number) row[1]).longValue(),
+                            ((Number) row[2]).longValue());
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * The same bucketing as {@link AccountStatistics#bucketOf(long)}, as a case expression.
+     */
+    private static String bucketExpression(long[] bounds) {
+        StringBuilder expression = new StringBuilder("case");
+        for (int i = 0; i < bounds.length; i++) {
+            expression.append(" when a.balance < ").append(bounds[i]).append("L then ").append(i);
+        }
+        return expression.append(" else ").append(bounds.length).append(" end").toString();
+    }
+}
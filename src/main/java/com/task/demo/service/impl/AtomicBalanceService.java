@@ -0,0 +1,238 @@
+package com.task.demo.service.impl;
+
+import com.task.demo.entity.Account;
+import com.task.demo.entity.LedgerEntry;
+import com.task.demo.entity.OutboxTransfer;
+import com.task.demo.entity.ReceivedTransfer;
+import com.task.demo.entity.Money;
+import com.task.demo.exception.InsufficientBalanceException;
+import com.task.demo.exception.NotFoundException;
+import com.task.demo.exception.TransactionException;
+import com.task.demo.payload.response.TransferResult;
+import com.task.demo.repository.AccountRepository;
+import com.task.demo.repository.AccountRepository.BalanceUpdate;
+import com.task.demo.repository.LedgerEntryRepository;
+import com.task.demo.repository.OutboxTransferRepository;
+import com.task.demo.repository.ReceivedTransferRepository;
+import com.task.demo.service.IBalanceService;
+import com.task.demo.service.Transfer;
+import com.task.demo.service.event.BalanceChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies every balance change as a single conditional UPDATE, so correctness depends only on the
+ * database row lock and holds across several application instances sharing one database. The
+ * conditions keep the invariants of {@link Account}: a debit needs a covering balance and a credit
+ * must not overflow. An update that changes no row is told apart as a missing account or a refused
+ * change; otherwise the row is read back in the same transaction, held by the update's row lock,
+ * for the new balance and version. Both statements are plain SQL, so any database works.
+ * <p>
+ * Ledger entries are persisted only after the last update of an operation: every native query
+ * flushes pending inserts first, so this keeps them in one batch at commit.
+ */
+public class AtomicBalanceService implements IBalanceService {
+
+    private static final String BALANCE_OUT_OF_RANGE = "Balance exceeds the supported range";
+
+    private final AccountRepository accountRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final OutboxTransferRepository outboxTransferRepository;
+    private final ReceivedTransferRepository receivedTransferRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public AtomicBalanceService(AccountRepository accountRepository, LedgerEntryRepository ledgerEntryRepository,
+                                OutboxTransferRepository outboxTransferRepository,
+                                ReceivedTransferRepository receivedTransferRepository, ApplicationEventPublisher eventPublisher) {
+        this.accountRepository = accountRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.outboxTransferRepository = outboxTransferRepository;
+        this.receivedTransferRepository = receivedTransferRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    @Transactional(rollbackFor = NotFoundException.class)
+    public Account deposit(String accountNumber, long amount, String requestId) throws NotFoundException {
+        BalanceUpdate row = credit(accountNumber, amount);
+        record(List.of(LedgerEntry.deposit(accountNumber, amount, row.getBalance(), requestId)), Map.of(accountNumber, row));
+        return account(accountNumber, row);
+    }
+
+    /**
+     * Credits the sum with one statement and derives the balance after each deposit from the new
+     * balance it returns.
+     */
+    @Override
+    @Transactional(rollbackFor = NotFoundException.class)
+    public Account depositAll(String accountNumber, long[] amounts, String[] requestIds) throws NotFoundException {
+        long total = 0;
+        for (long amount : amounts) {
+            total = Money.add(total, amount);
+        }
+        BalanceUpdate row = credit(accountNumber, total);
+        long balance = Money.subtract(row.getBalance(), total);
+        List<LedgerEntry> entries = new ArrayList<>(amounts.length);
+        for (int i = 0; i < amounts.length; i++) {
+            balance += amounts[i];
+            entries.add(LedgerEntry.deposit(accountNumber, amounts[i], balance, requestIds[i]));
+        }
+        record(entries, Map.of(accountNumber, row));
+        return account(accountNumber, row);
+    }
+
+    @Override
+    @Transactional(rollbackFor = NotFoundException.class)
+    public Account withdraw(String accountNumber, long amount, String requestId) throws NotFoundException {
+        BalanceUpdate row = debit(accountNumber, amount);
+        record(List.of(LedgerEntry.withdrawal(accountNumber, amount, row.getBalance(), requestId)), Map.of(accountNumber, row));
+        return account(accountNumber, row);
+    }
+
+    @Override
+    @Transactional(rollbackFor = NotFoundException.class)
+    public void transfer(String sourceAccountNumber, String targetAccountNumber, long amount, String requestId) throws NotFoundException {
+        // Touch rows in account number order so opposite transfers cannot deadlock in the database.
+        BalanceUpdate source;
+        BalanceUpdate target;
+        if (sourceAccountNumber.compareTo(targetAccountNumber) < 0) {
+            source = debit(sourceAccountNumber, amount);
+            target = credit(targetAccountNumber, amount);
+        } else {
+            target = credit(targetAccountNumber, amount);
+            source = debit(sourceAccountNumber, amount);
+        }
+        record(List.of(
+                LedgerEntry.transferOut(sourceAccountNumber, amount, source.getBalance(), targetAccountNumber, requestId),
+                LedgerEntry.transferIn(targetAccountNumber, amount, target.getBalance(), sourceAccountNumber)),
+                Map.of(sourceAccountNumber, source, targetAccountNumber, target));
+    }
+
+    @Override
+    @Transactional(rollbackFor = NotFoundException.class)
+    public void beginTransfer(String transferId, Transfer transfer, String requestId) throws NotFoundException {
+        BalanceUpdate source = debit(transfer.sourceAccountNumber(), transfer.amount());
+        record(List.of(LedgerEntry.transferOut(transfer.sourceAccountNumber(), transfer.amount(),
+                source.getBalance(), transfer.targetAccountNumber(), requestId)), Map.of(transfer.sourceAccountNumber(), source));
+        outboxTransferRepository.save(new OutboxTransfer(transferId, transfer.sourceAccountNumber(),
+                transfer.targetAccountNumber(), transfer.amount()));
+    }
+
+    /**
+     * Without in-process locking two deliveries of the same transfer can both pass the check; the
+     * unique transfer id then fails the second at commit and rolls its credit back.
+     */
+    @Override
+    @Transactional(rollbackFor = NotFoundException.class)
+    public boolean completeTransfer(String transferId, Transfer transfer) throws NotFoundException {
+        if (receivedTransferRepository.existsByTransferId(transferId)) {
+            return false;
+        }
+        BalanceUpdate target = credit(transfer.targetAccountNumber(), transfer.amount());
+        record(List.of(LedgerEntry.transferIn(transfer.targetAccountNumber(), transfer.amount(),
+                target.getBalance(), transfer.sourceAccountNumber())), Map.of(transfer.targetAccountNumber(), target));
+        receivedTransferRepository.save(new ReceivedTransfer(transferId));
+        return true;
+    }
+
+    /**
+     * Resolves which accounts exist and locks their rows in account number order with one query,
+     * then applies each transfer as a guarded debit followed by a credit. Holding every row before
+     * the first update keeps batches in opposite directions from deadlocking, as the ordered
+     * updates of {@link #transfer} do for single transfers. A transfer whose debit is refused
+     * changes nothing.
+     */
+    @Override
+    @Transactional
+    public List<TransferResult> transferAll(List<Transfer> transfers) {
+        Set<String> accountNumbers = new HashSet<>();
+        for (Transfer transfer : transfers) {
+            accountNumbers.add(transfer.sourceAccountNumber());
+            accountNumbers.add(transfer.targetAccountNumber());
+        }
+        Set<String> existing = new HashSet<>(accountRepository.lockExistingAccountNumbers(accountNumbers));
+
+        List<TransferResult> results = new ArrayList<>(transfers.size());
+        List<LedgerEntry> entries = new ArrayList<>();
+        Map<String, BalanceUpdate> rows = new HashMap<>();
+        for (Transfer transfer : transfers) {
+            if (!existing.contains(transfer.sourceAccountNumber()) || !existing.contains(transfer.targetAccountNumber())) {
+                String missing = existing.contains(transfer.sourceAccountNumber()) ? transfer.targetAccountNumber() : transfer.sourceAccountNumber();
+                results.add(TransferResult.failed(HttpStatus.NOT_FOUND, String.format("Account with number %s does not exist", missing)));
+                continue;
+            }
+            if (accountRepository.debit(transfer.sourceAccountNumber(), transfer.amount()) == 0) {
+                results.add(TransferResult.failed(HttpStatus.CONFLICT, "Insufficient balance"));
+                continue;
+            }
+            if (accountRepository.credit(transfer.targetAccountNumber(), transfer.amount()) == 0) {
+                // Give the debit back; the source held the amount a moment ago, so this cannot overflow.
+                accountRepository.credit(transfer.sourceAccountNumber(), transfer.amount());
+                results.add(TransferResult.failed(HttpStatus.CONFLICT, BALANCE_OUT_OF_RANGE));
+                continue;
+            }
+            BalanceUpdate source = accountRepository.findBalanceUpdate(transfer.sourceAccountNumber());
+            BalanceUpdate target = accountRepository.findBalanceUpdate(transfer.targetAccountNumber());
+            entries.add(LedgerEntry.transferOut(transfer.sourceAccountNumber(), transfer.amount(), source.getBalance(),
+                    transfer.targetAccountNumber(), null));
+            entries.add(LedgerEntry.transferIn(transfer.targetAccountNumber(), transfer.amount(), target.getBalance(),
+                    transfer.sourceAccountNumber()));
+            rows.put(transfer.sourceAccountNumber(), source);
+            rows.put(transfer.targetAccountNumber(), target);
+            results.add(TransferResult.ok());
+        }
+        record(entries, rows);
+        return results;
+    }
+
+    private BalanceUpdate credit(String accountNumber, long amount) throws NotFoundException {
+        if (accountRepository.credit(accountNumber, amount) == 0) {
+            if (!accountRepository.existsByAccountNumber(accountNumber)) {
+                accountNotFoundException(accountNumber);
+            }
+            throw new TransactionException(BALANCE_OUT_OF_RANGE);
+        }
+        return accountRepository.findBalanceUpdate(accountNumber);
+    }
+
+    private BalanceUpdate debit(String accountNumber, long amount) throws NotFoundException {
+        if (accountRepository.debit(accountNumber, amount) == 0) {
+            if (!accountRepository.existsByAccountNumber(accountNumber)) {
+                accountNotFoundException(accountNumber);
+            }
+            throw new InsufficientBalanceException();
+        }
+        return accountRepository.findBalanceUpdate(accountNumber);
+    }
+
+    /**
+     * {@code rows} holds the last update of each account, so every event of an account carries the
+     * version its row has at commit.
+     */
+    private void record(List<LedgerEntry> entries, Map<String, BalanceUpdate> rows) {
+        ledgerEntryRepository.saveAll(entries);
+        for (LedgerEntry entry : entries) {
+            BalanceUpdate row = rows.get(entry.getAccountNumber());
+            eventPublisher.publishEvent(BalanceChangedEvent.of(entry, row.getId(), row.getVersion()));
+        }
+    }
+
+    /**
+     * The account as left by the update, without reading the row again.
+     */
+    private static Account account(String accountNumber, BalanceUpdate row) {
+        return new Account(row.getId(), accountNumber, row.getBalance(), row.getVersion());
+    }
+
+    private static void accountNotFoundException(String accountNumber) throws NotFoundException {
+        throw new NotFoundException(String.format("Account with number %s does not exist", accountNumber));
+    }
+}
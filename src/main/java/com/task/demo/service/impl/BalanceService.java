@@ -0,0 +1,189 @@
+package com.task.demo.service.impl;
+
+import com.task.demo.entity.Account;
+import com.task.demo.entity.LedgerEntry;
+import com.task.demo.entity.OutboxTransfer;
+import com.task.demo.entity.ReceivedTransfer;
+import com.task.demo.exception.NotFoundException;
+import com.task.demo.payload.response.TransferResult;
+import com.task.demo.repository.AccountRepository;
+import com.task.demo.repository.LedgerEntryRepository;
+import com.task.demo.repository.OutboxTransferRepository;
+import com.task.demo.repository.ReceivedTransferRepository;
+import com.task.demo.service.IBalanceService;
+import com.task.demo.service.Transfer;
+import com.task.demo.service.event.BalanceChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-modify-write through the {@link Account} entity. Only safe while the caller's
+ * {@link com.task.demo.service.concurrency.AccountExecutor} keeps other writers of the same account out.
+ * Ledger entries are persisted alongside and inserted in the same flush as the account update.
+ */
+public class BalanceService implements IBalanceService {
+
+    private final AccountRepository accountRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final OutboxTransferRepository outboxTransferRepository;
+    private final ReceivedTransferRepository receivedTransferRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BalanceService(AccountRepository accountRepository, LedgerEntryRepository ledgerEntryRepository,
+                          OutboxTransferRepository outboxTransferRepository,
+                          ReceivedTransferRepository receivedTransferRepository, ApplicationEventPublisher eventPublisher) {
+        this.accountRepository = accountRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.outboxTransferRepository = outboxTransferRepository;
+        this.receivedTransferRepository = receivedTransferRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    @Transactional
+    public Account deposit(String accountNumber, long amount, String requestId) throws NotFoundException {
+        Account account = findAccount(accountNumber);
+        account.deposit(amount);
+        record(account, LedgerEntry.deposit(accountNumber, amount, account.getBalanceMinorUnits(), requestId));
+        return accountRepository.save(account);
+    }
+
+    @Override
+    @Transactional
+    public Account depositAll(String accountNumber, long[] amounts, String[] requestIds) throws NotFoundException {
+        Account account = findAccount(accountNumber);
+        List<LedgerEntry> entries = new ArrayList<>(amounts.length);
+        for (int i = 0; i < amounts.length; i++) {
+            account.deposit(amounts[i]);
+            entries.add(LedgerEntry.deposit(accountNumber, amounts[i], account.getBalanceMinorUnits(), requestIds[i]));
+        }
+        ledgerEntryRepository.saveAll(entries);
+        entries.forEach(entry -> eventPublisher.publishEvent(changed(account, entry)));
+        return accountRepository.save(account);
+    }
+
+    @Override
+    @Transactional
+    public Account withdraw(String accountNumber, long amount, String requestId) throws NotFoundException {
+        Account account = findAccount(accountNumber);
+        account.withdraw(amount);
+        record(account, LedgerEntry.withdrawal(accountNumber, amount, account.getBalanceMinorUnits(), requestId));
+        return accountRepository.save(account);
+    }
+
+    @Override
+    @Transactional
+    public void transfer(String sourceAccountNumber, String targetAccountNumber, long amount, String requestId) throws NotFoundException {
+        Account sourceAccount = findAccount(sourceAccountNumber);
+        Account targetAccount = findAccount(targetAccountNumber);
+
+        sourceAccount.withdraw(amount);
+        targetAccount.deposit(amount);
+
+        accountRepository.save(sourceAccount);
+        accountRepository.save(targetAccount);
+        recordTransfer(sourceAccount, targetAccount, amount, requestId);
+    }
+
+    @Override
+    @Transactional
+    public void beginTransfer(String transferId, Transfer transfer, String requestId) throws NotFoundException {
+        Account sourceAccount = findAccount(transfer.sourceAccountNumber());
+        sourceAccount.withdraw(transfer.amount());
+        accountRepository.save(sourceAccount);
+        record(sourceAccount, LedgerEntry.transferOut(transfer.sourceAccountNumber(), transfer.amount(),
+                sourceAccount.getBalanceMinorUnits(), transfer.targetAccountNumber(), requestId));
+        outboxTransferRepository.save(new OutboxTransfer(transferId, transfer.sourceAccountNumber(),
+                transfer.targetAccountNumber(), transfer.amount()));
+    }
+
+    @Override
+    @Transactional
+    public boolean completeTransfer(String transferId, Transfer transfer) throws NotFoundException {
+        if (receivedTransferRepository.existsByTransferId(transferId)) {
+            return false;
+        }
+        Account targetAccount = findAccount(transfer.targetAccountNumber());
+        targetAccount.deposit(transfer.amount());
+        accountRepository.save(targetAccount);
+        record(targetAccount, LedgerEntry.transferIn(transfer.targetAccountNumber(), transfer.amount(),
+                targetAccount.getBalanceMinorUnits(), transfer.sourceAccountNumber()));
+        receivedTransferRepository.save(new ReceivedTransfer(transferId));
+        return true;
+    }
+
+    /**
+     * Loads every involved account with a single query and mutates the managed entities in memory;
+     * dirty checking then writes each touched account once, batched, at commit.
+     */
+    @Override
+    @Transactional
+    public List<TransferResult> transferAll(List<Transfer> transfers) {
+        Set<String> accountNumbers = new HashSet<>();
+        for (Transfer transfer : transfers) {
+            accountNumbers.add(transfer.sourceAccountNumber());
+            accountNumbers.add(transfer.targetAccountNumber());
+        }
+        Map<String, Account> accounts = accountRepository.findByAccountNumberIn(accountNumbers).stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+
+        List<TransferResult> results = new ArrayList<>(transfers.size());
+        for (Transfer transfer : transfers) {
+            Account sourceAccount = accounts.get(transfer.sourceAccountNumber());
+            Account targetAccount = accounts.get(transfer.targetAccountNumber());
+            if (sourceAccount == null || targetAccount == null) {
+                String missing = sourceAccount == null ? transfer.sourceAccountNumber() : transfer.targetAccountNumber();
+                results.add(TransferResult.failed(HttpStatus.NOT_FOUND, String.format("Account with number %s does not exist", missing)));
+            } else if (sourceAccount.getBalanceMinorUnits() < transfer.amount()) {
+                results.add(TransferResult.failed(HttpStatus.CONFLICT, "Insufficient balance"));
+            } else {
+                sourceAccount.withdraw(transfer.amount());
+                targetAccount.deposit(transfer.amount());
+                recordTransfer(sourceAccount, targetAccount, transfer.amount(), null);
+                results.add(TransferResult.ok());
+            }
+        }
+        return results;
+    }
+
+    private void recordTransfer(Account sourceAccount, Account targetAccount, long amount, String requestId) {
+        record(sourceAccount, LedgerEntry.transferOut(sourceAccount.getAccountNumber(), amount,
+                sourceAccount.getBalanceMinorUnits(), targetAccount.getAccountNumber(), requestId));
+        record(targetAccount, LedgerEntry.transferIn(targetAccount.getAccountNumber(), amount,
+                targetAccount.getBalanceMinorUnits(), sourceAccount.getAccountNumber()));
+    }
+
+    private void record(Account account, LedgerEntry entry) {
+        ledgerEntryRepository.save(entry);
+        eventPublisher.publishEvent(changed(account, entry));
+    }
+
+    /**
+     * Dirty checking writes a changed account once, at the flush before commit, and bumps its
+     * version by one however many entries the transaction recorded for it.
+     */
+    private static BalanceChangedEvent changed(Account account, LedgerEntry entry) {
+        return BalanceChangedEvent.of(entry, account.getId(), account.getVersion() + 1);
+    }
+
+    private Account findAccount(String accountNumber) throws NotFoundException {
+        Account account = accountRepository.findByAccountNumber(accountNumber);
+        if (account == null) {
+            accountNotFoundException(accountNumber);
+        }
+        return account;
+    }
+
+    private static void accountNotFoundException(String accountNumber) throws NotFoundException {
+        throw new NotFoundException(String.format("Account with number %s does not exist", accountNumber));
+    }
+}
@@ -0,0 +1,181 @@
+package com.task.demo.service.impl;
+
+import com.task.demo.entity.OutboxTransfer;
+import com.task.demo.exception.NotFoundException;
+import com.task.demo.repository.AccountRepository;
+import com.task.demo.repository.OutboxTransferRepository;
+import com.task.demo.repository.ReceivedTransferRepository;
+import com.task.demo.repository.sharding.ShardRouter;
+import com.task.demo.service.IBalanceService;
+import com.task.demo.service.Transfer;
+import com.task.demo.service.concurrency.AccountExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Transfers between accounts on different shards, which no single transaction can cover, through
+ * a transactional outbox.
+ * <p>
+ * The source's shard debits the source and stores the credit owed to the target in one
+ * transaction; from then on the transfer is decided and the credit is only a matter of delivery.
+ * The target's shard applies the credit together with a receipt for the transfer id, which makes
+ * delivery idempotent, and the outbox row is deleted afterwards. The request delivers right away;
+ * if that fails, or the process dies in between, the relay finds the row and delivers it again
+ * every {@code account.sharding.outbox.relay-interval}. Every failed delivery is logged and
+ * counted against the row; after {@code account.sharding.outbox.max-attempts} of them the row is
+ * dead-lettered, since a credit that cannot apply (the target is gone, or its balance would
+ * overflow) will not start to. It stays in the outbox, short of the account total, until an
+ * operator settles it.
+ * <p>
+ * Receipts only need to outlive the last delivery of their transfer, so the relay purges those
+ * older than {@code account.sharding.outbox.receipt-retention}, which must exceed the relay
+ * horizon: the relay delay plus one relay interval per attempt.
+ * <p>
+ * Each half holds only its own account through the executor, so a transfer between shards never
+ * waits for two accounts at once.
+ */
+@Component
+public class CrossShardTransfers {
+
+    private static final Logger log = LoggerFactory.getLogger(CrossShardTransfers.class);
+
+    private final AccountRepository accountRepository;
+    private final OutboxTransferRepository outboxTransferRepository;
+    private final ReceivedTransferRepository receivedTransferRepository;
+    private final IBalanceService balanceService;
+    private final AccountExecutor accountExecutor;
+    private final ShardRouter shardRouter;
+    private final Duration relayDelay;
+    private final int relayBatchSize;
+    private final int maxAttempts;
+    private final Duration receiptRetention;
+    private final Counter deliveryFailures;
+    private final Counter deadLettered;
+
+    @Autowired
+    public CrossShardTransfers(AccountRepository accountRepository, OutboxTransferRepository outboxTransferRepository,
+                               ReceivedTransferRepository receivedTransferRepository, IBalanceService balanceService,
+                               AccountExecutor accountExecutor, ShardRouter shardRouter,
+                               @Value("${account.sharding.outbox.relay-delay:5s}") Duration relayDelay,
+                               @Value("${account.sharding.outbox.relay-interval:1s}") Duration relayInterval,
+                               @Value("${account.sharding.outbox.relay-batch-size:500}") int relayBatchSize,
+                               @Value("${account.sharding.outbox.max-attempts:10}") int maxAttempts,
+                               @Value("${account.sharding.outbox.receipt-retention:7d}") Duration receiptRetention,
+                               MeterRegistry meterRegistry) {
+        Duration relayHorizon = relayDelay.plus(relayInterval.multipliedBy(maxAttempts));
+        if (receiptRetention.compareTo(relayHorizon) <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "account.sharding.outbox.receipt-retention must exceed the relay horizon of %s", relayHorizon));
+        }
+        this.accountRepository = accountRepository;
+        this.outboxTransferRepository = outboxTransferRepository;
+        this.receivedTransferRepository = receivedTransferRepository;
+        this.balanceService = balanceService;
+        this.accountExecutor = accountExecutor;
+        this.shardRouter = shardRouter;
+        this.relayDelay = relayDelay;
+        this.relayBatchSize = relayBatchSize;
+        this.maxAttempts = maxAttempts;
+        this.receiptRetention = receiptRetention;
+        this.deliveryFailures = Counter.builder("account.sharding.outbox.delivery.failures")
+                .description("Failed attempts to credit the target of a transfer between shards")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("account.sharding.outbox.dead-lettered")
+                .description("Transfers between shards whose credit the relay gave up on")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Debits the source and credits the target. Once the debit has committed the transfer counts
+     * as executed even if the credit has to wait for the relay.
+     */
+    public void transfer(Transfer transfer, String requestId) throws NotFoundException {
+        String targetAccountNumber = transfer.targetAccountNumber();
+        if (!shardRouter.onShardOf(targetAccountNumber, () -> accountRepository.existsByAccountNumber(targetAccountNumber))) {
+            throw new NotFoundException(String.format("Account with number %s does not exist", targetAccountNumber));
+        }
+        String transferId = UUID.randomUUID().toString();
+        accountExecutor.execute(List.of(transfer.sourceAccountNumber()), () -> shardRouter.onShardOf(transfer.sourceAccountNumber(), () -> {
+            balanceService.beginTransfer(transferId, transfer, requestId);
+            return null;
+        }));
+        try {
+            deliver(transferId, transfer);
+        } catch (RuntimeException | NotFoundException e) {
+            failedDelivery(transferId, transfer, 0, e);
+        }
+    }
+
+    /**
+     * Delivers the outbox rows of every shard that are older than
+     * {@code account.sharding.outbox.relay-delay} and not dead-lettered, giving requests time to
+     * deliver their own, and purges expired receipts. Run every
+     * {@code account.sharding.outbox.relay-interval} when there is more than one shard.
+     */
+    public void relay() {
+        Instant now = Instant.now();
+        Instant createdBefore = now.minus(relayDelay);
+        Instant receivedBefore = now.minus(receiptRetention);
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            List<OutboxTransfer> pending = shardRouter.onShard(shard,
+                    () -> outboxTransferRepository.findByDeadLetteredAtIsNullAndCreatedAtBeforeOrderByCreatedAtAscIdAsc(
+                            createdBefore, Limit.of(relayBatchSize)));
+            for (OutboxTransfer outboxTransfer : pending) {
+                Transfer transfer = new Transfer(outboxTransfer.getSourceAccountNumber(),
+                        outboxTransfer.getTargetAccountNumber(), outboxTransfer.getAmount());
+                try {
+                    deliver(outboxTransfer.getTransferId(), transfer);
+                } catch (RuntimeException | NotFoundException e) {
+                    failedDelivery(outboxTransfer.getTransferId(), transfer, outboxTransfer.getAttempts(), e);
+                }
+            }
+            shardRouter.onShard(shard, () -> receivedTransferRepository.deleteByReceivedAtBefore(receivedBefore));
+        }
+    }
+
+    private void failedDelivery(String transferId, Transfer transfer, int previousAttempts, Exception e) {
+        deliveryFailures.increment();
+        int attempts = previousAttempts + 1;
+        boolean giveUp = attempts >= maxAttempts;
+        try {
+            shardRouter.onShardOf(transfer.sourceAccountNumber(),
+                    () -> outboxTransferRepository.recordFailedDelivery(transferId, attempts, giveUp ? Instant.now() : null));
+        } catch (RuntimeException recordFailure) {
+            e.addSuppressed(recordFailure);
+        }
+        if (giveUp) {
+            deadLettered.increment();
+            log.error("Dead-lettered transfer {} of {} minor units from {} to {} after {} failed deliveries; it needs to be settled by hand",
+                    transferId, transfer.amount(), transfer.sourceAccountNumber(), transfer.targetAccountNumber(), attempts, e);
+        } else {
+            log.warn("Delivery {} of transfer {} to {} failed; the relay retries it", attempts, transferId,
+                    transfer.targetAccountNumber(), e);
+        }
+    }
+
+    private void deliver(String transferId, Transfer transfer) throws NotFoundException {
+        String targetAccountNumber = transfer.targetAccountNumber();
+        try {
+            accountExecutor.execute(List.of(targetAccountNumber),
+                    () -> shardRouter.onShardOf(targetAccountNumber, () -> balanceService.completeTransfer(transferId, transfer)));
+        } catch (DataIntegrityViolationException e) {
+            // Fine if a concurrent delivery of the same transfer committed its receipt first.
+            if (!shardRouter.onShardOf(targetAccountNumber, () -> receivedTransferRepository.existsByTransferId(transferId))) {
+                throw e;
+            }
+        }
+        shardRouter.onShardOf(transfer.sourceAccountNumber(), () -> outboxTransferRepository.deleteByTransferId(transferId));
+    }
+}
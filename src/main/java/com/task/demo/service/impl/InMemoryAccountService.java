@@ -0,0 +1,569 @@
+package com.task.demo.service.impl;
+
+import com.task.demo.entity.Account;
+import com.task.demo.entity.LedgerEntryType;
+import com.task.demo.entity.Money;
+import com.task.demo.exception.InsufficientBalanceException;
+import com.task.demo.exception.NotFoundException;
+import com.task.demo.exception.OutcomeUnknownException;
+import com.task.demo.exception.TransactionException;
+import com.task.demo.payload.request.AccountImportRow;
+import com.task.demo.payload.request.CreateAccountRequest;
+import com.task.demo.payload.request.TransactionRequest;
+import com.task.demo.payload.request.TransferRequest;
+import com.task.demo.payload.response.AccountImportResult;
+import com.task.demo.payload.response.AccountPage;
+import com.task.demo.payload.response.AccountStats;
+import com.task.demo.payload.response.LedgerPage;
+import com.task.demo.payload.response.TransferResult;
+import com.task.demo.service.IAccountService;
+import com.task.demo.service.LedgerExport;
+import com.task.demo.service.NewAccount;
+import com.task.demo.service.Transfer;
+import com.task.demo.service.audit.AuditLog;
+import com.task.demo.service.memory.BalanceTable;
+import com.task.demo.service.memory.Journal;
+import com.task.demo.service.memory.Journal.RecordType;
+import com.task.demo.service.metrics.AccountMetrics;
+import com.task.demo.service.metrics.AccountMetrics.Operation;
+import com.task.demo.service.metrics.AccountStatistics;
+import jakarta.annotation.PreDestroy;
+import org.apache.coyote.BadRequestException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Keeps every balance in a {@link BalanceTable} on the heap instead of the database and makes each
+ * mutation durable through a {@link Journal}, which is replayed on startup to rebuild the table.
+ * Enabled with {@code account.engine=in-memory}.
+ * <p>
+ * Mutations are serialized by the write lock of a {@link StampedLock}. A mutation checks the new
+ * balances, appends its record and updates the table while holding it, so the journal holds the
+ * mutations in the order they were applied. The lock is released before waiting for the group
+ * flush that makes the record durable, so concurrent requests share one fsync. Reads take no lock:
+ * like {@link com.task.demo.service.memory.AccountProjection} they run under an optimistic stamp
+ * and fall back to the read lock only when a mutation overlapped. Reads may already see a mutation
+ * whose flush is still running. With {@code account.journal.await-flush=false} requests do not wait for the flush at
+ * all, and a crash loses the records appended since the last one.
+ * <p>
+ * A failed flush is not rolled back: later mutations may already depend on the ones it covered.
+ * Readers may have seen them, and they are lost on restart unless the segment reached the disk
+ * after all. The journal then refuses further records, and each waiting request fails with an
+ * {@link OutcomeUnknownException}, which keeps its idempotency key claimed instead of letting a
+ * retry apply the change a second time.
+ * <p>
+ * The engine keeps no per-account history: transaction queries and exports are rejected.
+ */
+@Service
+@ConditionalOnProperty(name = "account.engine", havingValue = "in-memory")
+public class InMemoryAccountService implements IAccountService {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final BalanceTable balances = new BalanceTable(1024);
+    private final StampedLock lock = new StampedLock();
+    private final Journal journal;
+    private final AccountMetrics accountMetrics;
+    private final AuditLog auditLog;
+    private final AccountStatistics accountStatistics;
+    private final boolean awaitFlush;
+    private final int batchChunkSize;
+    private final int maxReportedImportFailures;
+
+    @Autowired
+    public InMemoryAccountService(AccountMetrics accountMetrics, AuditLog auditLog, AccountStatistics accountStatistics,
+                                  @Value("${account.journal.directory:journal}") String directory,
+                                  @Value("${account.journal.segment-size:64MB}") DataSize segmentSize,
+                                  @Value("${account.journal.await-flush:true}") boolean awaitFlush,
+                                  @Value("${account.batch.chunk-size:500}") int batchChunkSize,
+                                  @Value("${account.import.max-reported-failures:1000}") int maxReportedImportFailures) throws IOException {
+        this.accountMetrics = accountMetrics;
+        this.auditLog = auditLog;
+        this.accountStatistics = accountStatistics;
+        this.awaitFlush = awaitFlush;
+        this.batchChunkSize = batchChunkSize;
+        this.maxReportedImportFailures = maxReportedImportFailures;
+        this.journal = new Journal(Path.of(directory), Math.toIntExact(segmentSize.toBytes()), this::replay);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        journal.close();
+    }
+
+    @Override
+    public Account createAccount(CreateAccountRequest request) throws BadRequestException {
+        long started = System.nanoTime();
+        try {
+            Account account = create(request);
+            accountMetrics.record(Operation.CREATE, started, null);
+            auditLog.record(Operation.CREATE, request.getAccountNumber(), null, request.getInitialBalance(), null);
+            return account;
+        } catch (RuntimeException | BadRequestException e) {
+            accountMetrics.record(Operation.CREATE, started, e);
+            auditLog.record(Operation.CREATE, request.getAccountNumber(), null, request.getInitialBalance(), e);
+            throw e;
+        }
+    }
+
+    private Account create(CreateAccountRequest request) throws BadRequestException {
+        String accountNumber = request.getAccountNumber();
+        long initialBalance = validateNewAccount(request);
+
+        long position;
+        int id;
+        long stamp = lock.writeLock();
+        try {
+            if (balances.find(accountNumber) != BalanceTable.NO_ACCOUNT) {
+                throw new TransactionException(String.format("Account with number %s already exists", accountNumber));
+            }
+            position = journal.append(RecordType.CREATE, accountNumber, null, initialBalance);
+            id = balances.add(accountNumber, initialBalance);
+            accountStatistics.record(LedgerEntryType.OPENING, initialBalance, initialBalance);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        awaitDurable(position);
+        return new Account((long) id, accountNumber, initialBalance);
+    }
+
+    /**
+     * Creates the accounts of each chunk of {@code account.batch.chunk-size} rows under one lock
+     * acquisition and waits once for the flush covering the last record.
+     */
+    @Override
+    public AccountImportResult importAccounts(Iterator<AccountImportRow> rows) {
+        AccountImportResult result = new AccountImportResult(maxReportedImportFailures);
+        List<NewAccount> chunk = new ArrayList<>(batchChunkSize);
+        long position = 0;
+        while (rows.hasNext()) {
+            AccountImportRow row = rows.next();
+            if (row.error() != null) {
+                recordImportFailure(result, row.line(), null, null, HttpStatus.BAD_REQUEST, row.error());
+                continue;
+            }
+            try {
+                chunk.add(new NewAccount(row.line(), row.request().getAccountNumber(), validateNewAccount(row.request())));
+            } catch (BadRequestException e) {
+                recordImportFailure(result, row.line(), row.request().getAccountNumber(), row.request().getInitialBalance(),
+                        HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+            if (chunk.size() == batchChunkSize) {
+                position = Math.max(position, insertImported(chunk, result));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            position = Math.max(position, insertImported(chunk, result));
+        }
+        awaitDurable(position);
+        return result;
+    }
+
+    private long insertImported(List<NewAccount> accounts, AccountImportResult result) {
+        long position = 0;
+        long stamp = lock.writeLock();
+        try {
+            for (NewAccount account : accounts) {
+                if (balances.find(account.accountNumber()) != BalanceTable.NO_ACCOUNT) {
+                    recordImportFailure(result, account.line(), account.accountNumber(), Money.toDecimal(account.initialBalance()),
+                            HttpStatus.CONFLICT, String.format("Account with number %s already exists", account.accountNumber()));
+                    continue;
+                }
+                position = journal.append(RecordType.CREATE, account.accountNumber(), null, account.initialBalance());
+                balances.add(account.accountNumber(), account.initialBalance());
+                accountStatistics.record(LedgerEntryType.OPENING, account.initialBalance(), account.initialBalance());
+                result.recordImported(1);
+                auditLog.recordItem(Operation.CREATE, account.accountNumber(), null,
+                        Money.toDecimal(account.initialBalance()), HttpStatus.CREATED, null);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return position;
+    }
+
+    private void recordImportFailure(AccountImportResult result, long line, String accountNumber, BigDecimal initialBalance,
+                                     HttpStatus status, String message) {
+        result.recordFailure(line, accountNumber, status, message);
+        auditLog.recordItem(Operation.CREATE, accountNumber, null, initialBalance, status, message);
+    }
+
+    @Override
+    public Account getAccount(String accountNumber) {
+        return read(() -> {
+            int id = balances.find(accountNumber);
+            return id == BalanceTable.NO_ACCOUNT ? null : snapshot(id);
+        });
+    }
+
+    /**
+     * Pages over accounts in id order, with the same cursor format as the database engine.
+     */
+    @Override
+    public AccountPage listAccounts(String cursor, int limit) throws BadRequestException {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException(String.format("Page limit must be between 1 and %d", MAX_PAGE_SIZE));
+        }
+        long afterId;
+        try {
+            afterId = cursor == null ? 0 : Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid page cursor");
+        }
+
+        return read(() -> {
+            int size = balances.size();
+            int first = (int) Math.max(1, Math.min(afterId + 1, size + 1L));
+            int last = Math.min(size, first + limit - 1);
+            List<Account> page = new ArrayList<>(last - first + 1);
+            for (int id = first; id <= last; id++) {
+                page.add(snapshot(id));
+            }
+            return new AccountPage(page, last < size ? String.valueOf(last) : null);
+        });
+    }
+
+    /**
+     * Streams all accounts in id order, copying them out in pages so each page is one consistent read.
+     */
+    @Override
+    public void exportAccounts(Consumer<Account> sink) {
+        for (int first = 1; ; first += MAX_PAGE_SIZE) {
+            int from = first;
+            List<Account> page = read(() -> {
+                int last = Math.min(balances.size(), from + MAX_PAGE_SIZE - 1);
+                List<Account> accounts = new ArrayList<>(Math.max(0, last - from + 1));
+                for (int id = from; id <= last; id++) {
+                    accounts.add(snapshot(id));
+                }
+                return accounts;
+            });
+            if (page.isEmpty()) {
+                return;
+            }
+            page.forEach(sink);
+        }
+    }
+
+    @Override
+    public Account deposit(String accountNumber, TransactionRequest request) throws NotFoundException, BadRequestException {
+        long started = System.nanoTime();
+        try {
+            Account account = executeDeposit(accountNumber, request);
+            accountMetrics.record(Operation.DEPOSIT, started, null);
+            auditLog.record(Operation.DEPOSIT, accountNumber, null, request.getAmount(), null);
+            return account;
+        } catch (RuntimeException | NotFoundException | BadRequestException e) {
+            accountMetrics.record(Operation.DEPOSIT, started, e);
+            auditLog.record(Operation.DEPOSIT, accountNumber, null, request.getAmount(), e);
+            throw e;
+        }
+    }
+
+    private Account executeDeposit(String accountNumber, TransactionRequest request) throws NotFoundException, BadRequestException {
+        if(accountNumber == null) {
+            throw new BadRequestException("Account number must not be empty");
+        }
+        long amount = AccountRequests.toPositiveMinorUnits(request.getAmount(), "Deposit amount must be positive number");
+
+        accountMetrics.recordAccess(accountNumber);
+        long position;
+        Account account;
+        long stamp = lock.writeLock();
+        try {
+            int id = findAccount(accountNumber);
+            long balance = Money.add(balances.balance(id), amount);
+            position = journal.append(RecordType.DEPOSIT, accountNumber, null, amount);
+            balances.setBalance(id, balance);
+            accountStatistics.record(LedgerEntryType.DEPOSIT, amount, balance);
+            account = snapshot(id);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        awaitDurable(position);
+        return account;
+    }
+
+    @Override
+    public Account withdraw(String accountNumber, TransactionRequest request) throws NotFoundException, BadRequestException {
+        long started = System.nanoTime();
+        try {
+            Account account = executeWithdrawal(accountNumber, request);
+            accountMetrics.record(Operation.WITHDRAW, started, null);
+            auditLog.record(Operation.WITHDRAW, accountNumber, null, request.getAmount(), null);
+            return account;
+        } catch (RuntimeException | NotFoundException | BadRequestException e) {
+            accountMetrics.record(Operation.WITHDRAW, started, e);
+            auditLog.record(Operation.WITHDRAW, accountNumber, null, request.getAmount(), e);
+            throw e;
+        }
+    }
+
+    private Account executeWithdrawal(String accountNumber, TransactionRequest request) throws NotFoundException, BadRequestException {
+        if(accountNumber == null) {
+            throw new BadRequestException("Account number must not be empty");
+        }
+        long amount = AccountRequests.toPositiveMinorUnits(request.getAmount(), "Withdrawal amount must be positive number");
+
+        accountMetrics.recordAccess(accountNumber);
+        long position;
+        Account account;
+        long stamp = lock.writeLock();
+        try {
+            int id = findAccount(accountNumber);
+            if (balances.balance(id) < amount) {
+                throw new InsufficientBalanceException();
+            }
+            long balance = Money.subtract(balances.balance(id), amount);
+            position = journal.append(RecordType.WITHDRAW, accountNumber, null, amount);
+            balances.setBalance(id, balance);
+            accountStatistics.record(LedgerEntryType.WITHDRAWAL, -amount, balance);
+            account = snapshot(id);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        awaitDurable(position);
+        return account;
+    }
+
+    @Override
+    public void transfer(TransferRequest request) throws NotFoundException, BadRequestException {
+        long started = System.nanoTime();
+        try {
+            executeTransfer(request);
+            accountMetrics.record(Operation.TRANSFER, started, null);
+            auditLog.record(Operation.TRANSFER, request.getSourceAccountNumber(), request.getTargetAccountNumber(),
+                    request.getAmount(), null);
+        } catch (RuntimeException | NotFoundException | BadRequestException e) {
+            accountMetrics.record(Operation.TRANSFER, started, e);
+            auditLog.record(Operation.TRANSFER, request.getSourceAccountNumber(), request.getTargetAccountNumber(),
+                    request.getAmount(), e);
+            throw e;
+        }
+    }
+
+    private void executeTransfer(TransferRequest request) throws NotFoundException, BadRequestException {
+        Transfer transfer = AccountRequests.validateTransfer(request);
+
+        accountMetrics.recordAccess(transfer.sourceAccountNumber());
+        accountMetrics.recordAccess(transfer.targetAccountNumber());
+        long position;
+        long stamp = lock.writeLock();
+        try {
+            position = apply(transfer);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        awaitDurable(position);
+    }
+
+    /**
+     * Applies the valid transfers in request order, releasing the lock between chunks of
+     * {@code account.batch.chunk-size}, and waits once for the flush covering the last record.
+     */
+    @Override
+    public List<TransferResult> transferBatch(List<TransferRequest> requests) {
+        TransferResult[] results = new TransferResult[requests.size()];
+        List<Integer> pendingIndexes = new ArrayList<>(requests.size());
+        List<Transfer> pendingTransfers = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                pendingTransfers.add(AccountRequests.validateTransfer(requests.get(i)));
+                pendingIndexes.add(i);
+            } catch (BadRequestException e) {
+                results[i] = TransferResult.failed(HttpStatus.BAD_REQUEST, e.getMessage());
+            } catch (TransactionException e) {
+                results[i] = TransferResult.failed(HttpStatus.CONFLICT, e.getMessage());
+            }
+        }
+
+        long position = 0;
+        for (int from = 0; from < pendingTransfers.size(); from += batchChunkSize) {
+            int to = Math.min(from + batchChunkSize, pendingTransfers.size());
+            long stamp = lock.writeLock();
+            try {
+                for (int i = from; i < to; i++) {
+                    Transfer transfer = pendingTransfers.get(i);
+                    accountMetrics.recordAccess(transfer.sourceAccountNumber());
+                    accountMetrics.recordAccess(transfer.targetAccountNumber());
+                    TransferResult result;
+                    try {
+                        position = apply(transfer);
+                        result = TransferResult.ok();
+                    } catch (NotFoundException e) {
+                        result = TransferResult.failed(HttpStatus.NOT_FOUND, e.getMessage());
+                    } catch (TransactionException e) {
+                        result = TransferResult.failed(HttpStatus.CONFLICT, e.getMessage());
+                    }
+                    results[pendingIndexes.get(i)] = result;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+        awaitDurable(position);
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequest request = requests.get(i);
+            auditLog.recordItem(Operation.TRANSFER, request.getSourceAccountNumber(), request.getTargetAccountNumber(),
+                    request.getAmount(), results[i].getStatus(), results[i].getMessage());
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * The journal does not record request ids, so this engine cannot tell.
+     */
+    @Override
+    public Optional<Boolean> isApplied(String accountNumber, String requestId) {
+        return Optional.empty();
+    }
+
+    @Override
+    public AccountStats getStats() {
+        return accountStatistics.snapshot();
+    }
+
+    @Override
+    public LedgerPage listTransactions(String accountNumber, Instant from, Instant to, String cursor, int limit)
+            throws NotFoundException, BadRequestException {
+        if (getAccount(accountNumber) == null) {
+            throw new NotFoundException(String.format("Account with number %s does not exist", accountNumber));
+        }
+        throw new BadRequestException("Transaction history is not kept by the in-memory engine");
+    }
+
+    @Override
+    public LedgerExport exportTransactions(String accountNumber, Instant from, Instant to)
+            throws NotFoundException, BadRequestException {
+        if (getAccount(accountNumber) == null) {
+            throw new NotFoundException(String.format("Account with number %s does not exist", accountNumber));
+        }
+        throw new BadRequestException("Transaction history is not kept by the in-memory engine");
+    }
+
+    /**
+     * Must be called with the write lock held; returns the journal position of the transfer record.
+     */
+    private long apply(Transfer transfer) throws NotFoundException {
+        int sourceId = findAccount(transfer.sourceAccountNumber());
+        int targetId = findAccount(transfer.targetAccountNumber());
+        if (balances.balance(sourceId) < transfer.amount()) {
+            throw new InsufficientBalanceException();
+        }
+        long sourceBalance = Money.subtract(balances.balance(sourceId), transfer.amount());
+        long targetBalance = Money.add(balances.balance(targetId), transfer.amount());
+        long position = journal.append(RecordType.TRANSFER, transfer.sourceAccountNumber(),
+                transfer.targetAccountNumber(), transfer.amount());
+        balances.setBalance(sourceId, sourceBalance);
+        balances.setBalance(targetId, targetBalance);
+        accountStatistics.record(LedgerEntryType.TRANSFER_OUT, -transfer.amount(), sourceBalance);
+        accountStatistics.record(LedgerEntryType.TRANSFER_IN, transfer.amount(), targetBalance);
+        return position;
+    }
+
+    /**
+     * Re-applies a journal record on startup, rebuilding the statistics along with the balances.
+     * Records were validated when they were appended.
+     */
+    private void replay(RecordType type, String accountNumber, String counterpartyAccountNumber, long amount) {
+        switch (type) {
+            case CREATE -> {
+                balances.add(accountNumber, amount);
+                accountStatistics.record(LedgerEntryType.OPENING, amount, amount);
+            }
+            case DEPOSIT -> accountStatistics.record(LedgerEntryType.DEPOSIT, amount,
+                    credit(balances.find(accountNumber), amount));
+            case WITHDRAW -> accountStatistics.record(LedgerEntryType.WITHDRAWAL, -amount,
+                    credit(balances.find(accountNumber), -amount));
+            case TRANSFER -> {
+                accountStatistics.record(LedgerEntryType.TRANSFER_OUT, -amount,
+                        credit(balances.find(accountNumber), -amount));
+                accountStatistics.record(LedgerEntryType.TRANSFER_IN, amount,
+                        credit(balances.find(counterpartyAccountNumber), amount));
+            }
+        }
+    }
+
+    private long credit(int id, long amount) {
+        long balance = balances.balance(id) + amount;
+        balances.setBalance(id, balance);
+        return balance;
+    }
+
+    private int findAccount(String accountNumber) throws NotFoundException {
+        int id = balances.find(accountNumber);
+        if (id == BalanceTable.NO_ACCOUNT) {
+            throw new NotFoundException(String.format("Account with number %s does not exist", accountNumber));
+        }
+        return id;
+    }
+
+    /**
+     * Runs the reader under an optimistic stamp, and again under the read lock when a mutation
+     * overlapped it. A reader torn by a growing table may throw; it is retried the same way.
+     */
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // Torn by a concurrent mutation; the stamp no longer validates, so read again under the lock.
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static long validateNewAccount(CreateAccountRequest request) throws BadRequestException {
+        long initialBalance = AccountRequests.validateNewAccount(request);
+        if (request.getAccountNumber().getBytes(StandardCharsets.UTF_8).length > Journal.MAX_ACCOUNT_NUMBER_BYTES) {
+            throw new BadRequestException(String.format("Account number must be at most %d bytes", Journal.MAX_ACCOUNT_NUMBER_BYTES));
+        }
+        return initialBalance;
+    }
+
+    private Account snapshot(int id) {
+        return new Account((long) id, balances.accountNumber(id), balances.balance(id));
+    }
+
+    /**
+     * The mutation is applied by the time its flush fails, so the failure is reported as an
+     * {@link OutcomeUnknownException}.
+     */
+    private void awaitDurable(long position) {
+        if (awaitFlush) {
+            try {
+                journal.awaitDurable(position);
+            } catch (RuntimeException e) {
+                throw new OutcomeUnknownException("The change was applied but could not be made durable", e);
+            }
+        }
+    }
+}
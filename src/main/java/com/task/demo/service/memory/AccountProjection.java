@@ -0,0 +1,232 @@
+package com.task.demo.service.memory;
+
+import com.task.demo.entity.Account;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe map from account number to id, balance and version, kept in plain arrays like
+ * {@link BalanceTable}: entries are numbered in insertion order, an open-addressing table maps
+ * account numbers to entries and a second array lists the entries in id order for paging.
+ * <p>
+ * Writers take the write lock of a {@link StampedLock}. Readers take none: they read under an
+ * optimistic stamp and retry under the read lock only if a write overlapped, so reads do not write
+ * to shared memory and scale with the number of cores. A read that overlapped a write may see the
+ * arrays half grown and fail; it is then retried the same way.
+ * <p>
+ * Every change carries the version the account row has once it is committed; a change older than
+ * the one already held is ignored, so changes may be applied in any order.
+ */
+public final class AccountProjection {
+
+    private static final int NO_ENTRY = 0;
+
+    private final StampedLock lock = new StampedLock();
+    private String[] accountNumbers;
+    private long[] ids;
+    private long[] balances;
+    private long[] versions;
+    private int[] slots;
+    private int[] entriesById;
+    private int size;
+
+    public AccountProjection(int expectedAccounts) {
+        int capacity = Math.max(16, expectedAccounts);
+        this.accountNumbers = new String[capacity];
+        this.ids = new long[capacity];
+        this.balances = new long[capacity];
+        this.versions = new long[capacity];
+        this.entriesById = new int[capacity];
+        this.slots = new int[tableSizeFor(capacity)];
+    }
+
+    /**
+     * Returns the account, or {@code null} when there is none.
+     */
+    public Account get(String accountNumber) {
+        return read(() -> {
+            int entry = find(accountNumber);
+            return entry == NO_ENTRY ? null : account(entry);
+        });
+    }
+
+    /**
+     * Returns up to {@code limit} accounts with an id above {@code afterId}, in id order.
+     */
+    public List<Account> page(long afterId, int limit) {
+        return read(() -> {
+            int[] entriesById = this.entriesById;
+            long[] ids = this.ids;
+            int count = size;
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (ids[entriesById[middle] - 1] <= afterId) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            List<Account> accounts = new ArrayList<>(Math.min(limit, count - low));
+            for (int i = low; i < count && accounts.size() < limit; i++) {
+                accounts.add(account(entriesById[i]));
+            }
+            return accounts;
+        });
+    }
+
+    /**
+     * Stores a change of the account unless a change with a higher version has been stored
+     * already. Changes recorded by one transaction share a version and are applied in order.
+     *
+     * @return whether the change was stored
+     */
+    public boolean apply(long id, String accountNumber, long balance, long version) {
+        return store(id, accountNumber, balance, version, true);
+    }
+
+    /**
+     * Stores the account as read from the database unless the version held is as recent. Rows
+     * that did not change are recognized under an optimistic stamp, so a refresh of the whole
+     * table does not hold up readers.
+     *
+     * @return whether the row was stored
+     */
+    public boolean applyIfNewer(long id, String accountNumber, long balance, long version) {
+        boolean current = read(() -> {
+            int entry = find(accountNumber);
+            return entry != NO_ENTRY && versions[entry - 1] >= version;
+        });
+        return !current && store(id, accountNumber, balance, version, false);
+    }
+
+    private boolean store(long id, String accountNumber, long balance, long version, boolean replaceSameVersion) {
+        long stamp = lock.writeLock();
+        try {
+            int entry = find(accountNumber);
+            if (entry == NO_ENTRY) {
+                add(id, accountNumber, balance, version);
+                return true;
+            }
+            long stored = versions[entry - 1];
+            if (version < stored || version == stored && !replaceSameVersion) {
+                return false;
+            }
+            balances[entry - 1] = balance;
+            versions[entry - 1] = version;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // Torn by a concurrent write; the stamp no longer validates, so read again under the lock.
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Reads every array once, so a reader racing a resize probes one consistent table. A table is
+     * never more than half full, so the probe always ends.
+     */
+    private int find(String accountNumber) {
+        int[] slots = this.slots;
+        String[] accountNumbers = this.accountNumbers;
+        int mask = slots.length - 1;
+        for (int slot = spread(accountNumber.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry == NO_ENTRY || accountNumbers[entry - 1].equals(accountNumber)) {
+                return entry;
+            }
+        }
+    }
+
+    private Account account(int entry) {
+        return new Account(ids[entry - 1], accountNumbers[entry - 1], balances[entry - 1], versions[entry - 1]);
+    }
+
+    /**
+     * Ids mostly arrive in ascending order, so the entry usually goes to the end of the id order.
+     */
+    private void add(long id, String accountNumber, long balance, long version) {
+        if (size == accountNumbers.length) {
+            int capacity = size * 2;
+            accountNumbers = Arrays.copyOf(accountNumbers, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            balances = Arrays.copyOf(balances, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            entriesById = Arrays.copyOf(entriesById, capacity);
+        }
+        if ((size + 1) * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        accountNumbers[size] = accountNumber;
+        ids[size] = id;
+        balances[size] = balance;
+        versions[size] = version;
+        int entry = ++size;
+
+        int position = size - 1;
+        while (position > 0 && ids[entriesById[position - 1] - 1] > id) {
+            position--;
+        }
+        System.arraycopy(entriesById, position, entriesById, position + 1, size - 1 - position);
+        entriesById[position] = entry;
+        insert(slots, accountNumber, entry);
+    }
+
+    private static void insert(int[] slots, String accountNumber, int entry) {
+        int mask = slots.length - 1;
+        int slot = spread(accountNumber.hashCode()) & mask;
+        while (slots[slot] != NO_ENTRY) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = entry;
+    }
+
+    /**
+     * Fills the new table before publishing it, so readers see either table complete.
+     */
+    private void rehash(int tableSize) {
+        int[] rehashed = new int[tableSize];
+        for (int entry = 1; entry <= size; entry++) {
+            insert(rehashed, accountNumbers[entry - 1], entry);
+        }
+        slots = rehashed;
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x45D9F3B;
+    }
+
+    /**
+     * Power-of-two table size that keeps the load factor at or below one half.
+     */
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(capacity * 2 - 1) << 1;
+    }
+}
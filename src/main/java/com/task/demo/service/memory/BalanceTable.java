@@ -0,0 +1,108 @@
+package com.task.demo.service.memory;
+
+import java.util.Arrays;
+
+/**
+ * Map from account number to balance without boxing. Accounts get dense ids in creation order,
+ * starting at 1; account numbers and balances live in plain arrays indexed by id, and an
+ * open-addressing table with linear probing maps account numbers to ids. Ids double as the
+ * page cursor, so listing accounts in id order is an array scan.
+ * <p>
+ * Not thread-safe; the owner serializes writes. Reads may overlap a write as long as the owner
+ * detects it and reads again, like {@link AccountProjection}: lookups read every array once and a
+ * grown table is filled before it is published, so an overlapped read returns a stale or missing
+ * entry, or fails, but always ends.
+ */
+public final class BalanceTable {
+
+    public static final int NO_ACCOUNT = 0;
+
+    private String[] accountNumbers;
+    private long[] balances;
+    private int[] slots;
+    private int size;
+
+    public BalanceTable(int expectedAccounts) {
+        int capacity = Math.max(16, expectedAccounts);
+        this.accountNumbers = new String[capacity];
+        this.balances = new long[capacity];
+        this.slots = new int[tableSizeFor(capacity)];
+    }
+
+    /**
+     * Returns the id of the account, or {@link #NO_ACCOUNT} when there is none.
+     */
+    public int find(String accountNumber) {
+        int[] slots = this.slots;
+        String[] accountNumbers = this.accountNumbers;
+        int mask = slots.length - 1;
+        for (int slot = spread(accountNumber.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot];
+            if (id == NO_ACCOUNT || accountNumbers[id - 1].equals(accountNumber)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Adds an account that must not exist yet and returns its id.
+     */
+    public int add(String accountNumber, long balance) {
+        if (size == accountNumbers.length) {
+            accountNumbers = Arrays.copyOf(accountNumbers, size * 2);
+            balances = Arrays.copyOf(balances, size * 2);
+        }
+        if ((size + 1) * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        accountNumbers[size] = accountNumber;
+        balances[size] = balance;
+        int id = ++size;
+        insert(slots, accountNumber, id);
+        return id;
+    }
+
+    public String accountNumber(int id) {
+        return accountNumbers[id - 1];
+    }
+
+    public long balance(int id) {
+        return balances[id - 1];
+    }
+
+    public void setBalance(int id, long balance) {
+        balances[id - 1] = balance;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static void insert(int[] slots, String accountNumber, int id) {
+        int mask = slots.length - 1;
+        int slot = spread(accountNumber.hashCode()) & mask;
+        while (slots[slot] != NO_ACCOUNT) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = id;
+    }
+
+    private void rehash(int tableSize) {
+        int[] rehashed = new int[tableSize];
+        for (int id = 1; id <= size; id++) {
+            insert(rehashed, accountNumbers[id - 1], id);
+        }
+        slots = rehashed;
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x45D9F3B;
+    }
+
+    /**
+     * Power-of-two table size that keeps the load factor at or below one half.
+     */
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(capacity * 2 - 1) << 1;
+    }
+}
@@ -0,0 +1,345 @@
+package com.task.demo.service.memory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead journal of balance mutations, kept in fixed-size memory-mapped segment files
+ * named by their sequence number.
+ * <p>
+ * An append is a few memory writes into the mapped current segment. When a record does not fit in
+ * the rest of it, the segment is forced to disk and the next one is created. Records become
+ * durable in groups: a flusher thread forces the current segment whenever something was appended
+ * since its last force, and everything appended while a force runs is covered by the next one,
+ * so a single fsync acknowledges all writers that arrived in the meantime.
+ * <p>
+ * A record is an {@code int} body length and the {@code int} CRC32C of the body, followed by the
+ * body: the record type, the account number and the counterparty account number (each an
+ * unsigned {@code short} length and UTF-8 bytes, the counterparty empty when absent) and the
+ * amount. A zero length ends a segment. A length or checksum that does not match is a write torn
+ * by a crash and ends the journal; the torn tail is wiped on startup so new records can follow.
+ * <p>
+ * Appends are not thread-safe: the owner serializes them in the order the mutations are applied.
+ * <p>
+ * Segments are never compacted or deleted: the journal grows with every mutation and startup
+ * replays all of it. A balance snapshot alone could not replace the covered segments, because the
+ * replay also rebuilds the per-operation statistics from them.
+ */
+public final class Journal implements AutoCloseable {
+
+    public enum RecordType {
+        CREATE, DEPOSIT, WITHDRAW, TRANSFER
+    }
+
+    @FunctionalInterface
+    public interface RecordHandler {
+        void apply(RecordType type, String accountNumber, String counterpartyAccountNumber, long amount);
+    }
+
+    public static final int MAX_ACCOUNT_NUMBER_BYTES = 1024;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int MIN_SEGMENT_SIZE = 64 * 1024;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final RecordType[] RECORD_TYPES = RecordType.values();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final CRC32C checksum = new CRC32C();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushed = flushLock.newCondition();
+    private final Thread flusher;
+
+    private FileChannel channel;
+    private volatile MappedByteBuffer segment;
+    private long segmentIndex;
+    private volatile long appended;
+    private volatile long durable;
+    private volatile RuntimeException flushFailure;
+    private volatile boolean closed;
+
+    /**
+     * Opens the journal in {@code directory}, passing every intact record to {@code replay} in
+     * append order before returning.
+     */
+    public Journal(Path directory, int segmentSize, RecordHandler replay) throws IOException {
+        if (segmentSize < MIN_SEGMENT_SIZE) {
+            throw new IllegalArgumentException(String.format("Journal segment size must be at least %d bytes", MIN_SEGMENT_SIZE));
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        if (segments.isEmpty()) {
+            openSegment(0);
+        }
+        for (int i = 0; i < segments.size(); i++) {
+            Path file = segments.get(i);
+            String name = file.getFileName().toString();
+            openSegment(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+            replaySegment(segment, replay);
+            if (hasDataAfter(segment, segment.position())) {
+                if (i < segments.size() - 1) {
+                    throw new IllegalStateException(String.format("Journal segment %s is corrupt at offset %d", file, segment.position()));
+                }
+                wipeTail(segment);
+            }
+            if (i < segments.size() - 1) {
+                channel.close();
+            }
+        }
+        this.appended = position();
+        this.durable = appended;
+        this.flusher = Thread.ofPlatform().daemon().name("journal-flusher").start(this::flushLoop);
+    }
+
+    /**
+     * Appends a record and returns the journal position after it, to pass to {@link #awaitDurable(long)}.
+     */
+    public long append(RecordType type, String accountNumber, String counterpartyAccountNumber, long amount) {
+        if (flushFailure != null) {
+            throw flushFailure;
+        }
+        int accountLength = encodedLength(accountNumber);
+        int counterpartyLength = counterpartyAccountNumber == null ? 0 : encodedLength(counterpartyAccountNumber);
+        int bodyLength = 1 + 2 + accountLength + 2 + counterpartyLength + 8;
+
+        MappedByteBuffer buffer = segment;
+        if (buffer.remaining() < HEADER_SIZE + bodyLength) {
+            buffer = rotate();
+        }
+        int start = buffer.position();
+        buffer.position(start + HEADER_SIZE)
+                .put((byte) type.ordinal())
+                .putShort((short) accountLength);
+        putEncoded(buffer, accountNumber);
+        buffer.putShort((short) counterpartyLength);
+        if (counterpartyAccountNumber != null) {
+            putEncoded(buffer, counterpartyAccountNumber);
+        }
+        buffer.putLong(amount);
+        checksum.reset();
+        checksum.update(buffer.slice(start + HEADER_SIZE, bodyLength));
+        buffer.putInt(start + 4, (int) checksum.getValue());
+        buffer.putInt(start, bodyLength);
+
+        long position = position();
+        appended = position;
+        LockSupport.unpark(flusher);
+        return position;
+    }
+
+    /**
+     * Blocks until everything up to {@code position} has been forced to disk. Once a force has
+     * failed, the journal accepts no more records and every waiter gets the failure.
+     */
+    public void awaitDurable(long position) {
+        if (durable >= position) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            while (durable < position) {
+                if (flushFailure != null) {
+                    throw flushFailure;
+                }
+                if (closed) {
+                    throw new IllegalStateException("Journal is closed");
+                }
+                flushed.awaitUninterruptibly();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        segment.force();
+        channel.close();
+        markDurable(appended);
+    }
+
+    private void flushLoop() {
+        while (!closed) {
+            long target = appended;
+            if (target == durable) {
+                LockSupport.park(this);
+                continue;
+            }
+            try {
+                segment.force();
+            } catch (RuntimeException e) {
+                flushFailure = e;
+                markDurable(durable);
+                return;
+            }
+            markDurable(target);
+        }
+    }
+
+    private void markDurable(long position) {
+        flushLock.lock();
+        try {
+            durable = Math.max(durable, position);
+            flushed.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Forces the full segment, then switches to the next one. The new segment is published before
+     * any record in it, so the flusher never reads a position past the segment it forces.
+     */
+    private MappedByteBuffer rotate() {
+        try {
+            segment.force();
+            channel.close();
+            openSegment(segmentIndex + 1);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rotate the journal", e);
+        }
+    }
+
+    private void openSegment(long index) throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", index, SEGMENT_SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segmentIndex = index;
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    private long position() {
+        return segmentIndex * segmentSize + segment.position();
+    }
+
+    /**
+     * Replays the intact records of a segment and leaves its position after the last one.
+     */
+    private void replaySegment(MappedByteBuffer buffer, RecordHandler replay) {
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int start = buffer.position();
+            int bodyLength = buffer.getInt(start);
+            if (bodyLength <= 0 || bodyLength > buffer.remaining() - HEADER_SIZE) {
+                return;
+            }
+            checksum.reset();
+            checksum.update(buffer.slice(start + HEADER_SIZE, bodyLength));
+            if ((int) checksum.getValue() != buffer.getInt(start + 4)) {
+                return;
+            }
+            buffer.position(start + HEADER_SIZE);
+            RecordType type = RECORD_TYPES[buffer.get()];
+            String accountNumber = decode(buffer);
+            String counterpartyAccountNumber = decode(buffer);
+            replay.apply(type, accountNumber, counterpartyAccountNumber.isEmpty() ? null : counterpartyAccountNumber,
+                    buffer.getLong());
+        }
+    }
+
+    private static boolean hasDataAfter(ByteBuffer buffer, int offset) {
+        int i = offset;
+        for (; i + Long.BYTES <= buffer.limit(); i += Long.BYTES) {
+            if (buffer.getLong(i) != 0) {
+                return true;
+            }
+        }
+        for (; i < buffer.limit(); i++) {
+            if (buffer.get(i) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void wipeTail(MappedByteBuffer buffer) {
+        byte[] zeros = new byte[4096];
+        for (int i = buffer.position(); i < buffer.limit(); i += zeros.length) {
+            buffer.put(i, zeros, 0, Math.min(zeros.length, buffer.limit() - i));
+        }
+        buffer.force();
+    }
+
+    /**
+     * Length of the UTF-8 encoding of an account number, counted without encoding it. An unpaired
+     * surrogate counts as the one byte {@code '?'} it is replaced with, as by {@link String#getBytes}.
+     */
+    private static int encodedLength(String accountNumber) {
+        int length = 0;
+        for (int i = 0; i < accountNumber.length(); i++) {
+            char c = accountNumber.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < accountNumber.length()
+                    && Character.isLowSurrogate(accountNumber.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        if (length > MAX_ACCOUNT_NUMBER_BYTES) {
+            throw new IllegalArgumentException(String.format("Account number must be at most %d bytes", MAX_ACCOUNT_NUMBER_BYTES));
+        }
+        return length;
+    }
+
+    /**
+     * Writes the UTF-8 encoding of an account number straight into the segment, so an append
+     * allocates nothing.
+     */
+    private static void putEncoded(ByteBuffer buffer, String accountNumber) {
+        for (int i = 0; i < accountNumber.length(); i++) {
+            char c = accountNumber.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < accountNumber.length()
+                    && Character.isLowSurrogate(accountNumber.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, accountNumber.charAt(++i));
+                buffer.put((byte) (0xF0 | codePoint >> 18)).put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                        .put((byte) (0x80 | codePoint >> 6 & 0x3F)).put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    private static String decode(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
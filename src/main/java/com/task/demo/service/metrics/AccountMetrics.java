@@ -0,0 +1,126 @@
+package com.task.demo.service.metrics;
+
+import com.task.demo.exception.InsufficientBalanceException;
+import com.task.demo.exception.NotFoundException;
+import com.task.demo.exception.TransactionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.coyote.BadRequestException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers for account operations, published as {@code account.operation} with an {@code operation}
+ * and an {@code outcome} tag, and the tracker of the most frequently touched accounts. All meters
+ * are registered up front, so recording on the request path does not allocate; callers take the
+ * start time with {@link System#nanoTime()} themselves instead of passing a lambda. The tracker is
+ * aged by a background thread. Auditing is not done here: the services publish every operation to
+ * the {@link com.task.demo.service.audit.AuditLog} next to the call that records it.
+ */
+@Component
+public class AccountMetrics {
+
+    public enum Operation {
+        CREATE, DEPOSIT, WITHDRAW, TRANSFER
+    }
+
+    public enum Outcome {
+        SUCCESS, BAD_REQUEST, NOT_FOUND, INSUFFICIENT_BALANCE, CONFLICT, ERROR,
+        /**
+         * Refused before reaching the service: only audited, never timed.
+         */
+        REJECTED;
+
+        public static Outcome of(Throwable failure) {
+            if (failure == null) {
+                return SUCCESS;
+            } else if (failure instanceof BadRequestException) {
+                return BAD_REQUEST;
+            } else if (failure instanceof NotFoundException) {
+                return NOT_FOUND;
+            } else if (failure instanceof InsufficientBalanceException) {
+                return INSUFFICIENT_BALANCE;
+            } else if (failure instanceof TransactionException) {
+                return CONFLICT;
+            }
+            return ERROR;
+        }
+
+        /**
+         * The outcome of a batch or import item, which reports its failure as a status.
+         */
+        public static Outcome of(HttpStatus status) {
+            if (status.is2xxSuccessful()) {
+                return SUCCESS;
+            }
+            return switch (status) {
+                case BAD_REQUEST -> BAD_REQUEST;
+                case NOT_FOUND -> NOT_FOUND;
+                case CONFLICT -> CONFLICT;
+                default -> ERROR;
+            };
+        }
+    }
+
+    private static final long AGING_INTERVAL_MILLIS = 100;
+
+    private final Timer[][] timers = new Timer[Operation.values().length][Outcome.values().length];
+    private final HotAccountSketch hotAccounts;
+    private final ScheduledExecutorService aging;
+
+    @Autowired
+    public AccountMetrics(MeterRegistry meterRegistry, @Value("${account.metrics.hot-accounts:20}") int hotAccounts) {
+        for (Operation operation : Operation.values()) {
+            for (Outcome outcome : Outcome.values()) {
+                if (outcome == Outcome.REJECTED) {
+                    continue;
+                }
+                timers[operation.ordinal()][outcome.ordinal()] = Timer.builder("account.operation")
+                        .description("Account operations by outcome")
+                        .tag("operation", operation.name().toLowerCase(Locale.ROOT))
+                        .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofNanos(10_000))
+                        .maximumExpectedValue(Duration.ofSeconds(10))
+                        .register(meterRegistry);
+            }
+        }
+        this.hotAccounts = new HotAccountSketch(hotAccounts);
+        this.aging = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("hot-accounts-aging").factory());
+        aging.scheduleWithFixedDelay(this.hotAccounts::ageIfDue, AGING_INTERVAL_MILLIS, AGING_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        aging.shutdownNow();
+    }
+
+    /**
+     * Records an operation that started at {@code startNanos} ({@link System#nanoTime()}) and ended
+     * with {@code failure}, or successfully when it is {@code null}.
+     */
+    public void record(Operation operation, long startNanos, Throwable failure) {
+        timers[operation.ordinal()][Outcome.of(failure).ordinal()]
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordAccess(String accountNumber) {
+        hotAccounts.record(accountNumber);
+    }
+
+    public List<HotAccountSketch.HotAccount> hottestAccounts(int limit) {
+        return hotAccounts.top(limit);
+    }
+}
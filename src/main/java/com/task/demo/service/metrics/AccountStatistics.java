@@ -0,0 +1,127 @@
+package com.task.demo.service.metrics;
+
+import com.task.demo.entity.LedgerEntryType;
+import com.task.demo.entity.Money;
+import com.task.demo.payload.response.AccountStats;
+import com.task.demo.payload.response.AccountStats.BalanceBucket;
+import com.task.demo.payload.response.AccountStats.OperationTotals;
+import com.task.demo.service.event.BalanceChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Account count, total balance, operation totals and a histogram of balances, kept up to date
+ * from every committed ledger entry so that reading them never touches the database.
+ * <p>
+ * Every figure is a {@link LongAdder}, which spreads concurrent updates over striped cells, so
+ * writers do not contend on a shared counter and a read sums a handful of cells. The histogram
+ * has fixed buckets bounded by {@code account.stats.balance-buckets}; a balance change moves the
+ * account from the bucket of its previous balance to that of its new one.
+ * <p>
+ * The figures start from zero; the engine in use loads the existing data once at startup through
+ * {@link #addAccounts(int, long, long)} and {@link #addEntries(LedgerEntryType, long, long)}.
+ */
+@Component
+public class AccountStatistics {
+
+    private final long[] bucketBounds;
+    private final LongAdder[] buckets;
+    private final LongAdder accounts = new LongAdder();
+    private final LongAdder totalBalance = new LongAdder();
+    private final LongAdder[] counts = adders(LedgerEntryType.values().length);
+    private final LongAdder[] amounts = adders(LedgerEntryType.values().length);
+
+    @Autowired
+    public AccountStatistics(@Value("${account.stats.balance-buckets:1,100,1000,10000,100000,1000000}") List<BigDecimal> bucketBounds) {
+        this.bucketBounds = bucketBounds.stream().mapToLong(Money::toMinorUnits).toArray();
+        for (int i = 1; i < this.bucketBounds.length; i++) {
+            if (this.bucketBounds[i] <= this.bucketBounds[i - 1]) {
+                throw new IllegalArgumentException("Balance bucket bounds must be ascending");
+            }
+        }
+        this.buckets = adders(this.bucketBounds.length + 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        record(event.type(), event.amount(), event.balance());
+    }
+
+    /**
+     * Records a ledger entry: {@code amount} signed as in the ledger, {@code balance} the balance
+     * after it, both in minor units.
+     */
+    public void record(LedgerEntryType type, long amount, long balance) {
+        counts[type.ordinal()].increment();
+        amounts[type.ordinal()].add(amount);
+        if (type == LedgerEntryType.OPENING) {
+            accounts.increment();
+        } else {
+            buckets[bucketOf(balance - amount)].decrement();
+        }
+        buckets[bucketOf(balance)].increment();
+        totalBalance.add(amount);
+    }
+
+    /**
+     * Adds {@code count} existing accounts whose balances fall in bucket {@code bucket} and sum up
+     * to {@code balance}.
+     */
+    public void addAccounts(int bucket, long count, long balance) {
+        buckets[bucket].add(count);
+        accounts.add(count);
+        totalBalance.add(balance);
+    }
+
+    /**
+     * Adds {@code count} existing ledger entries of {@code type} whose amounts sum up to
+     * {@code amount}.
+     */
+    public void addEntries(LedgerEntryType type, long count, long amount) {
+        counts[type.ordinal()].add(count);
+        amounts[type.ordinal()].add(amount);
+    }
+
+    /**
+     * The lower bounds, in minor units, of every bucket but the first, which takes everything below.
+     */
+    public long[] bucketBounds() {
+        return bucketBounds.clone();
+    }
+
+    public int bucketOf(long balance) {
+        int index = Arrays.binarySearch(bucketBounds, balance);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    public AccountStats snapshot() {
+        List<BalanceBucket> distribution = new ArrayList<>(buckets.length);
+        for (int i = 0; i < buckets.length; i++) {
+            distribution.add(new BalanceBucket(i == 0 ? null : Money.toDecimal(bucketBounds[i - 1]),
+                    i == bucketBounds.length ? null : Money.toDecimal(bucketBounds[i]), buckets[i].sum()));
+        }
+        return new AccountStats(accounts.sum(), Money.toDecimal(totalBalance.sum()),
+                totals(LedgerEntryType.DEPOSIT), totals(LedgerEntryType.WITHDRAWAL), totals(LedgerEntryType.TRANSFER_OUT),
+                distribution);
+    }
+
+    private OperationTotals totals(LedgerEntryType type) {
+        return new OperationTotals(counts[type.ordinal()].sum(), Money.toDecimal(Math.abs(amounts[type.ordinal()].sum())));
+    }
+
+    private static LongAdder[] adders(int length) {
+        LongAdder[] adders = new LongAdder[length];
+        for (int i = 0; i < length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -0,0 +1,151 @@
+package com.task.demo.service.metrics;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free approximation of the most frequently touched accounts.
+ * <p>
+ * Frequencies are estimated by a count-min sketch: {@value #DEPTH} rows of atomic counters, each
+ * indexed by a differently salted hash, with the minimum over the rows as the estimate. Next to it
+ * a small table of candidates remembers which accounts had the highest estimates: each account
+ * may sit in one of two hash-selected slots and displaces the weaker occupant once its estimate is
+ * higher. Once {@code sampleSize} records have been added since the last time, {@link #ageIfDue()}
+ * halves all counts, so the ranking follows the recent load rather than the all-time totals. The
+ * owner calls it from a background thread; requests never pay for a pass over the counters.
+ * <p>
+ * Recording is a handful of atomic increments on preallocated arrays and never allocates.
+ */
+public class HotAccountSketch {
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+
+    private final AtomicLongArray counters;
+    private final int widthMask;
+    private final AtomicReferenceArray<String> candidates;
+    private final AtomicLongArray candidateCounts;
+    private final int candidateMask;
+    private final long sampleSize;
+    private final LongAdder additions = new LongAdder();
+    private long additionsAtLastAging;
+
+    /**
+     * @param capacity number of hot accounts the sketch should be able to rank
+     */
+    public HotAccountSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Hot account capacity must be positive");
+        }
+        int width = ceilingPowerOfTwo(Math.max(1024, capacity * 64));
+        int slots = ceilingPowerOfTwo(capacity * 4);
+        this.counters = new AtomicLongArray(DEPTH * width);
+        this.widthMask = width - 1;
+        this.candidates = new AtomicReferenceArray<>(slots);
+        this.candidateCounts = new AtomicLongArray(slots);
+        this.candidateMask = slots - 1;
+        this.sampleSize = 10L * width;
+    }
+
+    public void record(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(row * (widthMask + 1) + index(hash, row)));
+        }
+        offer(accountNumber, hash, estimate);
+        additions.increment();
+    }
+
+    /**
+     * Halves every count if {@code sampleSize} records have been added since the last aging.
+     *
+     * @return whether the counts were halved
+     */
+    public synchronized boolean ageIfDue() {
+        long total = additions.sum();
+        if (total - additionsAtLastAging < sampleSize) {
+            return false;
+        }
+        age();
+        additionsAtLastAging = total;
+        return true;
+    }
+
+    /**
+     * Returns up to {@code limit} accounts with the highest estimated counts, highest first. Two
+     * threads offering the same new account at once may both place it, one in each of its slots;
+     * such an account is listed once, with the higher of its counts.
+     */
+    public List<HotAccount> top(int limit) {
+        Map<String, Long> hot = new HashMap<>();
+        for (int slot = 0; slot <= candidateMask; slot++) {
+            String accountNumber = candidates.get(slot);
+            long count = candidateCounts.get(slot);
+            if (accountNumber != null && count > 0) {
+                hot.merge(accountNumber, count, Math::max);
+            }
+        }
+        return hot.entrySet().stream()
+                .map(entry -> new HotAccount(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(HotAccount::count).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private void offer(String accountNumber, int hash, long estimate) {
+        int first = spread(hash) & candidateMask;
+        int second = spread(hash * 0x85EBCA6B) & candidateMask;
+        if (accountNumber.equals(candidates.get(first))) {
+            candidateCounts.set(first, estimate);
+            // A racing offer may have placed the account in its other slot too; free that one.
+            if (second != first && candidates.compareAndSet(second, accountNumber, null)) {
+                candidateCounts.set(second, 0);
+            }
+            return;
+        }
+        if (accountNumber.equals(candidates.get(second))) {
+            candidateCounts.set(second, estimate);
+            return;
+        }
+        int victim = candidateCounts.get(first) <= candidateCounts.get(second) ? first : second;
+        String occupant = candidates.get(victim);
+        if (estimate > candidateCounts.get(victim) && candidates.compareAndSet(victim, occupant, accountNumber)) {
+            candidateCounts.set(victim, estimate);
+        }
+    }
+
+    /**
+     * Halves every counter. Increments racing with the halving may survive at full weight, which
+     * only skews estimates by the few operations in flight.
+     */
+    private void age() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.getAndUpdate(i, count -> count >>> 1);
+        }
+        for (int slot = 0; slot <= candidateMask; slot++) {
+            candidateCounts.getAndUpdate(slot, count -> count >>> 1);
+        }
+    }
+
+    private int index(int hash, int row) {
+        long salted = (hash + SEEDS[row]) * SEEDS[row];
+        return (int) (salted >>> 32) & widthMask;
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x45D9F3B;
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    public record HotAccount(String accountNumber, long count) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.task.demo.service.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/hotaccounts}: the accounts touched most often recently, with their estimated
+ * operation counts. Account numbers are unbounded, so they are kept out of the metric tags.
+ */
+@Component
+@Endpoint(id = "hotaccounts")
+public class HotAccountsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 10;
+
+    private final AccountMetrics accountMetrics;
+
+    @Autowired
+    public HotAccountsEndpoint(AccountMetrics accountMetrics) {
+        this.accountMetrics = accountMetrics;
+    }
+
+    @ReadOperation
+    public List<HotAccountSketch.HotAccount> hotAccounts(@Nullable Integer limit) {
+        return accountMetrics.hottestAccounts(limit == null ? DEFAULT_LIMIT : limit);
+    }
+}
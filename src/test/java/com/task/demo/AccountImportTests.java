@@ -0,0 +1,112 @@
+package com.task.demo;
+
+import com.task.demo.entity.Account;
+import com.task.demo.entity.LedgerEntryType;
+import com.task.demo.repository.AccountRepository;
+import com.task.demo.repository.LedgerEntryRepository;
+import com.task.demo.service.impl.AccountCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "account.import.chunk-size=4")
+class AccountImportTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private LedgerEntryRepository ledgerEntryRepository;
+
+	@Autowired
+	private AccountCache accountCache;
+
+	@BeforeEach
+	void setUp() {
+		accountRepository.deleteAll();
+		ledgerEntryRepository.deleteAll();
+		accountCache.invalidateAll();
+	}
+
+	@Test
+	void importCsvReportsFailedRows() {
+		accountRepository.save(new Account("10003", BigDecimal.ONE));
+		String csv = """
+				accountNumber,initialBalance
+				10001,100.00
+				10002,0
+
+				10003,5
+				10004,abc
+				10005,1.001
+				10002,7
+				10006
+				10007,25.50
+				""";
+
+		ResponseEntity<Map<String, Object>> response = upload(csv, MediaType.parseMediaType("text/csv"));
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).containsEntry("imported", 3).containsEntry("failed", 5);
+		assertThat(failures(response)).containsExactlyInAnyOrder(
+				Map.entry(5, "CONFLICT"),
+				Map.entry(6, "BAD_REQUEST"),
+				Map.entry(7, "BAD_REQUEST"),
+				Map.entry(8, "CONFLICT"),
+				Map.entry(9, "BAD_REQUEST"));
+		assertThat(accountRepository.findByAccountNumber("10007").getBalance()).isEqualByComparingTo(new BigDecimal("25.50"));
+		assertThat(accountRepository.findByAccountNumber("10002").getBalance()).isEqualByComparingTo(BigDecimal.ZERO);
+		assertThat(ledgerEntryRepository.findAll()).filteredOn(entry -> entry.getType() == LedgerEntryType.OPENING).hasSize(3);
+	}
+
+	@Test
+	void importNdjsonInBatches() {
+		String ndjson = IntStream.range(0, 1000)
+				.mapToObj(i -> String.format("{\"accountNumber\":\"%d\",\"initialBalance\":%d}", 20000 + i, i))
+				.collect(Collectors.joining("\n", "", "\n{not json}\n"));
+
+		ResponseEntity<Map<String, Object>> response = upload(ndjson, MediaType.APPLICATION_NDJSON);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).containsEntry("imported", 1000).containsEntry("failed", 1);
+		assertThat(failures(response)).containsExactly(Map.entry(1001, "BAD_REQUEST"));
+		assertThat(accountRepository.count()).isEqualTo(1000);
+		assertThat(accountRepository.findByAccountNumber("20999").getBalance()).isEqualByComparingTo(BigDecimal.valueOf(999));
+	}
+
+	private ResponseEntity<Map<String, Object>> upload(String body, MediaType contentType) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(contentType);
+		return restTemplate.exchange("/api/accounts/import", HttpMethod.POST, new HttpEntity<>(body, headers),
+				new ParameterizedTypeReference<>() {
+				});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Map.Entry<Integer, String>> failures(ResponseEntity<Map<String, Object>> response) {
+		return ((List<Map<String, Object>>) response.getBody().get("failures")).stream()
+				.map(failure -> Map.entry((Integer) failure.get("line"), (String) failure.get("status")))
+				.toList();
+	}
+}
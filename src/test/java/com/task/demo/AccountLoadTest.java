@@ -0,0 +1,295 @@
+package com.task.demo;
+
+import com.task.demo.entity.Account;
+import com.task.demo.entity.Money;
+import com.task.demo.repository.AccountRepository;
+import com.task.demo.service.impl.AccountCache;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the REST API of the embedded server with many concurrent clients and reports latency
+ * percentiles, throughput and the rate of 409 responses, then checks that no money was created
+ * or lost. Excluded from the default build; run it with {@code mvn -P loadtest test}.
+ *
+ * <p>The mix is configured through system properties:
+ * <ul>
+ *     <li>{@code loadtest.clients} - concurrent clients, each on its own virtual thread (default 64)</li>
+ *     <li>{@code loadtest.duration} - ISO-8601 run duration (default PT10S)</li>
+ *     <li>{@code loadtest.accounts} - number of seeded accounts (default 1000)</li>
+ *     <li>{@code loadtest.distribution} - {@code zipf} or {@code hot} (default zipf)</li>
+ *     <li>{@code loadtest.zipf-exponent} - skew of the zipf distribution, 0 is uniform (default 1.0)</li>
+ *     <li>{@code loadtest.hot-accounts} / {@code loadtest.hot-ratio} - with the hot distribution, the share
+ *     of operations that go to the first few accounts (default 10 / 0.9)</li>
+ *     <li>{@code loadtest.transfer-ratio} - share of transfers, the rest is split between deposits and
+ *     withdrawals (default 0.5)</li>
+ * </ul>
+ * Application properties such as {@code account.concurrency.mode} can be overridden the same way.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AccountLoadTest {
+
+	private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1000);
+	private static final BigDecimal AMOUNT = BigDecimal.ONE;
+	private static final String AMOUNT_JSON = "{\"amount\": " + AMOUNT + "}";
+	private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private AccountCache accountCache;
+
+	private final int clients = Integer.getInteger("loadtest.clients", 64);
+	private final Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT10S"));
+	private final int accounts = Integer.getInteger("loadtest.accounts", 1000);
+	private final double transferRatio = Double.parseDouble(System.getProperty("loadtest.transfer-ratio", "0.5"));
+
+	private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+	private HttpClient httpClient;
+	private AccountPicker picker;
+	private String[] accountNumbers;
+
+	@BeforeEach
+	void setUp() {
+		accountRepository.deleteAll();
+		accountCache.invalidateAll();
+
+		accountNumbers = new String[accounts];
+		List<Account> seeded = new ArrayList<>(accounts);
+		for (int i = 0; i < accounts; i++) {
+			accountNumbers[i] = String.valueOf(100000 + i);
+			seeded.add(new Account(accountNumbers[i], INITIAL_BALANCE));
+		}
+		accountRepository.saveAll(seeded);
+
+		for (Operation operation : Operation.values()) {
+			stats.put(operation, new OperationStats());
+		}
+		picker = accountPicker();
+	}
+
+	@Test
+	void mixedLoadConservesMoney() throws InterruptedException {
+		long deadline = System.nanoTime() + duration.toNanos();
+		long started = System.nanoTime();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+			 HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+			httpClient = client;
+			for (int i = 0; i < clients; i++) {
+				executor.submit(() -> runClient(deadline));
+			}
+			executor.shutdown();
+			assertThat(executor.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS)).isTrue();
+		}
+		long elapsed = System.nanoTime() - started;
+
+		report(elapsed);
+
+		long errors = stats.values().stream().mapToLong(s -> s.errors.sum()).sum();
+		assertThat(errors).as("unexpected responses").isZero();
+
+		List<Account> all = accountRepository.findAll();
+		long expected = (Money.toMinorUnits(INITIAL_BALANCE) * accounts)
+				+ (Money.toMinorUnits(AMOUNT) * stats.get(Operation.DEPOSIT).succeeded.sum())
+				- (Money.toMinorUnits(AMOUNT) * stats.get(Operation.WITHDRAW).succeeded.sum());
+		assertThat(all.stream().mapToLong(Account::getBalanceMinorUnits).sum()).as("total money").isEqualTo(expected);
+		assertThat(all).allSatisfy(account -> assertThat(account.getBalanceMinorUnits()).isNotNegative());
+	}
+
+	private void runClient(long deadline) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		while (System.nanoTime() < deadline) {
+			double roll = random.nextDouble();
+			if (roll < transferRatio) {
+				String source = accountNumbers[picker.next(random)];
+				String target = accountNumbers[picker.next(random)];
+				if (!source.equals(target)) {
+					send(Operation.TRANSFER, "/api/accounts/transfer", String.format(
+							"{\"sourceAccountNumber\": \"%s\", \"targetAccountNumber\": \"%s\", \"amount\": %s}",
+							source, target, AMOUNT));
+				}
+			} else if (roll < transferRatio + (1 - transferRatio) / 2) {
+				send(Operation.DEPOSIT, "/api/accounts/" + accountNumbers[picker.next(random)] + "/deposit", AMOUNT_JSON);
+			} else {
+				send(Operation.WITHDRAW, "/api/accounts/" + accountNumbers[picker.next(random)] + "/withdraw", AMOUNT_JSON);
+			}
+		}
+	}
+
+	private void send(Operation operation, String path, String body) {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build();
+		OperationStats operationStats = stats.get(operation);
+		long started = System.nanoTime();
+		try {
+			HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+			operationStats.latency.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS,
+					TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started)));
+			if (response.statusCode() == 200) {
+				operationStats.succeeded.increment();
+			} else if (response.statusCode() == 409 && response.body().contains("in progress")) {
+				operationStats.inProgress.increment();
+			} else if (response.statusCode() == 409) {
+				operationStats.rejected.increment();
+			} else {
+				operationStats.errors.increment();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			operationStats.errors.increment();
+		} catch (Exception e) {
+			operationStats.errors.increment();
+		}
+	}
+
+	private void report(long elapsedNanos) {
+		double seconds = elapsedNanos / 1e9;
+		Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+		StringBuilder out = new StringBuilder();
+		out.append(String.format("%nLoad test: %d clients, %d accounts, %s, %.1fs%n",
+				clients, accounts, picker, seconds));
+		out.append(String.format("%-9s %9s %10s %8s %8s %8s %8s %8s %8s %8s %7s%n",
+				"operation", "count", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms",
+				"409 lock", "409 rej", "errors"));
+		for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+			Histogram latency = entry.getValue().latency;
+			total.add(latency);
+			out.append(line(entry.getKey().name().toLowerCase(), latency, seconds, entry.getValue()));
+		}
+		out.append(line("total", total, seconds, null));
+		long inProgress = stats.values().stream().mapToLong(s -> s.inProgress.sum()).sum();
+		out.append(String.format("409 transaction in progress: %.3f%% of requests%n",
+				total.getTotalCount() == 0 ? 0.0 : 100.0 * inProgress / total.getTotalCount()));
+		System.out.println(out);
+	}
+
+	private static String line(String name, Histogram latency, double seconds, OperationStats stats) {
+		return String.format("%-9s %9d %10.1f %8.2f %8.2f %8.2f %8.2f %8.2f %8s %8s %7s%n",
+				name, latency.getTotalCount(), latency.getTotalCount() / seconds,
+				millis(latency, 50), millis(latency, 90), millis(latency, 99), millis(latency, 99.9),
+				latency.getMaxValue() / 1000.0,
+				stats == null ? "" : stats.inProgress.sum(),
+				stats == null ? "" : stats.rejected.sum(),
+				stats == null ? "" : stats.errors.sum());
+	}
+
+	private static double millis(Histogram latency, double percentile) {
+		return latency.getValueAtPercentile(percentile) / 1000.0;
+	}
+
+	private AccountPicker accountPicker() {
+		String distribution = System.getProperty("loadtest.distribution", "zipf");
+		return switch (distribution) {
+			case "zipf" -> new ZipfPicker(accounts,
+					Double.parseDouble(System.getProperty("loadtest.zipf-exponent", "1.0")));
+			case "hot" -> new HotSetPicker(accounts,
+					Math.min(accounts, Integer.getInteger("loadtest.hot-accounts", 10)),
+					Double.parseDouble(System.getProperty("loadtest.hot-ratio", "0.9")));
+			default -> throw new IllegalArgumentException("Unknown loadtest.distribution: " + distribution);
+		};
+	}
+
+	private enum Operation {
+		DEPOSIT, WITHDRAW, TRANSFER
+	}
+
+	private static final class OperationStats {
+		private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+		private final LongAdder succeeded = new LongAdder();
+		private final LongAdder inProgress = new LongAdder();
+		private final LongAdder rejected = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+	}
+
+	private interface AccountPicker {
+		int next(ThreadLocalRandom random);
+	}
+
+	/**
+	 * Picks account {@code k} (1-based rank) with probability proportional to {@code 1 / k^exponent}.
+	 */
+	private static final class ZipfPicker implements AccountPicker {
+
+		private final double exponent;
+		private final double[] cumulative;
+
+		private ZipfPicker(int accounts, double exponent) {
+			this.exponent = exponent;
+			this.cumulative = new double[accounts];
+			double sum = 0;
+			for (int i = 0; i < accounts; i++) {
+				sum += 1 / Math.pow(i + 1, exponent);
+				cumulative[i] = sum;
+			}
+			for (int i = 0; i < accounts; i++) {
+				cumulative[i] /= sum;
+			}
+		}
+
+		@Override
+		public int next(ThreadLocalRandom random) {
+			int index = Arrays.binarySearch(cumulative, random.nextDouble());
+			return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+		}
+
+		@Override
+		public String toString() {
+			return "zipf(" + exponent + ")";
+		}
+	}
+
+	private static final class HotSetPicker implements AccountPicker {
+
+		private final int accounts;
+		private final int hotAccounts;
+		private final double hotRatio;
+
+		private HotSetPicker(int accounts, int hotAccounts, double hotRatio) {
+			this.accounts = accounts;
+			this.hotAccounts = hotAccounts;
+			this.hotRatio = hotRatio;
+		}
+
+		@Override
+		public int next(ThreadLocalRandom random) {
+			return random.nextDouble() < hotRatio ? random.nextInt(hotAccounts) : random.nextInt(accounts);
+		}
+
+		@Override
+		public String toString() {
+			return "hot(" + hotAccounts + " accounts, " + hotRatio + ")";
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package com.task.demo;
+
+import com.task.demo.entity.Account;
+import com.task.demo.entity.LedgerEntry;
+import com.task.demo.entity.LedgerEntryType;
+import com.task.demo.payload.request.CreateAccountRequest;
+import com.task.demo.payload.request.TransactionRequest;
+import com.task.demo.payload.request.TransferRequest;
+import com.task.demo.payload.response.AccountStats;
+import com.task.demo.repository.AccountRepository;
+import com.task.demo.repository.LedgerEntryRepository;
+import com.task.demo.service.impl.AccountStatisticsLoader;
+import com.task.demo.service.metrics.AccountStatistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "spring.datasource.url=jdbc:h2:mem:stats-tests")
+class AccountStatsTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private LedgerEntryRepository ledgerEntryRepository;
+
+	@Autowired
+	private AccountStatisticsLoader accountStatisticsLoader;
+
+	@Test
+	void statsFollowCommittedOperations() {
+		AccountStats before = restTemplate.getForObject("/api/accounts/stats", AccountStats.class);
+
+		createAccount("STATS-1", BigDecimal.valueOf(100));
+		createAccount("STATS-2", BigDecimal.ZERO);
+		restTemplate.postForEntity("/api/accounts/STATS-1/deposit", amount(BigDecimal.valueOf(50)), String.class);
+		restTemplate.postForEntity("/api/accounts/STATS-1/withdraw", amount(BigDecimal.valueOf(20)), String.class);
+		restTemplate.postForEntity("/api/accounts/transfer", transfer("STATS-1", "STATS-2", BigDecimal.valueOf(30)), String.class);
+		ResponseEntity<String> overdraw = restTemplate.postForEntity("/api/accounts/transfer",
+				transfer("STATS-1", "STATS-2", BigDecimal.valueOf(1000)), String.class);
+		AccountStats after = restTemplate.getForObject("/api/accounts/stats", AccountStats.class);
+
+		assertThat(overdraw.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+		assertThat(after.getAccountCount() - before.getAccountCount()).isEqualTo(2);
+		assertThat(after.getTotalBalance().subtract(before.getTotalBalance())).isEqualByComparingTo(BigDecimal.valueOf(130));
+		assertThat(after.getDeposits().count() - before.getDeposits().count()).isEqualTo(1);
+		assertThat(after.getDeposits().amount().subtract(before.getDeposits().amount())).isEqualByComparingTo(BigDecimal.valueOf(50));
+		assertThat(after.getWithdrawals().amount().subtract(before.getWithdrawals().amount())).isEqualByComparingTo(BigDecimal.valueOf(20));
+		assertThat(after.getTransfers().count() - before.getTransfers().count()).isEqualTo(1);
+		assertThat(after.getTransfers().amount().subtract(before.getTransfers().amount())).isEqualByComparingTo(BigDecimal.valueOf(30));
+		// STATS-1 ends at 100, in [100, 1000); STATS-2 at 30, in [1, 100).
+		assertThat(after.getBalanceDistribution().get(1).accounts() - before.getBalanceDistribution().get(1).accounts()).isEqualTo(1);
+		assertThat(after.getBalanceDistribution().get(2).accounts() - before.getBalanceDistribution().get(2).accounts()).isEqualTo(1);
+		assertThat(after.getBalanceDistribution().get(2).from()).isEqualByComparingTo(BigDecimal.valueOf(100));
+	}
+
+	@Test
+	void loaderRebuildsStatsFromDatabase() {
+		createAccount("STATS-3", BigDecimal.valueOf(5));
+		restTemplate.postForEntity("/api/accounts/STATS-3/deposit", amount(BigDecimal.valueOf(2000)), String.class);
+
+		AccountStatistics rebuilt = new AccountStatistics(List.of(BigDecimal.ONE, BigDecimal.valueOf(100), BigDecimal.valueOf(1000)));
+		accountStatisticsLoader.load(rebuilt);
+		AccountStats stats = rebuilt.snapshot();
+
+		List<Account> accounts = accountRepository.findAll();
+		assertThat(stats.getAccountCount()).isEqualTo(accounts.size());
+		assertThat(stats.getTotalBalance()).isEqualByComparingTo(accounts.stream().map(Account::getBalance).reduce(BigDecimal.ZERO, BigDecimal::add));
+		assertThat(stats.getBalanceDistribution()).hasSize(4);
+		assertThat(stats.getBalanceDistribution().get(3).accounts())
+				.isEqualTo(accounts.stream().filter(account -> account.getBalance().compareTo(BigDecimal.valueOf(1000)) >= 0).count());
+		assertThat(stats.getDeposits().amount()).isEqualByComparingTo(ledgerEntryRepository.findAll().stream()
+				.filter(entry -> entry.getType() == LedgerEntryType.DEPOSIT)
+				.map(LedgerEntry::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add));
+	}
+
+	private void createAccount(String accountNumber, BigDecimal initialBalance) {
+		CreateAccountRequest request = new CreateAccountRequest();
+		request.setAccountNumber(accountNumber);
+		request.setInitialBalance(initialBalance);
+		assertThat(restTemplate.postForEntity("/api/accounts", request, String.class).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+	}
+
+	private static TransactionRequest amount(BigDecimal amount) {
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(amount);
+		return request;
+	}
+
+	private static TransferRequest transfer(String source, String target, BigDecimal amount) {
+		TransferRequest request = new TransferRequest();
+		request.setSourceAccountNumber(source);
+		request.setTargetAccountNumber(target);
+		request.setAmount(amount);
+		return request;
+	}
+}
@@ -0,0 +1,99 @@
+package com.task.demo;
+
+import com.task.demo.payload.request.TransactionRequest;
+import com.task.demo.payload.request.TransferRequest;
+import com.task.demo.service.audit.AuditLog;
+import com.task.demo.controller.AdmissionControl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"account.admission.account-rate=0.001", "account.admission.account-burst=2",
+				"account.admission.global-rate=0.001", "account.admission.global-burst=5",
+				"spring.datasource.url=jdbc:h2:mem:admission-tests"})
+class AdmissionControlTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private AuditLog auditLog;
+
+	@Test
+	void mutationsBeyondTheLimitsAreRejected() {
+		assertThat(deposit("AC-1").getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(deposit("AC-1").getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		ResponseEntity<String> accountLimited = deposit("AC-1");
+
+		assertThat(accountLimited.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+		assertThat(accountLimited.getBody()).isEqualTo("Too many requests for account AC-1, retry later");
+		assertThat(Long.parseLong(accountLimited.getHeaders().getFirst(HttpHeaders.RETRY_AFTER))).isBetween(990L, 1000L);
+
+		// The rejected deposit took no global token: three more requests fit into the global burst of five.
+		TransferRequest transfer = new TransferRequest();
+		transfer.setSourceAccountNumber("AC-2");
+		transfer.setTargetAccountNumber("AC-3");
+		transfer.setAmount(BigDecimal.ONE);
+		assertThat(restTemplate.postForEntity("/api/accounts/transfer", transfer, String.class).getStatusCode())
+				.isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(deposit("AC-4").getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(deposit("AC-5").getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		ResponseEntity<String> globallyLimited = deposit("AC-6");
+
+		assertThat(globallyLimited.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+		assertThat(globallyLimited.getBody()).isEqualTo("Too many requests, retry later");
+		assertThat(globallyLimited.getHeaders().containsKey(HttpHeaders.RETRY_AFTER)).isTrue();
+		assertThat(meterRegistry.get("account.admission.rejected").tag("limit", "account").counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("account.admission.rejected").tag("limit", "global").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void floodingDistinctAccountNumbersKeepsTheTableBoundedAndBusyAccountsInIt() {
+		MeterRegistry registry = new SimpleMeterRegistry();
+		AdmissionControl admission = new AdmissionControl(0.001, 5, 0, 1, 100, Duration.ofMinutes(1), registry, auditLog);
+		for (int i = 0; i < 100; i++) {
+			assertThat(admission.admit(List.of("FLOOD-" + i))).isNull();
+		}
+
+		// Accounts that find the table full share one overflow bucket, which grants its burst of five once.
+		for (int i = 100; i < 105; i++) {
+			assertThat(admission.admit(List.of("FLOOD-" + i))).isNull();
+		}
+		for (int i = 105; i < 10_000; i++) {
+			AdmissionControl.Rejection rejection = admission.admit(List.of("FLOOD-" + i));
+			assertThat(rejection).isNotNull();
+			assertThat(rejection.retryAfterSeconds()).isBetween(990L, 1000L);
+		}
+
+		// The flood displaced no bucket: the first accounts still have the rest of their own burst.
+		for (int i = 0; i < 4; i++) {
+			assertThat(admission.admit(List.of("FLOOD-0"))).isNull();
+		}
+		assertThat(admission.admit(List.of("FLOOD-0"))).isNotNull();
+		assertThat(registry.get("cache.size").tag("cache", "admission").gauge().value()).isEqualTo(100);
+		assertThat(registry.get("account.admission.rejected").tag("limit", "overflow").counter().count()).isEqualTo(9_895);
+		assertThat(registry.get("account.admission.rejected").tag("limit", "account").counter().count()).isEqualTo(1);
+	}
+
+	private ResponseEntity<String> deposit(String accountNumber) {
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(BigDecimal.TEN);
+		return restTemplate.postForEntity("/api/accounts/" + accountNumber + "/deposit", request, String.class);
+	}
+}
@@ -0,0 +1,150 @@
+package com.task.demo;
+
+import com.task.demo.entity.Account;
+import com.task.demo.payload.request.CreateAccountRequest;
+import com.task.demo.payload.request.TransactionRequest;
+import com.task.demo.payload.request.TransferRequest;
+import com.task.demo.payload.response.AccountStats;
+import com.task.demo.controller.IdempotencyStore;
+import com.task.demo.repository.AccountRepository;
+import com.task.demo.repository.IdempotencyRecordRepository;
+import com.task.demo.service.concurrency.RequestExecutor;
+import com.task.demo.service.impl.AccountCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"account.async.threads=1", "account.async.queue-capacity=1", "account.async.retry-after=2s"})
+class AsyncApiTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private AccountCache accountCache;
+
+	@Autowired
+	private RequestExecutor requestExecutor;
+
+	@Autowired
+	private IdempotencyRecordRepository idempotencyRecordRepository;
+
+	@BeforeEach
+	void setUp() {
+		accountRepository.deleteAll();
+		accountCache.invalidateAll();
+	}
+
+	@Test
+	void v2EndpointsBehaveLikeV1() {
+		ResponseEntity<Account> created = restTemplate.postForEntity("/api/v2/accounts", createRequest("12345", BigDecimal.valueOf(100)), Account.class);
+		restTemplate.postForEntity("/api/v2/accounts", createRequest("67890", BigDecimal.ZERO), Account.class);
+		ResponseEntity<Account> deposit = restTemplate.postForEntity("/api/v2/accounts/12345/deposit", amount(BigDecimal.TEN), Account.class);
+		ResponseEntity<String> transfer = restTemplate.postForEntity("/api/v2/accounts/transfer", transferRequest(BigDecimal.valueOf(30)), String.class);
+		ResponseEntity<String> overdraw = restTemplate.postForEntity("/api/v2/accounts/transfer", transferRequest(BigDecimal.valueOf(500)), String.class);
+		ResponseEntity<String> missing = restTemplate.postForEntity("/api/v2/accounts/00000/deposit", amount(BigDecimal.TEN), String.class);
+
+		assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(deposit.getBody().getBalance()).isEqualByComparingTo(BigDecimal.valueOf(110));
+		assertThat(transfer.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(overdraw.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+		assertThat(missing.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(restTemplate.getForObject("/api/v2/accounts/12345", Account.class).getBalance())
+				.isEqualByComparingTo(BigDecimal.valueOf(80));
+		assertThat(restTemplate.getForObject("/api/v2/accounts/67890", Account.class).getBalance())
+				.isEqualByComparingTo(BigDecimal.valueOf(30));
+		assertThat(restTemplate.getForObject("/api/v2/accounts/stats", AccountStats.class)).usingRecursiveComparison()
+				.isEqualTo(restTemplate.getForObject("/api/accounts/stats", AccountStats.class));
+	}
+
+	@Test
+	void saturatedExecutorAnswersServiceUnavailable() throws InterruptedException {
+		accountRepository.save(new Account("12345", BigDecimal.valueOf(100)));
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Boolean> busy = requestExecutor.submit(() -> {
+			running.countDown();
+			try {
+				return release.await(30, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		running.await();
+		CompletableFuture<ResponseEntity<Account>> queued = CompletableFuture.supplyAsync(
+				() -> restTemplate.postForEntity("/api/v2/accounts/12345/deposit", amount(BigDecimal.TEN), Account.class));
+		while (!queuedRequestArrived()) {
+			Thread.sleep(10);
+		}
+
+		ResponseEntity<String> rejected = restTemplate.postForEntity("/api/v2/accounts/12345/deposit", amount(BigDecimal.ONE), String.class);
+		release.countDown();
+
+		assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+		assertThat(busy.join()).isTrue();
+		assertThat(queued.join().getBody().getBalance()).isEqualByComparingTo(BigDecimal.valueOf(110));
+		assertThat(accountRepository.findByAccountNumber("12345").getBalance()).isEqualByComparingTo(BigDecimal.valueOf(110));
+	}
+
+	@Test
+	void duplicatesOfRequestsInProgressAreRefusedWithoutWaiting() {
+		accountRepository.save(new Account("12345", BigDecimal.valueOf(100)));
+		idempotencyRecordRepository.claim("async-in-progress", "deposit 12345 10", Instant.now().truncatedTo(ChronoUnit.MICROS));
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(IdempotencyStore.IDEMPOTENCY_KEY_HEADER, "async-in-progress");
+
+		long start = System.nanoTime();
+		ResponseEntity<String> duplicate = restTemplate.postForEntity("/api/v2/accounts/12345/deposit",
+				new HttpEntity<>(amount(BigDecimal.TEN), headers), String.class);
+
+		assertThat(duplicate.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+		assertThat(accountRepository.findByAccountNumber("12345").getBalance()).isEqualByComparingTo(BigDecimal.valueOf(100));
+	}
+
+	private boolean queuedRequestArrived() {
+		return restTemplate.getForEntity("/actuator/metrics/account.async.queued", String.class).getBody().contains("\"value\":1.0");
+	}
+
+	private static CreateAccountRequest createRequest(String accountNumber, BigDecimal initialBalance) {
+		CreateAccountRequest request = new CreateAccountRequest();
+		request.setAccountNumber(accountNumber);
+		request.setInitialBalance(initialBalance);
+		return request;
+	}
+
+	private static TransactionRequest amount(BigDecimal amount) {
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(amount);
+		return request;
+	}
+
+	private static TransferRequest transferRequest(BigDecimal amount) {
+		TransferRequest request = new TransferRequest();
+		request.setSourceAccountNumber("12345");
+		request.setTargetAccountNumber("67890");
+		request.setAmount(amount);
+		return request;
+	}
+}
@@ -0,0 +1,228 @@
+package com.task.demo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.task.demo.controller.IdempotencyStore;
+import com.task.demo.payload.request.CreateAccountRequest;
+import com.task.demo.payload.request.TransactionRequest;
+import com.task.demo.payload.request.TransferRequest;
+import com.task.demo.service.audit.AuditLog;
+import com.task.demo.service.audit.AuditRingBuffer;
+import com.task.demo.service.audit.AuditRingBuffer.OverflowMode;
+import com.task.demo.service.metrics.AccountMetrics.Operation;
+import com.task.demo.service.metrics.AccountMetrics.Outcome;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"account.audit.enabled=true", "account.audit.flush=batch",
+				"spring.datasource.url=jdbc:h2:mem:audit-tests"})
+class AuditLogTests {
+
+	@TempDir
+	static Path auditDirectory;
+
+	@TempDir
+	Path closedAuditDirectory;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@DynamicPropertySource
+	static void auditProperties(DynamicPropertyRegistry registry) {
+		registry.add("account.audit.directory", () -> auditDirectory.toString());
+	}
+
+	@Test
+	void everyAttemptedOperationIsAudited() throws Exception {
+		restTemplate.postForEntity("/api/accounts", createRequest("AU-1", BigDecimal.valueOf(100)), String.class);
+		restTemplate.postForEntity("/api/accounts", createRequest("AU-2", BigDecimal.ZERO), String.class);
+		restTemplate.postForEntity("/api/accounts", createRequest("AU-1", BigDecimal.ONE), String.class);
+		restTemplate.postForEntity("/api/accounts/AU-1/deposit", amount(new BigDecimal("50.25")), String.class);
+		restTemplate.postForEntity("/api/accounts/AU-1/withdraw", amount(BigDecimal.valueOf(500)), String.class);
+		restTemplate.postForEntity("/api/accounts/AU-9/deposit", amount(BigDecimal.ONE), String.class);
+		restTemplate.postForEntity("/api/accounts/AU-1/deposit", amount(BigDecimal.valueOf(-1)), String.class);
+		restTemplate.postForEntity("/api/accounts/transfer", transfer("AU-1", "AU-2", BigDecimal.TEN), String.class);
+		restTemplate.postForEntity("/api/accounts/transfers/batch",
+				List.of(transfer("AU-2", "AU-1", BigDecimal.ONE), transfer("AU-2", "AU-1", BigDecimal.valueOf(1000))), String.class);
+
+		// The accounts created at startup are audited as well; only look at the ones of this test.
+		List<JsonNode> entries = awaitEntries("AU-", 10);
+
+		assertThat(entries).extracting(entry -> entry.get("operation").asText() + " " + entry.get("outcome").asText()
+				+ " " + entry.path("accountNumber").asText()).containsExactly(
+				"CREATE SUCCESS AU-1",
+				"CREATE SUCCESS AU-2",
+				"CREATE CONFLICT AU-1",
+				"DEPOSIT SUCCESS AU-1",
+				"WITHDRAW INSUFFICIENT_BALANCE AU-1",
+				"DEPOSIT NOT_FOUND AU-9",
+				"DEPOSIT BAD_REQUEST AU-1",
+				"TRANSFER SUCCESS AU-1",
+				"TRANSFER SUCCESS AU-2",
+				"TRANSFER CONFLICT AU-2");
+		assertThat(entries.get(3).get("amount").decimalValue()).isEqualByComparingTo("50.25");
+		assertThat(entries.get(3).has("message")).isFalse();
+		assertThat(entries.get(5).get("message").asText()).isEqualTo("Account with number AU-9 does not exist");
+		assertThat(entries.get(7).get("targetAccountNumber").asText()).isEqualTo("AU-2");
+		assertThat(entries).allSatisfy(entry -> assertThat(entry.get("timestamp").asText()).endsWith("Z"));
+		assertThat(meterRegistry.get("account.audit.dropped").tag("reason", "buffer-full").counter().count()).isZero();
+	}
+
+	@Test
+	void requestsRefusedBeforeTheServiceAreAudited() throws Exception {
+		restTemplate.postForEntity("/api/accounts", createRequest("AR-1", BigDecimal.valueOf(100)), String.class);
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(IdempotencyStore.IDEMPOTENCY_KEY_HEADER, "audit-reuse");
+		restTemplate.postForEntity("/api/accounts/AR-1/deposit", new HttpEntity<>(amount(BigDecimal.ONE), headers), String.class);
+		ResponseEntity<String> reused = restTemplate.postForEntity("/api/accounts/AR-1/deposit",
+				new HttpEntity<>(amount(BigDecimal.TEN), headers), String.class);
+
+		List<JsonNode> entries = awaitEntries("AR-", 3);
+
+		assertThat(reused.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+		assertThat(entries).extracting(entry -> entry.get("operation").asText() + " " + entry.get("outcome").asText())
+				.containsExactly("CREATE SUCCESS", "DEPOSIT SUCCESS", "DEPOSIT REJECTED");
+		assertThat(entries.get(2).get("amount").decimalValue()).isEqualByComparingTo(BigDecimal.TEN);
+		assertThat(entries.get(2).get("message").asText()).isEqualTo(reused.getBody());
+	}
+
+	@Test
+	void fullBufferDropsOrBlocks() throws InterruptedException {
+		AuditRingBuffer dropping = new AuditRingBuffer(2, OverflowMode.DROP);
+		assertThat(publish(dropping, "RB-1")).isTrue();
+		assertThat(publish(dropping, "RB-2")).isTrue();
+		assertThat(publish(dropping, "RB-3")).isFalse();
+		assertThat(dropping.size()).isEqualTo(2);
+
+		List<String> drained = new ArrayList<>();
+		assertThat(dropping.drain(event -> drained.add(event.getAccountNumber()), 10)).isEqualTo(2);
+		assertThat(publish(dropping, "RB-4")).isTrue();
+		dropping.drain(event -> drained.add(event.getAccountNumber()), 10);
+		assertThat(drained).containsExactly("RB-1", "RB-2", "RB-4");
+
+		AuditRingBuffer blocking = new AuditRingBuffer(1, OverflowMode.BLOCK);
+		publish(blocking, "RB-5");
+		Thread producer = Thread.ofVirtual().start(() -> publish(blocking, "RB-6"));
+		producer.join(200);
+		assertThat(producer.isAlive()).isTrue();
+
+		blocking.drain(event -> {
+		}, 10);
+		producer.join(TimeUnit.SECONDS.toMillis(5));
+		assertThat(producer.isAlive()).isFalse();
+		assertThat(blocking.drain(event -> drained.add(event.getAccountNumber()), 10)).isEqualTo(1);
+		assertThat(drained).endsWith("RB-6");
+	}
+
+	@Test
+	void closingReleasesBlockedProducersAndCountsLateEventsAsDropped() throws Exception {
+		AuditRingBuffer blocking = new AuditRingBuffer(1, OverflowMode.BLOCK);
+		publish(blocking, "RB-7");
+		AtomicBoolean published = new AtomicBoolean(true);
+		Thread producer = Thread.ofVirtual().start(() -> published.set(publish(blocking, "RB-8")));
+		producer.join(200);
+		assertThat(producer.isAlive()).isTrue();
+
+		blocking.close();
+		producer.join(TimeUnit.SECONDS.toMillis(5));
+		assertThat(producer.isAlive()).isFalse();
+		assertThat(published).isFalse();
+		List<String> drained = new ArrayList<>();
+		assertThat(blocking.drain(event -> drained.add(event.getAccountNumber()), 10)).isEqualTo(1);
+		assertThat(drained).containsExactly("RB-7");
+		assertThat(publish(blocking, "RB-9")).isFalse();
+
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		AuditLog auditLog = new AuditLog(true, closedAuditDirectory.toString(), 4, OverflowMode.BLOCK,
+				DataSize.ofMegabytes(1), AuditLog.FlushPolicy.BATCH, Duration.ofSeconds(1), registry);
+		auditLog.record(Operation.DEPOSIT, "CL-1", null, BigDecimal.ONE, null);
+		auditLog.close();
+		auditLog.record(Operation.DEPOSIT, "CL-2", null, BigDecimal.ONE, null);
+
+		assertThat(registry.get("account.audit.written").counter().count()).isEqualTo(1);
+		assertThat(registry.get("account.audit.dropped").tag("reason", "closed").counter().count()).isEqualTo(1);
+	}
+
+	private List<JsonNode> awaitEntries(String accountPrefix, int count) throws IOException, InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		List<JsonNode> entries = readEntries(accountPrefix);
+		while (entries.size() < count && System.nanoTime() < deadline) {
+			Thread.sleep(20);
+			entries = readEntries(accountPrefix);
+		}
+		return entries;
+	}
+
+	private List<JsonNode> readEntries(String accountPrefix) throws IOException {
+		List<JsonNode> entries = new ArrayList<>();
+		try (Stream<Path> files = Files.list(auditDirectory)) {
+			for (Path file : files.sorted().toList()) {
+				for (String line : Files.readAllLines(file)) {
+					JsonNode entry = objectMapper.readTree(line);
+					if (entry.path("accountNumber").asText().startsWith(accountPrefix)) {
+						entries.add(entry);
+					}
+				}
+			}
+		}
+		return entries;
+	}
+
+	private static boolean publish(AuditRingBuffer buffer, String accountNumber) {
+		return buffer.publish(System.currentTimeMillis(), Operation.DEPOSIT, Outcome.SUCCESS, accountNumber, null,
+				BigDecimal.ONE, null);
+	}
+
+	private static CreateAccountRequest createRequest(String accountNumber, BigDecimal initialBalance) {
+		CreateAccountRequest request = new CreateAccountRequest();
+		request.setAccountNumber(accountNumber);
+		request.setInitialBalance(initialBalance);
+		return request;
+	}
+
+	private static TransactionRequest amount(BigDecimal amount) {
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(amount);
+		return request;
+	}
+
+	private static TransferRequest transfer(String source, String target, BigDecimal amount) {
+		TransferRequest request = new TransferRequest();
+		request.setSourceAccountNumber(source);
+		request.setTargetAccountNumber(target);
+		request.setAmount(amount);
+		return request;
+	}
+}
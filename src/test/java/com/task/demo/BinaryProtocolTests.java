@@ -0,0 +1,109 @@
+package com.task.demo;
+
+import com.task.demo.controller.binary.BinaryClient;
+import com.task.demo.controller.binary.BinaryListener;
+import com.task.demo.controller.binary.BinaryProtocol;
+import com.task.demo.controller.binary.BinaryProtocol.Status;
+import com.task.demo.controller.binary.BinaryResponse;
+import com.task.demo.entity.Account;
+import com.task.demo.payload.request.CreateAccountRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"account.binary.enabled=true", "account.binary.port=0",
+				"spring.datasource.url=jdbc:h2:mem:binary-tests"})
+class BinaryProtocolTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private BinaryListener listener;
+
+	@Test
+	void pipelinedRequestsAreAnsweredInOrder() throws IOException {
+		createAccount("BP-1", BigDecimal.valueOf(100));
+		createAccount("BP-2", BigDecimal.ZERO);
+
+		try (BinaryClient client = new BinaryClient("localhost", listener.getPort())) {
+			List<Long> correlationIds = new ArrayList<>();
+			correlationIds.add(client.send(BinaryProtocol.DEPOSIT, "BP-1", null, 2550));
+			correlationIds.add(client.send(BinaryProtocol.WITHDRAW, "BP-1", null, 550));
+			correlationIds.add(client.send(BinaryProtocol.TRANSFER, "BP-1", "BP-2", 4000));
+			correlationIds.add(client.send(BinaryProtocol.GET_BALANCE, "BP-2", null, 0));
+			correlationIds.add(client.send(BinaryProtocol.GET_BALANCE, "BP-MISSING", null, 0));
+			correlationIds.add(client.send(BinaryProtocol.WITHDRAW, "BP-2", null, 1_000_000));
+			client.flush();
+
+			List<BinaryResponse> responses = new ArrayList<>();
+			for (int i = 0; i < correlationIds.size(); i++) {
+				responses.add(client.receive());
+			}
+
+			assertThat(responses).extracting(BinaryResponse::correlationId).isEqualTo(correlationIds);
+			assertThat(responses).extracting(BinaryResponse::status).containsExactly(
+					Status.OK, Status.OK, Status.OK, Status.OK, Status.NOT_FOUND, Status.CONFLICT);
+			assertThat(responses.get(0).value()).isEqualTo(12550);
+			assertThat(responses.get(1).value()).isEqualTo(12000);
+			assertThat(responses.get(3).value()).isEqualTo(4000);
+			assertThat(responses.get(4).message()).isEqualTo("Account with number BP-MISSING does not exist");
+			assertThat(responses.get(5).message()).isEqualTo("Insufficient balance");
+		}
+
+		assertThat(restTemplate.getForObject("/api/accounts/BP-1", Account.class).getBalance())
+				.isEqualByComparingTo(BigDecimal.valueOf(80));
+	}
+
+	@Test
+	void invalidRequestsDoNotCloseTheConnection() throws IOException {
+		createAccount("BP-3", BigDecimal.TEN);
+
+		try (BinaryClient client = new BinaryClient("localhost", listener.getPort())) {
+			client.send((byte) 42, "BP-3", null, 0);
+			client.flush();
+			BinaryResponse unknown = client.receive();
+			assertThat(unknown.status()).isEqualTo(Status.BAD_REQUEST);
+			assertThat(unknown.message()).isEqualTo("Unknown operation 42");
+
+			assertThat(client.deposit("BP-3", -100).status()).isEqualTo(Status.BAD_REQUEST);
+			assertThat(client.deposit(null, 100).status()).isEqualTo(Status.BAD_REQUEST);
+
+			BinaryResponse balance = client.getBalance("BP-3");
+			assertThat(balance.status()).isEqualTo(Status.OK);
+			assertThat(balance.value()).isEqualTo(1000);
+		}
+	}
+
+	@Test
+	void aFrameAnnouncingAnImpossibleLengthClosesTheConnection() throws IOException {
+		try (Socket socket = new Socket("localhost", listener.getPort())) {
+			socket.setSoTimeout(5_000);
+			DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+			out.writeInt(BinaryProtocol.MAX_REQUEST_LENGTH + 1);
+			out.write(new byte[BinaryProtocol.REQUEST_HEADER_LENGTH]);
+			out.flush();
+
+			assertThat(socket.getInputStream().read()).isEqualTo(-1);
+		}
+	}
+
+	private void createAccount(String accountNumber, BigDecimal initialBalance) {
+		CreateAccountRequest request = new CreateAccountRequest();
+		request.setAccountNumber(accountNumber);
+		request.setInitialBalance(initialBalance);
+		assertThat(restTemplate.postForEntity("/api/accounts", request, String.class).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+	}
+}
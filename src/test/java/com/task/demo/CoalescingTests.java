@@ -0,0 +1,108 @@
+package com.task.demo;
+
+import com.task.demo.entity.Account;
+import com.task.demo.entity.LedgerEntry;
+import com.task.demo.entity.LedgerEntryType;
+import com.task.demo.payload.request.TransactionRequest;
+import com.task.demo.repository.AccountRepository;
+import com.task.demo.repository.LedgerEntryRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"account.coalescing.accounts=12345,55555", "account.coalescing.window=20ms", "account.lock.wait-timeout=0ms"})
+class CoalescingTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private LedgerEntryRepository ledgerEntryRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		accountRepository.deleteAll();
+		ledgerEntryRepository.deleteAll();
+	}
+
+	@Test
+	void concurrentDepositsIntoHotAccountAreAppliedInGroups() {
+		accountRepository.save(new Account("12345", BigDecimal.valueOf(1000)));
+		DistributionSummary groups = meterRegistry.get("account.coalescing.group.size").summary();
+		long groupsBefore = groups.count();
+
+		List<ResponseEntity<Account>> responses = depositConcurrently("12345", 200);
+
+		assertThat(responses).extracting(ResponseEntity::getStatusCode).containsOnly(HttpStatus.OK);
+		assertThat(responses).extracting(response -> response.getBody().getBalance().intValue())
+				.doesNotHaveDuplicates()
+				.allSatisfy(balance -> assertThat(balance).isBetween(1010, 3000));
+		Account account = accountRepository.findByAccountNumber("12345");
+		assertThat(account.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(3000));
+		assertThat(groups.count() - groupsBefore).isLessThan(200);
+
+		// Every deposit carries the version its group commit left, rising from group to group.
+		List<Long> versions = responses.stream()
+				.map(ResponseEntity::getBody)
+				.sorted(Comparator.comparing(Account::getBalance))
+				.map(Account::getVersion)
+				.toList();
+		assertThat(versions).doesNotContainNull().isSorted();
+		assertThat(versions.get(versions.size() - 1)).isEqualTo(account.getVersion());
+		assertThat(versions.stream().distinct().count()).isEqualTo(groups.count() - groupsBefore);
+
+		List<LedgerEntry> deposits = ledgerEntryRepository.findAll().stream()
+				.filter(entry -> entry.getType() == LedgerEntryType.DEPOSIT)
+				.sorted(Comparator.comparing(LedgerEntry::getId))
+				.toList();
+		assertThat(deposits).hasSize(200);
+		assertThat(deposits).extracting(entry -> entry.getBalance().intValue())
+				.isEqualTo(IntStream.rangeClosed(1, 200).map(i -> 1000 + i * 10).boxed().toList());
+	}
+
+	@Test
+	void depositIntoMissingHotAccountIsNotFound() {
+		ResponseEntity<String> response = restTemplate.postForEntity("/api/accounts/55555/deposit", amount(BigDecimal.TEN), String.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+	}
+
+	private List<ResponseEntity<Account>> depositConcurrently(String accountNumber, int count) {
+		try (ExecutorService executor = Executors.newFixedThreadPool(32)) {
+			List<CompletableFuture<ResponseEntity<Account>>> futures = IntStream.range(0, count)
+					.mapToObj(i -> CompletableFuture.supplyAsync(() -> restTemplate.postForEntity(
+							"/api/accounts/" + accountNumber + "/deposit", amount(BigDecimal.TEN), Account.class), executor))
+					.toList();
+			return futures.stream().map(CompletableFuture::join).toList();
+		}
+	}
+
+	private static TransactionRequest amount(BigDecimal amount) {
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(amount);
+		return request;
+	}
+}
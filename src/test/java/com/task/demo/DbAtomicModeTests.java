@@ -0,0 +1,185 @@
+package com.task.demo;
+
+import com.task.demo.entity.Account;
+import com.task.demo.entity.LedgerEntry;
+import com.task.demo.entity.LedgerEntryType;
+import com.task.demo.payload.request.TransactionRequest;
+import com.task.demo.payload.request.TransferRequest;
+import com.task.demo.payload.response.TransferResult;
+import com.task.demo.repository.AccountRepository;
+import com.task.demo.repository.LedgerEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "account.concurrency.mode=db-atomic")
+class DbAtomicModeTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private LedgerEntryRepository ledgerEntryRepository;
+
+	@BeforeEach
+	void setUp() {
+		accountRepository.deleteAll();
+		ledgerEntryRepository.deleteAll();
+	}
+
+	@Test
+	void concurrentWithdrawalsNeverOverdraw() {
+		accountRepository.save(new Account("12345", BigDecimal.valueOf(100)));
+
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(BigDecimal.TEN);
+
+		List<CompletableFuture<ResponseEntity<String>>> futures = IntStream.range(0, 30)
+				.mapToObj(i -> CompletableFuture.supplyAsync(() -> restTemplate.exchange(
+						"/api/accounts/12345/withdraw", HttpMethod.POST, new HttpEntity<>(request), String.class)))
+				.toList();
+
+		List<HttpStatus> statuses = futures.stream()
+				.map(future -> HttpStatus.valueOf(future.join().getStatusCode().value()))
+				.toList();
+		assertThat(statuses).filteredOn(HttpStatus.OK::equals).hasSize(10);
+		assertThat(statuses).filteredOn(HttpStatus.CONFLICT::equals).hasSize(20);
+		assertThat(accountRepository.findByAccountNumber("12345").getBalance()).isEqualByComparingTo(BigDecimal.ZERO);
+	}
+
+	@Test
+	void withdrawMapsAffectedRowsToOutcome() {
+		accountRepository.save(new Account("12345", BigDecimal.valueOf(100)));
+
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(BigDecimal.valueOf(200));
+
+		ResponseEntity<String> insufficient = restTemplate.exchange(
+				"/api/accounts/12345/withdraw", HttpMethod.POST, new HttpEntity<>(request), String.class);
+		ResponseEntity<String> missing = restTemplate.exchange(
+				"/api/accounts/99999/withdraw", HttpMethod.POST, new HttpEntity<>(request), String.class);
+
+		assertThat(insufficient.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+		assertThat(insufficient.getBody()).contains("Insufficient balance");
+		assertThat(missing.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(missing.getBody()).contains("Account with number 99999 does not exist");
+	}
+
+	@Test
+	void creditsThatWouldOverflowTheBalanceAreRefused() {
+		accountRepository.saveAll(List.of(
+				new Account("12345", Long.MAX_VALUE - 50),
+				new Account("67890", 1000)));
+
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(BigDecimal.ONE);
+		ResponseEntity<String> deposit = restTemplate.exchange(
+				"/api/accounts/12345/deposit", HttpMethod.POST, new HttpEntity<>(request), String.class);
+		ResponseEntity<String> transfer = restTemplate.exchange(
+				"/api/accounts/transfer", HttpMethod.POST, new HttpEntity<>(transfer("67890", "12345")), String.class);
+		ResponseEntity<List<TransferResult>> batch = restTemplate.exchange("/api/accounts/transfers/batch", HttpMethod.POST,
+				new HttpEntity<>(List.of(transfer("67890", "12345"))), new ParameterizedTypeReference<List<TransferResult>>() {
+				});
+
+		assertThat(deposit.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+		assertThat(deposit.getBody()).contains("Balance exceeds the supported range");
+		assertThat(transfer.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+		assertThat(batch.getBody()).extracting(TransferResult::getStatus).containsExactly(HttpStatus.CONFLICT);
+		assertThat(accountRepository.findByAccountNumber("12345").getBalanceMinorUnits()).isEqualTo(Long.MAX_VALUE - 50);
+		assertThat(accountRepository.findByAccountNumber("67890").getBalanceMinorUnits()).isEqualTo(1000);
+		assertThat(ledgerEntryRepository.count()).isZero();
+	}
+
+	@Test
+	void transferToMissingAccountRollsBackDebit() {
+		accountRepository.save(new Account("12345", BigDecimal.valueOf(100)));
+
+		TransferRequest request = new TransferRequest();
+		request.setSourceAccountNumber("12345");
+		request.setTargetAccountNumber("67890");
+		request.setAmount(BigDecimal.TEN);
+
+		ResponseEntity<String> response = restTemplate.exchange(
+				"/api/accounts/transfer", HttpMethod.POST, new HttpEntity<>(request), String.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(accountRepository.findByAccountNumber("12345").getBalance()).isEqualByComparingTo(BigDecimal.valueOf(100));
+	}
+
+	@Test
+	void opposingBatchesDoNotDeadlock() {
+		accountRepository.saveAll(List.of(
+				new Account("12345", BigDecimal.valueOf(1000)),
+				new Account("67890", BigDecimal.valueOf(1000))));
+		List<TransferRequest> forward = List.of(transfer("12345", "67890"), transfer("67890", "12345"), transfer("12345", "67890"));
+		List<TransferRequest> backward = List.of(transfer("67890", "12345"), transfer("12345", "67890"), transfer("67890", "12345"));
+
+		List<CompletableFuture<ResponseEntity<List<TransferResult>>>> futures = IntStream.range(0, 40)
+				.mapToObj(i -> CompletableFuture.supplyAsync(() -> restTemplate.exchange("/api/accounts/transfers/batch",
+						HttpMethod.POST, new HttpEntity<>(i % 2 == 0 ? forward : backward),
+						new ParameterizedTypeReference<List<TransferResult>>() {
+						})))
+				.toList();
+
+		assertThat(futures).allSatisfy(future -> assertThat(future.join().getBody())
+				.extracting(TransferResult::getStatus).containsOnly(HttpStatus.OK));
+		assertThat(accountRepository.findByAccountNumber("12345").getBalance()
+				.add(accountRepository.findByAccountNumber("67890").getBalance())).isEqualByComparingTo(BigDecimal.valueOf(2000));
+	}
+
+	@Test
+	void ledgerRecordsBalanceAfterEachUpdate() {
+		accountRepository.saveAll(List.of(
+				new Account("12345", BigDecimal.valueOf(100)),
+				new Account("67890", BigDecimal.ZERO)));
+
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(BigDecimal.TEN);
+		restTemplate.exchange("/api/accounts/12345/deposit", HttpMethod.POST, new HttpEntity<>(request), String.class);
+		restTemplate.exchange("/api/accounts/12345/withdraw", HttpMethod.POST, new HttpEntity<>(request), String.class);
+		TransferRequest transfer = new TransferRequest();
+		transfer.setSourceAccountNumber("12345");
+		transfer.setTargetAccountNumber("67890");
+		transfer.setAmount(BigDecimal.valueOf(30));
+		restTemplate.exchange("/api/accounts/transfer", HttpMethod.POST, new HttpEntity<>(transfer), String.class);
+
+		List<LedgerEntry> entries = ledgerEntryRepository.findAll().stream()
+				.filter(entry -> entry.getAccountNumber().equals("12345"))
+				.toList();
+		assertThat(entries).extracting(LedgerEntry::getType)
+				.containsExactly(LedgerEntryType.DEPOSIT, LedgerEntryType.WITHDRAWAL, LedgerEntryType.TRANSFER_OUT);
+		assertThat(entries).extracting(LedgerEntry::getBalance)
+				.usingElementComparator(BigDecimal::compareTo)
+				.containsExactly(BigDecimal.valueOf(110), BigDecimal.valueOf(100), BigDecimal.valueOf(70));
+		assertThat(ledgerEntryRepository.findAll()).filteredOn(entry -> entry.getAccountNumber().equals("67890"))
+				.extracting(LedgerEntry::getBalance)
+				.usingElementComparator(BigDecimal::compareTo)
+				.containsExactly(BigDecimal.valueOf(30));
+	}
+
+	private static TransferRequest transfer(String source, String target) {
+		TransferRequest request = new TransferRequest();
+		request.setSourceAccountNumber(source);
+		request.setTargetAccountNumber(target);
+		request.setAmount(BigDecimal.ONE);
+		return request;
+	}
+}
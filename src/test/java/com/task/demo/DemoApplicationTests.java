@@ -4,20 +4,30 @@ import com.task.demo.entity.Account;
 import com.task.demo.payload.request.CreateAccountRequest;
 import com.task.demo.payload.request.TransactionRequest;
 import com.task.demo.payload.request.TransferRequest;
+import com.task.demo.payload.response.TransferResult;
 import com.task.demo.repository.AccountRepository;
+import com.task.demo.repository.LedgerEntryRepository;
+import com.task.demo.service.impl.AccountCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
@@ -32,9 +42,17 @@ class DemoApplicationTests {
 	@Autowired
 	private AccountRepository accountRepository;
 
+	@Autowired
+	private LedgerEntryRepository ledgerEntryRepository;
+
+	@Autowired
+	private AccountCache accountCache;
+
 	@BeforeEach
 	void setUp() {
 		accountRepository.deleteAll();
+		ledgerEntryRepository.deleteAll();
+		accountCache.invalidateAll();
 	}
 
 	@Test
@@ -252,4 +270,265 @@ class DemoApplicationTests {
 		String body = response.getBody();
 		assertThat(body).isNotNull().contains("Account with number 12345 does not exist");
 	}
+
+	@Test
+	void concurrentOpposingTransfers() throws ExecutionException, InterruptedException {
+		Account first = new Account("12345", BigDecimal.valueOf(1000));
+		Account second = new Account("67890", BigDecimal.valueOf(1000));
+		accountRepository.saveAll(List.of(first, second));
+
+		List<CompletableFuture<ResponseEntity<String>>> futures = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			TransferRequest transferRequest = new TransferRequest();
+			transferRequest.setSourceAccountNumber(i % 2 == 0 ? "12345" : "67890");
+			transferRequest.setTargetAccountNumber(i % 2 == 0 ? "67890" : "12345");
+			transferRequest.setAmount(BigDecimal.ONE);
+			futures.add(CompletableFuture.supplyAsync(() -> restTemplate.exchange(
+					"/api/accounts/transfer",
+					HttpMethod.POST,
+					new HttpEntity<>(transferRequest),
+					String.class
+			)));
+		}
+
+		for (CompletableFuture<ResponseEntity<String>> future : futures) {
+			assertThat(future.get().getStatusCode()).isEqualTo(HttpStatus.OK);
+		}
+		assertThat(accountRepository.findByAccountNumber("12345").getBalance()).isEqualByComparingTo(BigDecimal.valueOf(1000));
+		assertThat(accountRepository.findByAccountNumber("67890").getBalance()).isEqualByComparingTo(BigDecimal.valueOf(1000));
+	}
+
+	@Test
+	void transferBatch() {
+		Account first = new Account("12345", BigDecimal.valueOf(1000));
+		Account second = new Account("67890", BigDecimal.valueOf(100));
+		accountRepository.saveAll(List.of(first, second));
+
+		List<TransferRequest> requests = List.of(
+				transferRequest("12345", "67890", BigDecimal.valueOf(300)),
+				transferRequest("67890", "12345", BigDecimal.valueOf(1000)),
+				transferRequest("12345", "99999", BigDecimal.valueOf(10)),
+				transferRequest("67890", "12345", BigDecimal.valueOf(-5)),
+				transferRequest("67890", "12345", BigDecimal.valueOf(400)));
+
+		ResponseEntity<List<TransferResult>> response = restTemplate.exchange(
+				"/api/accounts/transfers/batch",
+				HttpMethod.POST,
+				new HttpEntity<>(requests),
+				new ParameterizedTypeReference<>() {
+				}
+		);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).extracting(TransferResult::getStatus).containsExactly(
+				HttpStatus.OK, HttpStatus.CONFLICT, HttpStatus.NOT_FOUND, HttpStatus.BAD_REQUEST, HttpStatus.OK);
+		assertThat(accountRepository.findByAccountNumber("12345").getBalance()).isEqualByComparingTo(BigDecimal.valueOf(1100));
+		assertThat(accountRepository.findByAccountNumber("67890").getBalance()).isEqualByComparingTo(BigDecimal.ZERO);
+	}
+
+	@Test
+	void transferBatchRefusesJsonArraysOverTheItemLimit() {
+		accountRepository.saveAll(List.of(
+				new Account("12345", BigDecimal.valueOf(1000)),
+				new Account("67890", BigDecimal.valueOf(100))));
+		List<TransferRequest> requests = Collections.nCopies(10_001, transferRequest("12345", "67890", BigDecimal.ONE));
+
+		ResponseEntity<String> response = restTemplate.postForEntity("/api/accounts/transfers/batch", requests, String.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+		assertThat(response.getBody()).contains("10000");
+		assertThat(accountRepository.findByAccountNumber("12345").getBalance()).isEqualByComparingTo(BigDecimal.valueOf(1000));
+	}
+
+	@Test
+	void transferBatchNdjsonStopsAtUnreadableLine() {
+		accountRepository.saveAll(List.of(
+				new Account("12345", BigDecimal.valueOf(1000)),
+				new Account("67890", BigDecimal.valueOf(100))));
+		String body = """
+				{"sourceAccountNumber":"12345","targetAccountNumber":"67890","amount":300}
+				{"sourceAccountNumber":"67890","targetAccountNumber":"12345","amount":1000}
+				{"sourceAccountNumber":"12345",
+				{"sourceAccountNumber":"12345","targetAccountNumber":"67890","amount":1}
+				""";
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_NDJSON);
+
+		ResponseEntity<List<TransferResult>> response = restTemplate.exchange(
+				"/api/accounts/transfers/batch",
+				HttpMethod.POST,
+				new HttpEntity<>(body, headers),
+				new ParameterizedTypeReference<>() {
+				}
+		);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).extracting(TransferResult::getStatus).containsExactly(
+				HttpStatus.OK, HttpStatus.CONFLICT, HttpStatus.BAD_REQUEST);
+		assertThat(accountRepository.findByAccountNumber("12345").getBalance()).isEqualByComparingTo(BigDecimal.valueOf(700));
+	}
+
+	@Test
+	void listAccountsPaged() {
+		accountRepository.saveAll(List.of(
+				new Account("11111", BigDecimal.ONE),
+				new Account("22222", BigDecimal.ONE),
+				new Account("33333", BigDecimal.ONE)));
+
+		ResponseEntity<List<Account>> firstPage = restTemplate.exchange(
+				"/api/accounts?limit=2",
+				HttpMethod.GET,
+				null,
+				new ParameterizedTypeReference<>() {
+				}
+		);
+		String cursor = firstPage.getHeaders().getFirst("X-Next-Cursor");
+		ResponseEntity<List<Account>> secondPage = restTemplate.exchange(
+				"/api/accounts?limit=2&cursor=" + cursor,
+				HttpMethod.GET,
+				null,
+				new ParameterizedTypeReference<>() {
+				}
+		);
+
+		assertThat(firstPage.getBody()).extracting(Account::getAccountNumber).containsExactly("11111", "22222");
+		assertThat(cursor).isNotNull();
+		assertThat(secondPage.getBody()).extracting(Account::getAccountNumber).containsExactly("33333");
+		assertThat(secondPage.getHeaders().containsKey("X-Next-Cursor")).isFalse();
+	}
+
+	@Test
+	void exportAccounts() {
+		accountRepository.saveAll(List.of(
+				new Account("11111", BigDecimal.ONE),
+				new Account("22222", BigDecimal.TEN)));
+
+		ResponseEntity<String> response = restTemplate.getForEntity("/api/accounts/export", String.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).isNotNull();
+		assertThat(response.getBody().lines()).hasSize(2)
+				.first().asString().contains("\"accountNumber\":\"11111\"");
+	}
+
+	@Test
+	void getAccountReflectsCommittedDeposit() {
+		accountRepository.save(new Account("12345", BigDecimal.valueOf(1000)));
+		restTemplate.getForEntity("/api/accounts/12345", Account.class);
+
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(BigDecimal.valueOf(200));
+		restTemplate.postForEntity("/api/accounts/12345/deposit", request, Account.class);
+
+		ResponseEntity<Account> response = restTemplate.getForEntity("/api/accounts/12345", Account.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).isNotNull();
+		assertThat(response.getBody().getBalance()).isEqualByComparingTo(BigDecimal.valueOf(1200));
+	}
+
+	@Test
+	void depositFundsWithTooManyDecimalPlaces() {
+		Account account = new Account("12345", BigDecimal.valueOf(1000));
+		accountRepository.save(account);
+
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(new BigDecimal("0.005"));
+
+		ResponseEntity<String> response = restTemplate.exchange(
+				"/api/accounts/12345/deposit",
+				HttpMethod.POST,
+				new HttpEntity<>(request),
+				new ParameterizedTypeReference<>() {
+				}
+		);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		assertThat(accountRepository.findByAccountNumber("12345").getBalance()).isEqualByComparingTo(BigDecimal.valueOf(1000));
+	}
+
+	@Test
+	void listTransactionsPaged() {
+		createAccountViaApi("12345", BigDecimal.valueOf(1000));
+		createAccountViaApi("67890", BigDecimal.ZERO);
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(BigDecimal.valueOf(100));
+		restTemplate.postForEntity("/api/accounts/12345/deposit", request, String.class);
+		request.setAmount(BigDecimal.valueOf(50));
+		restTemplate.postForEntity("/api/accounts/12345/withdraw", request, String.class);
+		restTemplate.postForEntity("/api/accounts/transfer", transferRequest("12345", "67890", BigDecimal.valueOf(25)), String.class);
+
+		ResponseEntity<List<Map<String, Object>>> firstPage = listTransactions("/api/accounts/12345/transactions?limit=2");
+		String cursor = firstPage.getHeaders().getFirst("X-Next-Cursor");
+		ResponseEntity<List<Map<String, Object>>> secondPage = listTransactions("/api/accounts/12345/transactions?limit=2&cursor=" + cursor);
+		ResponseEntity<List<Map<String, Object>>> target = listTransactions("/api/accounts/67890/transactions");
+
+		assertThat(firstPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(firstPage.getBody()).extracting(entry -> entry.get("type")).containsExactly("OPENING", "DEPOSIT");
+		assertThat(cursor).isNotNull();
+		assertThat(secondPage.getBody()).extracting(entry -> entry.get("type")).containsExactly("WITHDRAWAL", "TRANSFER_OUT");
+		assertThat(secondPage.getBody()).extracting(entry -> ((Number) entry.get("balance")).intValue()).containsExactly(1050, 1025);
+		assertThat(secondPage.getBody().get(1)).containsEntry("counterpartyAccountNumber", "67890");
+		assertThat(((Number) secondPage.getBody().get(1).get("amount")).intValue()).isEqualTo(-25);
+		assertThat(secondPage.getHeaders().containsKey("X-Next-Cursor")).isFalse();
+		assertThat(target.getBody()).extracting(entry -> entry.get("type")).containsExactly("OPENING", "TRANSFER_IN");
+	}
+
+	@Test
+	void listTransactionsInTimeRange() {
+		createAccountViaApi("12345", BigDecimal.valueOf(1000));
+		Instant afterOpening = Instant.now().plus(1, ChronoUnit.MILLIS);
+
+		ResponseEntity<List<Map<String, Object>>> before = listTransactions("/api/accounts/12345/transactions?to=" + afterOpening);
+		ResponseEntity<List<Map<String, Object>>> after = listTransactions("/api/accounts/12345/transactions?from=" + afterOpening);
+
+		assertThat(before.getBody()).extracting(entry -> entry.get("type")).containsExactly("OPENING");
+		assertThat(after.getBody()).isEmpty();
+	}
+
+	@Test
+	void listTransactionsRejectsInvalidRequests() {
+		ResponseEntity<String> missing = restTemplate.getForEntity("/api/accounts/99999/transactions", String.class);
+		ResponseEntity<String> badCursor = restTemplate.getForEntity("/api/accounts/99999/transactions?cursor=abc", String.class);
+		ResponseEntity<String> missingExport = restTemplate.getForEntity("/api/accounts/99999/transactions/export", String.class);
+
+		assertThat(missing.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(badCursor.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		assertThat(missingExport.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+	}
+
+	@Test
+	void exportTransactions() {
+		createAccountViaApi("12345", BigDecimal.valueOf(1000));
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(BigDecimal.TEN);
+		restTemplate.postForEntity("/api/accounts/12345/deposit", request, String.class);
+
+		ResponseEntity<String> response = restTemplate.getForEntity("/api/accounts/12345/transactions/export", String.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).isNotNull();
+		assertThat(response.getBody().lines()).hasSize(2)
+				.last().asString().contains("\"type\":\"DEPOSIT\"");
+	}
+
+	private void createAccountViaApi(String accountNumber, BigDecimal initialBalance) {
+		CreateAccountRequest request = new CreateAccountRequest();
+		request.setAccountNumber(accountNumber);
+		request.setInitialBalance(initialBalance);
+		restTemplate.postForEntity("/api/accounts", request, String.class);
+	}
+
+	private ResponseEntity<List<Map<String, Object>>> listTransactions(String url) {
+		return restTemplate.exchange(url, HttpMethod.GET, null, new ParameterizedTypeReference<>() {
+		});
+	}
+
+	private static TransferRequest transferRequest(String source, String target, BigDecimal amount) {
+		TransferRequest transferRequest = new TransferRequest();
+		transferRequest.setSourceAccountNumber(source);
+		transferRequest.setTargetAccountNumber(target);
+		transferRequest.setAmount(amount);
+		return transferRequest;
+	}
 }
@@ -0,0 +1,205 @@
+package com.task.demo;
+
+import com.task.demo.controller.IdempotencyStore;
+import com.task.demo.entity.Account;
+import com.task.demo.entity.IdempotencyRecord;
+import com.task.demo.payload.request.TransactionRequest;
+import com.task.demo.payload.request.TransferRequest;
+import com.task.demo.repository.AccountRepository;
+import com.task.demo.repository.IdempotencyRecordRepository;
+import com.task.demo.service.impl.AccountCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"account.idempotency.wait-timeout=2s", "account.idempotency.maximum-keys=3",
+				"spring.datasource.url=jdbc:h2:mem:idempotency-tests"})
+class IdempotencyTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private AccountCache accountCache;
+
+	@Autowired
+	private IdempotencyStore idempotencyStore;
+
+	@Autowired
+	private IdempotencyRecordRepository idempotencyRecordRepository;
+
+	@BeforeEach
+	void setUp() {
+		accountRepository.deleteAll();
+		accountCache.invalidateAll();
+		idempotencyStore.invalidateAll();
+	}
+
+	@Test
+	void retriedDepositIsAppliedOnce() {
+		accountRepository.save(new Account("12345", BigDecimal.valueOf(100)));
+
+		ResponseEntity<Account> first = post("/api/accounts/12345/deposit", amount(BigDecimal.TEN), "deposit-1", Account.class);
+		ResponseEntity<Account> retry = post("/api/accounts/12345/deposit", amount(BigDecimal.TEN), "deposit-1", Account.class);
+
+		assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+		assertThat(retry.getBody().getBalance()).isEqualByComparingTo(BigDecimal.valueOf(110));
+		assertThat(accountRepository.findByAccountNumber("12345").getBalance()).isEqualByComparingTo(BigDecimal.valueOf(110));
+	}
+
+	@Test
+	void concurrentDuplicateTransfersRunOnce() {
+		accountRepository.save(new Account("12345", BigDecimal.valueOf(100)));
+		accountRepository.save(new Account("67890", BigDecimal.ZERO));
+		TransferRequest request = new TransferRequest();
+		request.setSourceAccountNumber("12345");
+		request.setTargetAccountNumber("67890");
+		request.setAmount(BigDecimal.TEN);
+
+		List<CompletableFuture<ResponseEntity<String>>> futures = IntStream.range(0, 20)
+				.mapToObj(i -> CompletableFuture.supplyAsync(() -> post("/api/accounts/transfer", request, "transfer-1", String.class)))
+				.toList();
+
+		assertThat(futures).allSatisfy(future -> assertThat(future.join().getStatusCode()).isEqualTo(HttpStatus.OK));
+		assertThat(accountRepository.findByAccountNumber("12345").getBalance()).isEqualByComparingTo(BigDecimal.valueOf(90));
+		assertThat(accountRepository.findByAccountNumber("67890").getBalance()).isEqualByComparingTo(BigDecimal.TEN);
+	}
+
+	@Test
+	void keyReusedForDifferentRequestIsRejected() {
+		accountRepository.save(new Account("12345", BigDecimal.valueOf(100)));
+
+		post("/api/accounts/12345/deposit", amount(BigDecimal.TEN), "deposit-2", String.class);
+		ResponseEntity<String> sameAmount = post("/api/accounts/12345/deposit", amount(new BigDecimal("10.00")), "deposit-2", String.class);
+		ResponseEntity<String> otherAmount = post("/api/accounts/12345/deposit", amount(BigDecimal.ONE), "deposit-2", String.class);
+
+		assertThat(sameAmount.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(otherAmount.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+		assertThat(accountRepository.findByAccountNumber("12345").getBalance()).isEqualByComparingTo(BigDecimal.valueOf(110));
+	}
+
+	@Test
+	void conflictIsNotStored() {
+		accountRepository.save(new Account("12345", BigDecimal.valueOf(100)));
+
+		ResponseEntity<String> rejected = post("/api/accounts/12345/withdraw", amount(BigDecimal.valueOf(150)), "withdraw-1", String.class);
+		post("/api/accounts/12345/deposit", amount(BigDecimal.valueOf(100)), null, String.class);
+		ResponseEntity<String> retry = post("/api/accounts/12345/withdraw", amount(BigDecimal.valueOf(150)), "withdraw-1", String.class);
+
+		assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+		assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(retry.getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER)).isFalse();
+		assertThat(accountRepository.findByAccountNumber("12345").getBalance()).isEqualByComparingTo(BigDecimal.valueOf(50));
+	}
+
+	@Test
+	void keysClaimedElsewhereAreHonoured() {
+		accountRepository.save(new Account("12345", BigDecimal.valueOf(100)));
+		String fingerprint = "deposit 12345 10";
+		Instant claimedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+		idempotencyRecordRepository.claim("deposit-3", fingerprint, claimedAt);
+		idempotencyRecordRepository.claim("deposit-4", fingerprint, claimedAt);
+		idempotencyRecordRepository.complete("deposit-4", claimedAt, HttpStatus.OK.value(), MediaType.APPLICATION_JSON_VALUE,
+				"{\"accountNumber\":\"12345\",\"balance\":110}");
+
+		ResponseEntity<String> pending = post("/api/accounts/12345/deposit", amount(BigDecimal.TEN), "deposit-3", String.class);
+		ResponseEntity<Account> completed = post("/api/accounts/12345/deposit", amount(BigDecimal.TEN), "deposit-4", Account.class);
+
+		assertThat(pending.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+		assertThat(completed.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(completed.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+		assertThat(completed.getBody().getBalance()).isEqualByComparingTo(BigDecimal.valueOf(110));
+		assertThat(accountRepository.findByAccountNumber("12345").getBalance()).isEqualByComparingTo(BigDecimal.valueOf(100));
+	}
+
+	@Test
+	void stalePendingKeysAreSettledFromTheLedger() {
+		accountRepository.save(new Account("12345", BigDecimal.valueOf(100)));
+		post("/api/accounts/12345/deposit", amount(BigDecimal.TEN), "deposit-7", String.class);
+		// Both requests died before storing a response; only the first one's deposit committed.
+		Instant longAgo = Instant.now().minus(Duration.ofMinutes(2)).truncatedTo(ChronoUnit.MICROS);
+		idempotencyRecordRepository.deleteById("deposit-7");
+		idempotencyRecordRepository.claim("deposit-7", "deposit 12345 10", longAgo);
+		idempotencyRecordRepository.claim("deposit-8", "deposit 12345 10", longAgo);
+
+		ResponseEntity<String> applied = post("/api/accounts/12345/deposit", amount(BigDecimal.TEN), "deposit-7", String.class);
+		ResponseEntity<String> notApplied = post("/api/accounts/12345/deposit", amount(BigDecimal.TEN), "deposit-8", String.class);
+		ResponseEntity<String> retry = post("/api/accounts/12345/deposit", amount(BigDecimal.TEN), "deposit-8", String.class);
+
+		assertThat(applied.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(applied.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+		assertThat(applied.getBody()).isNull();
+		assertThat(notApplied.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(notApplied.getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER)).isFalse();
+		assertThat(retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+		assertThat(accountRepository.findByAccountNumber("12345").getBalance()).isEqualByComparingTo(BigDecimal.valueOf(120));
+	}
+
+	@Test
+	void onlyExpiredRecordsArePurged() {
+		idempotencyRecordRepository.claim("expired", "deposit 12345 10", Instant.now().minus(Duration.ofDays(2)));
+		idempotencyRecordRepository.claim("pending", "deposit 12345 10", Instant.now());
+
+		assertThat(idempotencyStore.purge()).isEqualTo(1);
+		assertThat(idempotencyRecordRepository.findAll()).extracting(IdempotencyRecord::getIdempotencyKey)
+				.containsExactly("pending");
+	}
+
+	@Test
+	void newKeysAreRefusedOnceTheStoreIsFull() {
+		accountRepository.save(new Account("12345", BigDecimal.valueOf(100)));
+		post("/api/accounts/12345/deposit", amount(BigDecimal.TEN), "deposit-5", String.class);
+		idempotencyRecordRepository.claim("other-1", "deposit 12345 1", Instant.now());
+		idempotencyRecordRepository.claim("other-2", "deposit 12345 1", Instant.now());
+		idempotencyStore.purge();
+
+		ResponseEntity<String> newKey = post("/api/accounts/12345/deposit", amount(BigDecimal.TEN), "deposit-6", String.class);
+		ResponseEntity<String> storedKey = post("/api/accounts/12345/deposit", amount(BigDecimal.TEN), "deposit-5", String.class);
+		ResponseEntity<String> withoutKey = post("/api/accounts/12345/deposit", amount(BigDecimal.TEN), null, String.class);
+
+		assertThat(newKey.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(newKey.getHeaders().containsKey(HttpHeaders.RETRY_AFTER)).isTrue();
+		assertThat(storedKey.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(storedKey.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+		assertThat(withoutKey.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(accountRepository.findByAccountNumber("12345").getBalance()).isEqualByComparingTo(BigDecimal.valueOf(120));
+	}
+
+	private <T> ResponseEntity<T> post(String url, Object body, String idempotencyKey, Class<T> responseType) {
+		HttpHeaders headers = new HttpHeaders();
+		if (idempotencyKey != null) {
+			headers.set(IdempotencyStore.IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+		}
+		return restTemplate.exchange(url, HttpMethod.POST, new HttpEntity<>(body, headers), responseType);
+	}
+
+	private static TransactionRequest amount(BigDecimal amount) {
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(amount);
+		return request;
+	}
+}
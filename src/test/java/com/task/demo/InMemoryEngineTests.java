@@ -0,0 +1,215 @@
+package com.task.demo;
+
+import com.task.demo.entity.Account;
+import com.task.demo.payload.request.CreateAccountRequest;
+import com.task.demo.payload.request.TransactionRequest;
+import com.task.demo.payload.request.TransferRequest;
+import com.task.demo.payload.response.AccountStats;
+import com.task.demo.service.IAccountService;
+import com.task.demo.service.audit.AuditLog;
+import com.task.demo.service.audit.AuditRingBuffer.OverflowMode;
+import com.task.demo.service.impl.InMemoryAccountService;
+import com.task.demo.service.memory.Journal;
+import com.task.demo.service.metrics.AccountMetrics;
+import com.task.demo.service.metrics.AccountStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"account.engine=in-memory", "account.journal.segment-size=64KB"})
+class InMemoryEngineTests {
+
+	@TempDir
+	static Path journalDirectory;
+
+	@TempDir
+	Path restartDirectory;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private IAccountService accountService;
+
+	@DynamicPropertySource
+	static void journalProperties(DynamicPropertyRegistry registry) {
+		registry.add("account.journal.directory", () -> journalDirectory.toString());
+	}
+
+	@Test
+	void accountOperationsAreServedFromMemory() {
+		assertThat(accountService).isInstanceOf(InMemoryAccountService.class);
+		restTemplate.postForEntity("/api/accounts", createRequest("10001", BigDecimal.valueOf(100)), String.class);
+		restTemplate.postForEntity("/api/accounts", createRequest("10002", BigDecimal.ZERO), String.class);
+
+		ResponseEntity<Account> deposit = restTemplate.postForEntity("/api/accounts/10001/deposit", amount(BigDecimal.valueOf(50)), Account.class);
+		ResponseEntity<String> overdraw = restTemplate.postForEntity("/api/accounts/10001/withdraw", amount(BigDecimal.valueOf(500)), String.class);
+		ResponseEntity<String> transfer = restTemplate.postForEntity("/api/accounts/transfer",
+				transferRequest("10001", "10002", BigDecimal.valueOf(30)), String.class);
+		ResponseEntity<String> missing = restTemplate.postForEntity("/api/accounts/19999/deposit", amount(BigDecimal.ONE), String.class);
+		ResponseEntity<String> duplicate = restTemplate.postForEntity("/api/accounts", createRequest("10001", BigDecimal.ONE), String.class);
+
+		assertThat(deposit.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(deposit.getBody().getBalance()).isEqualByComparingTo(BigDecimal.valueOf(150));
+		assertThat(overdraw.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+		assertThat(transfer.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(missing.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(duplicate.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+		assertThat(restTemplate.getForObject("/api/accounts/10001", Account.class).getBalance())
+				.isEqualByComparingTo(BigDecimal.valueOf(120));
+		assertThat(restTemplate.getForObject("/api/accounts/10002", Account.class).getBalance())
+				.isEqualByComparingTo(BigDecimal.valueOf(30));
+		assertThat(restTemplate.getForEntity("/api/accounts/10001/transactions", String.class).getStatusCode())
+				.isEqualTo(HttpStatus.BAD_REQUEST);
+		assertThat(restTemplate.getForEntity("/api/accounts/10001/transactions/export", String.class).getStatusCode())
+				.isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void journalIsReplayedOnRestart() throws Exception {
+		InMemoryAccountService service = newService();
+		service.createAccount(createRequest("20001", BigDecimal.valueOf(3000)));
+		service.createAccount(createRequest("20002", BigDecimal.ZERO));
+		for (int i = 0; i < 3000; i++) {
+			service.transfer(transferRequest("20001", "20002", BigDecimal.ONE));
+		}
+		service.deposit("20001", amount(BigDecimal.TEN));
+		service.withdraw("20002", amount(new BigDecimal("0.50")));
+		service.close();
+
+		InMemoryAccountService restarted = newService();
+		try {
+			assertThat(restarted.getAccount("20001").getBalance()).isEqualByComparingTo(BigDecimal.valueOf(10));
+			assertThat(restarted.getAccount("20002").getBalance()).isEqualByComparingTo(new BigDecimal("2999.50"));
+			AccountStats stats = restarted.getStats();
+			assertThat(stats.getAccountCount()).isEqualTo(2);
+			assertThat(stats.getTotalBalance()).isEqualByComparingTo(new BigDecimal("3009.50"));
+			assertThat(stats.getTransfers().count()).isEqualTo(3000);
+			assertThat(stats.getBalanceDistribution()).extracting(AccountStats.BalanceBucket::accounts).containsExactly(0L, 1L, 1L);
+			try (Stream<Path> segments = Files.list(restartDirectory)) {
+				assertThat(segments.count()).isGreaterThan(1);
+			}
+		} finally {
+			restarted.close();
+		}
+	}
+
+	@Test
+	void readsSeeWholeMutationsWhileTheTableGrows() throws Exception {
+		InMemoryAccountService service = newService();
+		try {
+			service.createAccount(createRequest("40001", BigDecimal.valueOf(1000)));
+			service.createAccount(createRequest("40002", BigDecimal.valueOf(1000)));
+			Thread writer = Thread.ofPlatform().start(() -> {
+				try {
+					for (int i = 0; i < 3000; i++) {
+						service.createAccount(createRequest("41" + i, BigDecimal.ONE));
+						service.transfer(i % 2 == 0 ? transferRequest("40001", "40002", BigDecimal.TEN)
+								: transferRequest("40002", "40001", BigDecimal.TEN));
+					}
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			while (writer.isAlive()) {
+				List<Account> pair = service.listAccounts(null, 2).getAccounts();
+				assertThat(pair.get(0).getBalance().add(pair.get(1).getBalance())).isEqualByComparingTo(BigDecimal.valueOf(2000));
+				assertThat(service.getAccount("40002")).isNotNull();
+			}
+			writer.join();
+			assertThat(service.getAccount("412999").getBalance()).isEqualByComparingTo(BigDecimal.ONE);
+		} finally {
+			service.close();
+		}
+	}
+
+	@Test
+	void tornTailIsDiscardedOnRestart() throws Exception {
+		List<Long> amounts = new ArrayList<>();
+		Journal journal = new Journal(restartDirectory, 64 * 1024, (type, account, counterparty, amount) -> amounts.add(amount));
+		journal.append(Journal.RecordType.CREATE, "30001", null, 100);
+		long position = journal.append(Journal.RecordType.DEPOSIT, "30001", null, 5);
+		journal.close();
+		try (FileChannel segment = FileChannel.open(restartDirectory.resolve("00000000000000000000.journal"), StandardOpenOption.WRITE)) {
+			segment.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3, 4, 5}), position);
+		}
+
+		journal = new Journal(restartDirectory, 64 * 1024, (type, account, counterparty, amount) -> amounts.add(amount));
+		journal.append(Journal.RecordType.DEPOSIT, "30001", null, 7);
+		journal.close();
+		new Journal(restartDirectory, 64 * 1024, (type, account, counterparty, amount) -> amounts.add(amount)).close();
+
+		assertThat(amounts).containsExactly(100L, 5L, 100L, 5L, 7L);
+	}
+
+	@Test
+	void accountNumbersRoundTripThroughTheJournalInUtf8() throws Exception {
+		List<String> accountNumbers = new ArrayList<>();
+		String[] written = {"30002", "Konto-\u00e9\u00df", "\u53e3\u5ea7", "\ud83d\udcb0-1", "bad-\ud83d"};
+		Journal journal = new Journal(restartDirectory, 64 * 1024, (type, account, counterparty, amount) -> {
+		});
+		for (String accountNumber : written) {
+			journal.append(Journal.RecordType.TRANSFER, accountNumber, "30002", 1);
+		}
+		journal.close();
+
+		new Journal(restartDirectory, 64 * 1024, (type, account, counterparty, amount) -> {
+			accountNumbers.add(account);
+			assertThat(counterparty).isEqualTo("30002");
+		}).close();
+
+		assertThat(accountNumbers).containsExactly("30002", "Konto-\u00e9\u00df", "\u53e3\u5ea7", "\ud83d\udcb0-1", "bad-?");
+	}
+
+	private InMemoryAccountService newService() throws IOException {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		AuditLog disabledAuditLog = new AuditLog(false, null, 1, OverflowMode.DROP, DataSize.ofBytes(1),
+				AuditLog.FlushPolicy.NONE, Duration.ZERO, registry);
+		return new InMemoryAccountService(new AccountMetrics(registry, 20), disabledAuditLog,
+				new AccountStatistics(List.of(BigDecimal.ONE, BigDecimal.valueOf(1000))), restartDirectory.toString(), DataSize.ofKilobytes(64), false, 500, 1000);
+	}
+
+	private static CreateAccountRequest createRequest(String accountNumber, BigDecimal initialBalance) {
+		CreateAccountRequest request = new CreateAccountRequest();
+		request.setAccountNumber(accountNumber);
+		request.setInitialBalance(initialBalance);
+		return request;
+	}
+
+	private static TransactionRequest amount(BigDecimal amount) {
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(amount);
+		return request;
+	}
+
+	private static TransferRequest transferRequest(String source, String target, BigDecimal amount) {
+		TransferRequest request = new TransferRequest();
+		request.setSourceAccountNumber(source);
+		request.setTargetAccountNumber(target);
+		request.setAmount(amount);
+		return request;
+	}
+}
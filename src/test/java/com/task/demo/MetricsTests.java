@@ -0,0 +1,102 @@
+package com.task.demo;
+
+import com.task.demo.entity.Account;
+import com.task.demo.payload.request.TransactionRequest;
+import com.task.demo.payload.request.TransferRequest;
+import com.task.demo.repository.AccountRepository;
+import com.task.demo.service.impl.AccountCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MetricsTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private AccountCache accountCache;
+
+	@BeforeEach
+	void setUp() {
+		accountRepository.deleteAll();
+		accountCache.invalidateAll();
+	}
+
+	@Test
+	void prometheusEndpointExposesOperationAndLockMetrics() {
+		accountRepository.save(new Account("12345", BigDecimal.valueOf(100)));
+		restTemplate.postForEntity("/api/accounts/12345/deposit", amount(BigDecimal.TEN), String.class);
+		restTemplate.postForEntity("/api/accounts/12345/withdraw", amount(BigDecimal.valueOf(1000)), String.class);
+		restTemplate.postForEntity("/api/accounts/99999/deposit", amount(BigDecimal.TEN), String.class);
+
+		ResponseEntity<String> response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		List<String> lines = response.getBody().lines().toList();
+		assertThat(lines).anyMatch(line -> line.startsWith("account_operation_seconds_count")
+				&& line.contains("operation=\"deposit\"") && line.contains("outcome=\"success\"") && !line.endsWith(" 0"));
+		assertThat(lines).anyMatch(line -> line.startsWith("account_operation_seconds_count")
+				&& line.contains("operation=\"withdraw\"") && line.contains("outcome=\"insufficient_balance\"") && !line.endsWith(" 0"));
+		assertThat(lines).anyMatch(line -> line.startsWith("account_operation_seconds_count")
+				&& line.contains("operation=\"deposit\"") && line.contains("outcome=\"not_found\"") && !line.endsWith(" 0"));
+		assertThat(lines).anyMatch(line -> line.startsWith("account_lock_wait_seconds_bucket") && line.contains("lock=\"striped\""));
+		assertThat(lines).anyMatch(line -> line.startsWith("account_lock_hold_seconds_count") && !line.endsWith(" 0"));
+		assertThat(lines).anyMatch(line -> line.startsWith("account_lock_failures_total"));
+	}
+
+	@Test
+	void hotAccountsEndpointRanksMostTouchedAccounts() {
+		accountRepository.saveAll(List.of(
+				new Account("11111", BigDecimal.valueOf(1000)),
+				new Account("22222", BigDecimal.valueOf(1000)),
+				new Account("33333", BigDecimal.valueOf(1000))));
+		for (int i = 0; i < 30; i++) {
+			restTemplate.postForEntity("/api/accounts/11111/deposit", amount(BigDecimal.ONE), String.class);
+		}
+		for (int i = 0; i < 10; i++) {
+			TransferRequest request = new TransferRequest();
+			request.setSourceAccountNumber("22222");
+			request.setTargetAccountNumber("33333");
+			request.setAmount(BigDecimal.ONE);
+			restTemplate.postForEntity("/api/accounts/transfer", request, String.class);
+		}
+
+		ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
+				"/actuator/hotaccounts?limit=2",
+				HttpMethod.GET,
+				null,
+				new ParameterizedTypeReference<>() {
+				}
+		);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).hasSize(2);
+		assertThat(response.getBody().get(0)).containsEntry("accountNumber", "11111");
+		assertThat(((Number) response.getBody().get(0).get("count")).longValue()).isGreaterThanOrEqualTo(30);
+	}
+
+	private static TransactionRequest amount(BigDecimal amount) {
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(amount);
+		return request;
+	}
+}
@@ -0,0 +1,58 @@
+package com.task.demo;
+
+import com.task.demo.entity.Account;
+import com.task.demo.entity.Money;
+import com.task.demo.payload.request.CreateAccountRequest;
+import com.task.demo.payload.request.TransactionRequest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs in a JVM of its own, see the {@code money-scale} execution in the pom.
+ */
+@Tag("money-scale")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"account.money.scale=3", "spring.datasource.url=jdbc:h2:mem:money-scale-tests"})
+class MoneyScaleTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Test
+	void amountsRoundTripAtTheConfiguredScale() {
+		CreateAccountRequest create = new CreateAccountRequest();
+		create.setAccountNumber("MS-1");
+		create.setInitialBalance(new BigDecimal("1.5"));
+		assertThat(restTemplate.postForEntity("/api/accounts", create, Account.class).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+		ResponseEntity<Account> deposited = restTemplate.postForEntity("/api/accounts/MS-1/deposit", amount("0.125"), Account.class);
+		ResponseEntity<String> tooPrecise = restTemplate.postForEntity("/api/accounts/MS-1/deposit", amount("0.0001"), String.class);
+
+		assertThat(deposited.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(deposited.getBody().getBalance()).isEqualTo(new BigDecimal("1.625"));
+		assertThat(tooPrecise.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		assertThat(restTemplate.getForObject("/api/accounts/MS-1", Account.class).getBalance()).isEqualTo(new BigDecimal("1.625"));
+	}
+
+	@Test
+	void anotherScaleCannotBeSetInTheSameJvm() {
+		assertThatThrownBy(() -> Money.setScale(Money.DEFAULT_SCALE)).isInstanceOf(IllegalStateException.class);
+		Money.setScale(3);
+	}
+
+	private static TransactionRequest amount(String amount) {
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(new BigDecimal(amount));
+		return request;
+	}
+}
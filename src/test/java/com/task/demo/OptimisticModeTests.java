@@ -0,0 +1,60 @@
+package com.task.demo;
+
+import com.task.demo.entity.Account;
+import com.task.demo.payload.request.TransactionRequest;
+import com.task.demo.repository.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "account.concurrency.mode=optimistic")
+class OptimisticModeTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@BeforeEach
+	void setUp() {
+		accountRepository.deleteAll();
+	}
+
+	@Test
+	void concurrentDepositsAreRetriedWithoutLostUpdates() {
+		accountRepository.save(new Account("12345", BigDecimal.valueOf(1000)));
+
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(BigDecimal.TEN);
+
+		List<CompletableFuture<ResponseEntity<String>>> futures = IntStream.range(0, 40)
+				.mapToObj(i -> CompletableFuture.supplyAsync(() -> restTemplate.exchange(
+						"/api/accounts/12345/deposit", HttpMethod.POST, new HttpEntity<>(request), String.class)))
+				.toList();
+
+		long succeeded = futures.stream()
+				.map(CompletableFuture::join)
+				.filter(response -> response.getStatusCode() == HttpStatus.OK)
+				.count();
+
+		Account account = accountRepository.findByAccountNumber("12345");
+		assertThat(succeeded).isPositive();
+		assertThat(account.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(1000 + 10 * succeeded));
+		assertThat(account.getVersion()).isEqualTo(succeeded);
+	}
+}
@@ -0,0 +1,110 @@
+package com.task.demo;
+
+import com.task.demo.entity.Account;
+import com.task.demo.entity.LedgerEntryType;
+import com.task.demo.payload.request.CreateAccountRequest;
+import com.task.demo.payload.request.TransactionRequest;
+import com.task.demo.payload.request.TransferRequest;
+import com.task.demo.repository.AccountRepository;
+import com.task.demo.service.event.BalanceChangedEvent;
+import com.task.demo.service.impl.AccountReadModel;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"account.read-model.enabled=true", "account.read-model.refresh-interval=1h",
+				"spring.datasource.url=jdbc:h2:mem:read-model-tests"})
+class ReadModelTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private AccountReadModel readModel;
+
+	@Test
+	void readsFollowCommittedChangesWithoutReload() {
+		createAccount("RM-1", BigDecimal.valueOf(100));
+		createAccount("RM-2", BigDecimal.ZERO);
+		restTemplate.postForEntity("/api/accounts/RM-1/deposit", amount(BigDecimal.valueOf(50)), String.class);
+		restTemplate.postForEntity("/api/accounts/transfer", transfer("RM-1", "RM-2", BigDecimal.valueOf(30)), String.class);
+
+		Account stored = accountRepository.findByAccountNumber("RM-1");
+		Account read = restTemplate.getForObject("/api/accounts/RM-1", Account.class);
+		assertThat(read.getId()).isEqualTo(stored.getId());
+		assertThat(read.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(120));
+		assertThat(read.getVersion()).isEqualTo(stored.getVersion());
+		assertThat(restTemplate.getForObject("/api/accounts/RM-2", Account.class).getBalance())
+				.isEqualByComparingTo(BigDecimal.valueOf(30));
+
+		ResponseEntity<List<Account>> page = restTemplate.exchange("/api/accounts?limit=1000", HttpMethod.GET, null,
+				new ParameterizedTypeReference<>() {
+				});
+		assertThat(page.getBody()).extracting(Account::getId).isSorted();
+		assertThat(page.getBody()).extracting(Account::getAccountNumber).contains("RM-1", "RM-2");
+	}
+
+	@Test
+	void reloadPicksUpRowsWrittenElsewhere() {
+		accountRepository.save(new Account("RM-3", BigDecimal.TEN));
+		assertThat(restTemplate.getForObject("/api/accounts/RM-3", Account.class)).isNull();
+
+		readModel.refresh();
+		assertThat(restTemplate.getForObject("/api/accounts/RM-3", Account.class).getBalance())
+				.isEqualByComparingTo(BigDecimal.TEN);
+
+		Account account = accountRepository.findByAccountNumber("RM-3");
+		account.deposit(500);
+		accountRepository.save(account);
+		readModel.refresh();
+		assertThat(restTemplate.getForObject("/api/accounts/RM-3", Account.class).getBalance())
+				.isEqualByComparingTo(BigDecimal.valueOf(15));
+	}
+
+	@Test
+	void outdatedChangesAreIgnored() {
+		createAccount("RM-4", BigDecimal.ONE);
+		restTemplate.postForEntity("/api/accounts/RM-4/deposit", amount(BigDecimal.ONE), String.class);
+		Account current = restTemplate.getForObject("/api/accounts/RM-4", Account.class);
+
+		readModel.onBalanceChanged(new BalanceChangedEvent(current.getId(), "RM-4", LedgerEntryType.OPENING, 100, 100, 0));
+
+		assertThat(restTemplate.getForObject("/api/accounts/RM-4", Account.class).getBalance())
+				.isEqualByComparingTo(BigDecimal.valueOf(2));
+	}
+
+	private void createAccount(String accountNumber, BigDecimal initialBalance) {
+		CreateAccountRequest request = new CreateAccountRequest();
+		request.setAccountNumber(accountNumber);
+		request.setInitialBalance(initialBalance);
+		assertThat(restTemplate.postForEntity("/api/accounts", request, String.class).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+	}
+
+	private static TransactionRequest amount(BigDecimal amount) {
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(amount);
+		return request;
+	}
+
+	private static TransferRequest transfer(String source, String target, BigDecimal amount) {
+		TransferRequest request = new TransferRequest();
+		request.setSourceAccountNumber(source);
+		request.setTargetAccountNumber(target);
+		request.setAmount(amount);
+		return request;
+	}
+}
@@ -0,0 +1,87 @@
+package com.task.demo;
+
+import com.task.demo.entity.Account;
+import com.task.demo.payload.request.TransactionRequest;
+import com.task.demo.payload.request.TransferRequest;
+import com.task.demo.repository.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "account.concurrency.mode=sequencer")
+class SequencerModeTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@BeforeEach
+	void setUp() {
+		accountRepository.deleteAll();
+	}
+
+	@Test
+	void concurrentDepositsAreQueuedInsteadOfRejected() {
+		accountRepository.save(new Account("12345", BigDecimal.valueOf(1000)));
+
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(BigDecimal.TEN);
+
+		List<HttpStatusCode> statuses = runConcurrently(50, i -> restTemplate.exchange(
+				"/api/accounts/12345/deposit", HttpMethod.POST, new HttpEntity<>(request), String.class));
+
+		assertThat(statuses).containsOnly(HttpStatus.OK);
+		assertThat(accountRepository.findByAccountNumber("12345").getBalance())
+				.isEqualByComparingTo(BigDecimal.valueOf(1500));
+	}
+
+	@Test
+	void opposingTransfersDoNotRejectEachOther() {
+		accountRepository.saveAll(List.of(
+				new Account("12345", BigDecimal.valueOf(1000)),
+				new Account("67890", BigDecimal.valueOf(1000))));
+
+		List<HttpStatusCode> statuses = runConcurrently(40, i -> {
+			TransferRequest request = new TransferRequest();
+			request.setSourceAccountNumber(i % 2 == 0 ? "12345" : "67890");
+			request.setTargetAccountNumber(i % 2 == 0 ? "67890" : "12345");
+			request.setAmount(BigDecimal.ONE);
+			return restTemplate.exchange("/api/accounts/transfer", HttpMethod.POST, new HttpEntity<>(request), String.class);
+		});
+
+		assertThat(statuses).containsOnly(HttpStatus.OK);
+		assertThat(accountRepository.findByAccountNumber("12345").getBalance())
+				.isEqualByComparingTo(BigDecimal.valueOf(1000));
+		assertThat(accountRepository.findByAccountNumber("67890").getBalance())
+				.isEqualByComparingTo(BigDecimal.valueOf(1000));
+	}
+
+	private List<HttpStatusCode> runConcurrently(int count, IntFunction<ResponseEntity<String>> call) {
+		try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+			List<CompletableFuture<HttpStatusCode>> futures = IntStream.range(0, count)
+					.mapToObj(i -> CompletableFuture.supplyAsync(() -> call.apply(i).getStatusCode(), executor))
+					.toList();
+			return futures.stream().map(CompletableFuture::join).toList();
+		}
+	}
+}
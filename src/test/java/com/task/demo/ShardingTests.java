@@ -0,0 +1,237 @@
+package com.task.demo;
+
+import com.task.demo.entity.Account;
+import com.task.demo.entity.OutboxTransfer;
+import com.task.demo.entity.ReceivedTransfer;
+import com.task.demo.payload.request.CreateAccountRequest;
+import com.task.demo.payload.request.TransferRequest;
+import com.task.demo.repository.OutboxTransferRepository;
+import com.task.demo.repository.ReceivedTransferRepository;
+import com.task.demo.repository.sharding.ShardRouter;
+import com.task.demo.service.IBalanceService;
+import com.task.demo.service.Transfer;
+import com.task.demo.service.impl.CrossShardTransfers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"account.sharding.shard-count=3", "account.sharding.url=jdbc:h2:mem:sharding-tests-%d",
+				"account.sharding.outbox.relay-interval=1h", "account.sharding.outbox.relay-delay=0ms",
+				"account.sharding.outbox.max-attempts=2"})
+class ShardingTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private ShardRouter shardRouter;
+
+	@Autowired
+	private OutboxTransferRepository outboxTransferRepository;
+
+	@Autowired
+	private ReceivedTransferRepository receivedTransferRepository;
+
+	@Autowired
+	private IBalanceService balanceService;
+
+	@Autowired
+	private CrossShardTransfers crossShardTransfers;
+
+	@Test
+	void accountsAreSpreadAcrossShardsAndListedInIdOrder() {
+		List<String> accountNumbers = IntStream.rangeClosed(1, 30).mapToObj(i -> String.format("A%04d", i)).toList();
+		Set<Integer> shards = new HashSet<>();
+		for (String accountNumber : accountNumbers) {
+			Account account = restTemplate.postForEntity("/api/accounts", createRequest(accountNumber, BigDecimal.ONE), Account.class).getBody();
+			assertThat(ShardRouter.shardOfId(account.getId())).isEqualTo(shardRouter.shardOf(accountNumber));
+			shards.add(shardRouter.shardOf(accountNumber));
+		}
+
+		List<Account> listed = new ArrayList<>();
+		String cursor = null;
+		do {
+			ResponseEntity<List<Account>> page = restTemplate.exchange(
+					"/api/accounts?limit=7" + (cursor == null ? "" : "&cursor=" + cursor),
+					HttpMethod.GET,
+					null,
+					new ParameterizedTypeReference<>() {
+					}
+			);
+			listed.addAll(page.getBody());
+			cursor = page.getHeaders().getFirst("X-Next-Cursor");
+		} while (cursor != null);
+		ResponseEntity<String> export = restTemplate.getForEntity("/api/accounts/export", String.class);
+
+		assertThat(shards).hasSize(3);
+		assertThat(listed).extracting(Account::getId).isSorted().doesNotHaveDuplicates();
+		assertThat(listed).extracting(Account::getAccountNumber).containsAll(accountNumbers);
+		assertThat(export.getBody().lines()).hasSize(listed.size());
+		assertThat(restTemplate.getForObject("/api/accounts/A0017", Account.class).getAccountNumber()).isEqualTo("A0017");
+	}
+
+	@Test
+	void transferBetweenShardsMovesMoneyOnce() {
+		String[] accounts = accountsOnDifferentShards("B");
+		createAccount(accounts[0], BigDecimal.valueOf(100));
+		createAccount(accounts[1], BigDecimal.ZERO);
+
+		ResponseEntity<String> response = restTemplate.postForEntity("/api/accounts/transfer",
+				transferRequest(accounts[0], accounts[1], BigDecimal.valueOf(40)), String.class);
+		ResponseEntity<String> overdraw = restTemplate.postForEntity("/api/accounts/transfer",
+				transferRequest(accounts[0], accounts[1], BigDecimal.valueOf(500)), String.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(overdraw.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+		assertThat(balance(accounts[0])).isEqualByComparingTo(BigDecimal.valueOf(60));
+		assertThat(balance(accounts[1])).isEqualByComparingTo(BigDecimal.valueOf(40));
+		assertThat(transactions(accounts[1])).extracting(entry -> entry.get("type"))
+				.containsExactly("OPENING", "TRANSFER_IN");
+		assertThat(shardRouter.onShardOf(accounts[0], () -> outboxTransferRepository.count())).isZero();
+	}
+
+	@Test
+	void batchMixesTransfersWithinAndBetweenShards() {
+		String[] accounts = accountsOnDifferentShards("C");
+		String sameShard = accountOnShard("D", shardRouter.shardOf(accounts[0]));
+		createAccount(accounts[0], BigDecimal.valueOf(100));
+		createAccount(accounts[1], BigDecimal.ZERO);
+		createAccount(sameShard, BigDecimal.ZERO);
+
+		ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
+				"/api/accounts/transfers/batch",
+				HttpMethod.POST,
+				new HttpEntity<>(List.of(
+						transferRequest(accounts[0], sameShard, BigDecimal.valueOf(30)),
+						transferRequest(accounts[0], accounts[1], BigDecimal.valueOf(50)),
+						transferRequest(accounts[0], accounts[1], BigDecimal.valueOf(50)))),
+				new ParameterizedTypeReference<>() {
+				}
+		);
+
+		assertThat(response.getBody()).extracting(result -> result.get("status"))
+				.containsExactly("OK", "OK", "CONFLICT");
+		assertThat(balance(accounts[0])).isEqualByComparingTo(BigDecimal.valueOf(20));
+		assertThat(balance(accounts[1])).isEqualByComparingTo(BigDecimal.valueOf(50));
+		assertThat(balance(sameShard)).isEqualByComparingTo(BigDecimal.valueOf(30));
+	}
+
+	@Test
+	void relayCreditsTransferLeftInOutbox() throws Exception {
+		String[] accounts = accountsOnDifferentShards("E");
+		createAccount(accounts[0], BigDecimal.valueOf(100));
+		createAccount(accounts[1], BigDecimal.ZERO);
+		Transfer transfer = new Transfer(accounts[0], accounts[1], 2500);
+
+		// The process stops after the debit committed, before the credit was delivered.
+		shardRouter.onShardOf(accounts[0], () -> {
+			balanceService.beginTransfer("relay-test", transfer, null);
+			return null;
+		});
+		assertThat(balance(accounts[0])).isEqualByComparingTo(BigDecimal.valueOf(75));
+		assertThat(balance(accounts[1])).isEqualByComparingTo(BigDecimal.ZERO);
+
+		crossShardTransfers.relay();
+		crossShardTransfers.relay();
+
+		assertThat(balance(accounts[1])).isEqualByComparingTo(BigDecimal.valueOf(25));
+		assertThat(shardRouter.onShardOf(accounts[0], () -> outboxTransferRepository.count())).isZero();
+		assertThat(shardRouter.onShardOf(accounts[1], () -> balanceService.completeTransfer("relay-test", transfer))).isFalse();
+		assertThat(balance(accounts[1])).isEqualByComparingTo(BigDecimal.valueOf(25));
+	}
+
+	@Test
+	void relayDeadLettersUndeliverableTransfersAndPurgesOldReceipts() throws Exception {
+		String[] accounts = accountsOnDifferentShards("F");
+		createAccount(accounts[0], BigDecimal.valueOf(100));
+		// The target was never created, so the credit can never apply.
+		Transfer transfer = new Transfer(accounts[0], accounts[1], 1000);
+		shardRouter.onShardOf(accounts[0], () -> {
+			balanceService.beginTransfer("dead-letter-test", transfer, null);
+			return null;
+		});
+		ReceivedTransfer oldReceipt = new ReceivedTransfer("old-receipt");
+		ReflectionTestUtils.setField(oldReceipt, "receivedAt", Instant.now().minus(Duration.ofDays(8)));
+		shardRouter.onShardOf(accounts[1], () -> receivedTransferRepository.saveAll(
+				List.of(oldReceipt, new ReceivedTransfer("recent-receipt"))));
+
+		crossShardTransfers.relay();
+		crossShardTransfers.relay();
+		crossShardTransfers.relay();
+
+		OutboxTransfer deadLettered = shardRouter.onShardOf(accounts[0], () -> outboxTransferRepository.findAll()).stream()
+				.filter(outboxTransfer -> outboxTransfer.getTransferId().equals("dead-letter-test"))
+				.findFirst().orElseThrow();
+		assertThat(deadLettered.getAttempts()).isEqualTo(2);
+		assertThat(deadLettered.getDeadLetteredAt()).isNotNull();
+		assertThat(balance(accounts[0])).isEqualByComparingTo(BigDecimal.valueOf(90));
+		assertThat(shardRouter.onShardOf(accounts[1], () -> receivedTransferRepository.existsByTransferId("old-receipt"))).isFalse();
+		assertThat(shardRouter.onShardOf(accounts[1], () -> receivedTransferRepository.existsByTransferId("recent-receipt"))).isTrue();
+
+		// Settled by hand.
+		shardRouter.onShardOf(accounts[0], () -> outboxTransferRepository.deleteByTransferId("dead-letter-test"));
+	}
+
+	private String[] accountsOnDifferentShards(String prefix) {
+		String source = prefix + "1";
+		return new String[]{source, IntStream.iterate(2, i -> i + 1).mapToObj(i -> prefix + i)
+				.filter(candidate -> !shardRouter.sameShard(source, candidate))
+				.findFirst().orElseThrow()};
+	}
+
+	private String accountOnShard(String prefix, int shard) {
+		return IntStream.iterate(1, i -> i + 1).mapToObj(i -> prefix + i)
+				.filter(candidate -> shardRouter.shardOf(candidate) == shard)
+				.findFirst().orElseThrow();
+	}
+
+	private void createAccount(String accountNumber, BigDecimal initialBalance) {
+		assertThat(restTemplate.postForEntity("/api/accounts", createRequest(accountNumber, initialBalance), String.class)
+				.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+	}
+
+	private BigDecimal balance(String accountNumber) {
+		return restTemplate.getForObject("/api/accounts/" + accountNumber, Account.class).getBalance();
+	}
+
+	private List<Map<String, Object>> transactions(String accountNumber) {
+		return restTemplate.exchange("/api/accounts/" + accountNumber + "/transactions", HttpMethod.GET, null,
+				new ParameterizedTypeReference<List<Map<String, Object>>>() {
+				}).getBody();
+	}
+
+	private static CreateAccountRequest createRequest(String accountNumber, BigDecimal initialBalance) {
+		CreateAccountRequest request = new CreateAccountRequest();
+		request.setAccountNumber(accountNumber);
+		request.setInitialBalance(initialBalance);
+		return request;
+	}
+
+	private static TransferRequest transferRequest(String source, String target, BigDecimal amount) {
+		TransferRequest request = new TransferRequest();
+		request.setSourceAccountNumber(source);
+		request.setTargetAccountNumber(target);
+		request.setAmount(amount);
+		return request;
+	}
+}
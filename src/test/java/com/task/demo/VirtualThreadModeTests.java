@@ -0,0 +1,83 @@
+package com.task.demo;
+
+import com.task.demo.entity.Account;
+import com.task.demo.payload.request.TransactionRequest;
+import com.task.demo.repository.AccountRepository;
+import com.task.demo.service.impl.AccountCache;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("virtual")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "account.lock.wait-timeout=30s")
+class VirtualThreadModeTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private AccountCache accountCache;
+
+	@Autowired
+	private ServletWebServerApplicationContext context;
+
+	@BeforeEach
+	void setUp() {
+		accountRepository.deleteAll();
+		accountCache.invalidateAll();
+	}
+
+	@Test
+	void requestsAreServedOnVirtualThreads() {
+		TomcatWebServer webServer = (TomcatWebServer) context.getWebServer();
+
+		assertThat(webServer.getTomcat().getConnector().getProtocolHandler().getExecutor())
+				.isInstanceOf(VirtualThreadExecutor.class);
+	}
+
+	@Test
+	void concurrentDepositsAndReads() {
+		accountRepository.save(new Account("12345", BigDecimal.valueOf(1000)));
+
+		TransactionRequest request = new TransactionRequest();
+		request.setAmount(BigDecimal.ONE);
+
+		List<HttpStatusCode> statuses;
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<CompletableFuture<HttpStatusCode>> futures = IntStream.range(0, 200)
+					.mapToObj(i -> CompletableFuture.supplyAsync(() -> i % 2 == 0
+							? restTemplate.exchange("/api/accounts/12345/deposit", HttpMethod.POST,
+									new HttpEntity<>(request), String.class).getStatusCode()
+							: restTemplate.getForEntity("/api/accounts/12345", String.class).getStatusCode(), executor))
+					.toList();
+			statuses = futures.stream().map(CompletableFuture::join).toList();
+		}
+
+		assertThat(statuses).containsOnly(HttpStatus.OK);
+		assertThat(accountRepository.findByAccountNumber("12345").getBalance())
+				.isEqualByComparingTo(BigDecimal.valueOf(1100));
+	}
+}